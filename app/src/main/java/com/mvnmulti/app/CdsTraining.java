@@ -0,0 +1,25 @@
+package com.mvnmulti.app;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+// Training run for the appcds profile: starts the app on the default table, walks through read-only commands so
+// their classes land in the archive, and exits when the scripted input runs out.
+public class CdsTraining {
+    private static final String SESSION = String.join("\n",
+        "print", "print 0-1", "search a", "search regex [a-z]", "search any a b", "stats", "tables", "");
+
+    public static void main(String[] args) {
+        PrintStream console = System.out;
+        System.setIn(new ByteArrayInputStream(SESSION.getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Main.main(new String[0]);
+        } finally {
+            System.setOut(console);
+        }
+        console.println("AppCDS training run finished.");
+    }
+}
@@ -1,18 +1,47 @@
 package com.mvnmulti.app;
 
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.InstrumentedTableService;
+import com.mvnmulti.service.MetricsExporter;
+import com.mvnmulti.service.TableMetrics;
+import com.mvnmulti.service.TableService;
 import com.mvnmulti.service.TableServiceImpl;
-import com.mvnmulti.utilities.FileTable;
+import com.mvnmulti.service.TableWorkspace;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 public class Main {
+    private static final int DEFAULT_PORT = 8080;
+    private static final long DEFAULT_WORKSPACE_BUDGET_MB = 256;
+
     public static void main(String[] args) {
+        String fileName = null;
+        Integer serverPort = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--serve")) {
+                serverPort = DEFAULT_PORT;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    serverPort = Integer.parseInt(args[++i]);
+                }
+            } else if (fileName == null) {
+                fileName = args[i];
+            }
+        }
+
         Scanner scan = new Scanner(System.in);
-        FileTable fileTable = new FileTable();
-        TableServiceImpl tableService = new TableServiceImpl(fileTable);
-        TableActions tableActions = new TableActions(tableService, scan);
-        String fileName = args.length > 0 ? args[0] : null;
+        TableMetrics metrics = new TableMetrics();
+        long budgetBytes = Long.getLong("workspace.budget.mb", DEFAULT_WORKSPACE_BUDGET_MB) * 1024 * 1024;
+        long historyBytes = Long.getLong("history.limit.mb", TableServiceImpl.DEFAULT_HISTORY_LIMIT_BYTES >> 20) * 1024 * 1024;
+        // -Dtable.offheap=true keeps rows in direct memory, for tables too large for the heap; direct memory is capped
+        // at the heap size unless -XX:MaxDirectMemorySize says otherwise.
+        Supplier<Table> tableFactory = Boolean.getBoolean("table.offheap") ? Table::offHeap : Table::new;
+        TableWorkspace workspace = new TableWorkspace(budgetBytes,
+            fileTable -> new InstrumentedTableService(new TableServiceImpl(fileTable, historyBytes), metrics),
+            tableFactory);
+        TableActions tableActions = new TableActions(workspace, scan);
 
         if (fileName == null || fileName.trim().isEmpty()) {
             System.out.println("No file name provided. Loading default table from JAR...");
@@ -23,7 +52,7 @@ public class Main {
             if ("default.txt".equalsIgnoreCase(fileName)) {
                 tableActions.loadDefaultTable();
             } else {
-                tableActions.loadTableFromFile(fileName);
+                tableActions.loadTableFromFile(fileName, Boolean.getBoolean("table.load.strict"));
             }
         } catch (Exception e) {
             System.out.println("Error loading table from file: " + e.getMessage());
@@ -33,8 +62,46 @@ public class Main {
                 System.out.println("Error loading default table: " + ioException.getMessage());
             }
         }
+        if (workspace.getActive() == null) {
+            System.out.println("No table could be loaded.");
+            return;
+        }
+
+        MetricsExporter exporter = null;
+        String exportFile = System.getProperty("metrics.export.file");
+        if (exportFile != null && !exportFile.trim().isEmpty()) {
+            exporter = new MetricsExporter(metrics, Paths.get(exportFile));
+            exporter.start(Long.getLong("metrics.export.interval", 15));
+        }
+
+        if (serverPort != null) {
+            serve(workspace.getActive(), serverPort, exporter);
+            return;
+        }
 
         Menu menu = new Menu(tableActions);
         menu.show(scan);
+
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+
+    // The server's dispatcher thread keeps the JVM alive; it stops on Ctrl+C or SIGTERM.
+    private static void serve(TableService tableService, int port, MetricsExporter exporter) {
+        try {
+            TableServer server = new TableServer(tableService, port);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                if (exporter != null) {
+                    exporter.close();
+                }
+            }));
+            System.out.println("Serving table on http://127.0.0.1:" + server.getPort() + "/");
+            System.out.println("Send this token in the " + TableServer.TOKEN_HEADER + " header: " + server.getToken());
+        } catch (IOException e) {
+            System.out.println("Error starting server: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
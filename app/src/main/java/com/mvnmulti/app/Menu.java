@@ -13,16 +13,23 @@ public class Menu {
         boolean running = true;
 
         while (running) {
+            tableActions.applyFileChanges();
             printMenu();
 
             if (!scan.hasNextLine()) {
                 break;
             }
-            String action = scan.nextLine().trim();
+            String[] input = scan.nextLine().trim().split("\\s+", 2);
+            String action = input[0];
+            String arguments = input.length > 1 ? input[1].trim() : "";
 
             switch (action) {
                 case "search":
-                    tableActions.searchTable();
+                    if (arguments.isEmpty()) {
+                        tableActions.searchTable();
+                    } else {
+                        tableActions.searchTable(arguments);
+                    }
                     break;
                 case "edit":
                     tableActions.editCell();
@@ -33,14 +40,65 @@ public class Menu {
                 case "sort":
                     tableActions.sortTable();
                     break;
+                case "undo":
+                    tableActions.undo();
+                    break;
+                case "redo":
+                    tableActions.redo();
+                    break;
                 case "print":
-                    tableActions.printTable();
+                    if (arguments.isEmpty()) {
+                        tableActions.printTable();
+                    } else {
+                        tableActions.printTable(arguments);
+                    }
+                    break;
+                case "stats":
+                    tableActions.printStats();
+                    break;
+                case "open":
+                    tableActions.openTable(arguments);
+                    break;
+                case "use":
+                    tableActions.useTable(arguments);
+                    break;
+                case "tables":
+                    tableActions.listTables();
+                    break;
+                case "close":
+                    tableActions.closeTable(arguments);
+                    break;
+                case "find":
+                    tableActions.findKey(arguments);
+                    break;
+                case "watch":
+                    tableActions.watchTable();
+                    break;
+                case "unwatch":
+                    tableActions.unwatchTable();
+                    break;
+                case "aggregate":
+                    tableActions.aggregate(arguments);
+                    break;
+                case "diff":
+                    tableActions.diffTables(arguments);
+                    break;
+                case "patch":
+                    tableActions.applyPatch(arguments);
+                    break;
+                case "sortfile":
+                    tableActions.sortFile(arguments);
+                    break;
+                case "shard":
+                    tableActions.shardTable(arguments);
                     break;
                 case "reset":
                     tableActions.createTable("reset");
                     break;
                 case "x":
                     tableActions.handleSaveTable();
+                    tableActions.saveOpenTables();
+                    tableActions.unwatchTable();
                     System.out.println("Exiting application.");
                     running = false;
                     break;
@@ -52,11 +110,26 @@ public class Menu {
 
     private void printMenu() {
         System.out.println("MENU:");
-        System.out.println("[ search ] - Search");
+        System.out.println("[ search ] - Search  (search [regex | any] <term> [page <n>])");
         System.out.println("[ edit ] - Edit");
         System.out.println("[ add_row ] - Add Row");
-        System.out.println("[ print ] - Print");
+        System.out.println("[ print ] - Print  (print <from>-<to> | print page <n>)");
         System.out.println("[ sort ] - Sort");
+        System.out.println("[ undo ] - Undo The Last Edit, Row Insert Or Sort");
+        System.out.println("[ redo ] - Redo The Last Undone Change");
+        System.out.println("[ stats ] - Operation Statistics");
+        System.out.println("[ open ] - Open Table  (open <file> [name])");
+        System.out.println("[ use ] - Switch Table  (use <name>)");
+        System.out.println("[ tables ] - List Open Tables");
+        System.out.println("[ close ] - Close Table  (close <name>)");
+        System.out.println("[ find ] - Find Key In Open Tables  (find <key>)");
+        System.out.println("[ watch ] - Follow Appends To The Table File");
+        System.out.println("[ unwatch ] - Stop Following The Table File");
+        System.out.println("[ aggregate ] - Aggregate Cells  (aggregate count|group|top <key|value> <prefix|length|class|k>)");
+        System.out.println("[ diff ] - Compare Table Files  (diff <old> <new> <patch>)");
+        System.out.println("[ patch ] - Apply A Patch File  (patch <patch>)");
+        System.out.println("[ sortfile ] - Sort A Table File Too Large To Load  (sortfile <source> <target> <cells | col n> <asc/desc> [strategy])");
+        System.out.println("[ shard ] - Save As Shards  (shard <manifest> <count>)");
         System.out.println("[ reset ] - Reset");
         System.out.println("[ x ] - Exit");
         System.out.print("Action: ");
@@ -3,30 +3,328 @@ package com.mvnmulti.app;
 import com.mvnmulti.model.Table;
 import com.mvnmulti.model.Row;
 import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.FrequencyResult;
 import com.mvnmulti.model.SearchResult;
+import com.mvnmulti.service.CellField;
+import com.mvnmulti.service.CharClass;
+import com.mvnmulti.service.ExternalSort;
+import com.mvnmulti.service.InstrumentedTableService;
+import com.mvnmulti.service.SearchMode;
+import com.mvnmulti.service.SortStrategy;
+import com.mvnmulti.service.TableDiff;
 import com.mvnmulti.service.TableService;
+import com.mvnmulti.service.TableWorkspace;
+import com.mvnmulti.utilities.TableFileChange;
+import com.mvnmulti.utilities.TableFileWatcher;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class TableActions {
+    private static final int PAGE_SIZE = 100;
+    private static final Pattern ROW_RANGE = Pattern.compile("(\\d{1,9})\\s*-\\s*(\\d{1,9})");
+    private static final Pattern PAGE = Pattern.compile("page\\s+(\\d{1,9})");
+    private static final Pattern PAGED_SEARCH = Pattern.compile("(.+?)\\s+page\\s+(\\d{1,9})");
+    private static final Pattern SORT_FILE = Pattern.compile(
+        "(\\S+)\\s+(\\S+)\\s+(cells|col\\s+\\d{1,9})\\s+(asc|desc)(?:\\s+(\\S+))?");
+
+    private static final String DEFAULT_TABLE_NAME = "default";
+
     private TableService tableService;
+    private TableWorkspace workspace;
     private Scanner scan;
+    private TableFileWatcher watcher;
+    private TableService watchedService;
 
     public TableActions(TableService tableService, Scanner scan) {
         this.tableService = tableService;
         this.scan = scan;
     }
 
+    // With a workspace every load opens another named table and makes it the active one.
+    public TableActions(TableWorkspace workspace, Scanner scan) {
+        this.workspace = workspace;
+        this.tableService = workspace.getActive();
+        this.scan = scan;
+    }
+
+    public TableService getTableService() {
+        return tableService;
+    }
+
     public void loadTableFromFile(String fileName) throws IOException {
-        tableService.loadTableFromFile(fileName);
+        loadTableFromFile(fileName, false);
+    }
+
+    public void loadTableFromFile(String fileName, boolean strict) throws IOException {
+        if (workspace != null) {
+            tableService = workspace.open(tableName(fileName), fileName, strict);
+            return;
+        }
+        tableService.loadTableFromFile(fileName, strict);
     }
 
     public void loadDefaultTable() throws IOException {
+        if (workspace != null) {
+            tableService = workspace.openDefault(DEFAULT_TABLE_NAME);
+            return;
+        }
         tableService.loadDefaultTable();
     }
 
+    private static String tableName(String fileName) {
+        return Paths.get(fileName).getFileName().toString();
+    }
+
+    public void openTable(String arguments) {
+        if (!hasWorkspace()) return;
+        String[] parts = arguments.split("\\s+");
+        if (arguments.isEmpty() || parts.length > 2) {
+            System.out.println("Invalid input format. Please use 'open <file> [name]'.");
+            return;
+        }
+
+        try {
+            tableService = parts.length == 2 ? workspace.open(parts[1], parts[0]) : workspace.open(tableName(parts[0]), parts[0]);
+            System.out.println("Opened " + workspace.getActiveName() + " (" + tableService.getTable().getRowCount() + " rows).");
+        } catch (IOException e) {
+            System.out.println("Error loading table from file: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void useTable(String name) {
+        if (!hasWorkspace()) return;
+        try {
+            tableService = workspace.use(name);
+            System.out.println("Using " + name + ".");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void closeTable(String name) {
+        if (!hasWorkspace()) return;
+        if (workspace.getOpenTables().size() == 1) {
+            System.out.println("Cannot close the only open table.");
+            return;
+        }
+
+        try {
+            workspace.close(name);
+            tableService = workspace.getActive();
+            System.out.println("Closed " + name + ". Using " + workspace.getActiveName() + ".");
+        } catch (IOException e) {
+            System.out.println("Error saving table: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void listTables() {
+        if (!hasWorkspace()) return;
+        List<String> names = workspace.getOpenTables();
+        for (int i = names.size() - 1; i >= 0; i--) {
+            String name = names.get(i);
+            System.out.println((name.equals(workspace.getActiveName()) ? "* " : "  ") + name
+                + (workspace.isDirty(name) ? " (unsaved)" : "")
+                + " ~" + workspace.getEstimatedBytes(name) / 1024 + " KiB");
+        }
+        System.out.println("Total ~" + workspace.getEstimatedBytes() / 1024 + " KiB of "
+            + workspace.getMemoryBudgetBytes() / 1024 + " KiB budget.");
+    }
+
+    public void findKey(String key) {
+        if (!hasWorkspace()) return;
+        Set<String> names = workspace.findKey(key);
+        System.out.println(names.isEmpty() ? "Key not found in any open table." : "Found in: " + String.join(", ", names));
+    }
+
+    public void saveOpenTables() {
+        if (workspace == null) return;
+        try {
+            workspace.saveAll();
+        } catch (IOException e) {
+            System.out.println("Error saving table: " + e.getMessage());
+        }
+    }
+
+    public void watchTable() {
+        String fileName = tableService.getCurrentFileName();
+        if (fileName == null || tableService.isAppDefault()) {
+            System.out.println("Save the table to a file before watching it.");
+            return;
+        }
+
+        unwatchTable();
+        try {
+            watcher = new TableFileWatcher(Paths.get(fileName));
+            watchedService = tableService;
+            System.out.println("Watching " + fileName + " for changes.");
+        } catch (IOException e) {
+            System.out.println("Error watching file: " + e.getMessage());
+        }
+    }
+
+    public void unwatchTable() {
+        if (watcher == null) return;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.out.println("Error closing watcher: " + e.getMessage());
+        }
+        System.out.println("Stopped watching " + watcher.getFile().getFileName() + ".");
+        watcher = null;
+        watchedService = null;
+    }
+
+    // Called between commands so the watched table is only ever changed from the menu thread.
+    public void applyFileChanges() {
+        if (watcher == null || !watcher.pollChanged()) return;
+        try {
+            int rowsBefore = watchedService.getTable().getRowCount();
+            TableFileChange change = watchedService.reloadIfChanged();
+            if (change == TableFileChange.APPENDED) {
+                System.out.println("Appended " + (watchedService.getTable().getRowCount() - rowsBefore) + " rows from "
+                    + watcher.getFile().getFileName() + ".");
+            } else if (change == TableFileChange.RELOADED) {
+                System.out.println("Reloaded " + watcher.getFile().getFileName() + " after it was rewritten.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error reloading table: " + e.getMessage());
+        }
+    }
+
+    public void aggregate(String arguments) {
+        String[] parts = arguments.split("\\s+", 3);
+        if (parts.length != 3) {
+            System.out.println("Invalid input format. Please use 'aggregate count <key|value> <prefix>', "
+                + "'aggregate group <key|value> <length|class>' or 'aggregate top <key|value> <k>'.");
+            return;
+        }
+
+        try {
+            CellField field = CellField.fromOptionName(parts[1]);
+            switch (parts[0]) {
+                case "count":
+                    System.out.println(tableService.countCells(field, parts[2]) + " cells with a " + field.getOptionName()
+                        + " starting with " + parts[2] + ".");
+                    break;
+                case "group":
+                    if (parts[2].equals("class")) {
+                        for (Map.Entry<CharClass, Long> group : tableService.groupCellsByCharClass(field).entrySet()) {
+                            System.out.println(group.getKey().name().toLowerCase() + ": " + group.getValue());
+                        }
+                    } else {
+                        for (Map.Entry<String, Long> group : tableService.groupCellsByPrefix(field,
+                                Integer.parseInt(parts[2])).entrySet()) {
+                            System.out.println(group.getKey() + ": " + group.getValue());
+                        }
+                    }
+                    break;
+                case "top":
+                    for (FrequencyResult result : tableService.topCells(field, Integer.parseInt(parts[2]))) {
+                        System.out.println(result.getText() + ": " + result.getCount());
+                    }
+                    break;
+                default:
+                    System.out.println("Invalid aggregation. Please use 'count', 'group' or 'top'.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + parts[2]);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void diffTables(String arguments) {
+        String[] parts = arguments.split("\\s+");
+        if (parts.length != 3) {
+            System.out.println("Invalid input format. Please use 'diff <old file> <new file> <patch file>'.");
+            return;
+        }
+
+        try {
+            long changes = new TableDiff().diff(Paths.get(parts[0]), Paths.get(parts[1]), Paths.get(parts[2]));
+            System.out.println("Wrote " + changes + " changes to " + parts[2] + ".");
+        } catch (IOException e) {
+            System.out.println("Error comparing tables: " + e.getMessage());
+        }
+    }
+
+    public void sortFile(String arguments) {
+        Matcher matcher = SORT_FILE.matcher(arguments);
+        if (!matcher.matches()) {
+            System.out.println("Invalid input format. Please use "
+                + "'sortfile <source> <target> <cells | col n> <asc/desc> [both/key/value/numeric/nocase]'.");
+            return;
+        }
+
+        try {
+            Path source = Paths.get(matcher.group(1));
+            Path target = Paths.get(matcher.group(2));
+            String order = matcher.group(4);
+            SortStrategy strategy = matcher.group(5) != null ? SortStrategy.fromOptionName(matcher.group(5)) : SortStrategy.KEY_VALUE;
+            ExternalSort sort = new ExternalSort();
+            long rows = matcher.group(3).equals("cells")
+                ? sort.sortCells(source, target, order, strategy)
+                : sort.sortRows(source, target, Integer.parseInt(matcher.group(3).substring(4).trim()), order, strategy);
+            System.out.println("Wrote " + rows + " sorted rows to " + target + ".");
+        } catch (IOException e) {
+            System.out.println("Error sorting table file: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    public void shardTable(String arguments) {
+        String[] parts = arguments.split("\\s+");
+        if (parts.length != 2 || !parts[1].matches("\\d{1,4}")) {
+            System.out.println("Invalid input format. Please use 'shard <manifest file> <shard count>'.");
+            return;
+        }
+
+        try {
+            tableService.saveTableSharded(parts[0], Integer.parseInt(parts[1]));
+            System.out.println("Table saved to " + parts[1] + " shards listed in " + parts[0] + ".");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error saving table: " + e.getMessage());
+        }
+    }
+
+    public void applyPatch(String patchFile) {
+        if (patchFile.isEmpty()) {
+            System.out.println("Invalid input format. Please use 'patch <patch file>'.");
+            return;
+        }
+
+        try {
+            tableService.applyPatch(patchFile);
+            System.out.println("Applied " + patchFile + ".");
+        } catch (IOException e) {
+            System.out.println("Error applying patch; the table is unchanged: " + e.getMessage());
+            return;
+        }
+        handleSaveTable();
+    }
+
+    private boolean hasWorkspace() {
+        if (workspace == null) {
+            System.out.println("Multiple tables are not enabled.");
+            return false;
+        }
+        return true;
+    }
+
     public void printTable() {
         Table table = tableService.getTable();
         for (Row row : table.getRows()) {
@@ -34,10 +332,56 @@ public class TableActions {
         }
     }
 
+    public void printTable(String range) {
+        int[] bounds = parseRowRange(range);
+        if (bounds == null) {
+            System.out.println("Invalid range. Please use 'print <from>-<to>' or 'print page <n>'.");
+            return;
+        }
+
+        try {
+            for (Row row : tableService.getRows(bounds[0], bounds[1])) {
+                System.out.println(row.toString());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     public void searchTable() {
         System.out.print("Search term: ");
         String searchTerm = scan.nextLine().trim();
-        List<SearchResult> searchResults = tableService.searchTable(searchTerm);
+        searchTable(searchTerm);
+    }
+
+    public void searchTable(String query) {
+        SearchMode mode = SearchMode.LITERAL;
+        String[] words = query.split("\\s+", 2);
+        if (words.length == 2 && (words[0].equals(SearchMode.REGEX.getOptionName()) || words[0].equals(SearchMode.ANY_TERM.getOptionName()))) {
+            mode = SearchMode.fromOptionName(words[0]);
+            query = words[1];
+        }
+
+        try {
+            Matcher matcher = PAGED_SEARCH.matcher(query);
+            if (!matcher.matches()) {
+                printSearchResults(tableService.searchTable(query, mode));
+                return;
+            }
+
+            int page = Integer.parseInt(matcher.group(2));
+            if (page < 1) {
+                System.out.println("Invalid page. Pages start at 1.");
+                return;
+            }
+            int fromRow = (page - 1) * PAGE_SIZE;
+            printSearchResults(tableService.searchTable(matcher.group(1), mode, fromRow, fromRow + PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private void printSearchResults(List<SearchResult> searchResults) {
         System.out.println("Output:");
         for (SearchResult result : searchResults) {
             StringBuilder output = new StringBuilder();
@@ -67,6 +411,26 @@ public class TableActions {
         }
     }
 
+    private int[] parseRowRange(String range) {
+        Matcher rowRange = ROW_RANGE.matcher(range);
+        if (rowRange.matches()) {
+            int fromRow = Integer.parseInt(rowRange.group(1));
+            int toRow = Integer.parseInt(rowRange.group(2));
+            return fromRow <= toRow ? new int[] {fromRow, toRow + 1} : null;
+        }
+
+        Matcher page = PAGE.matcher(range);
+        if (page.matches()) {
+            int pageNumber = Integer.parseInt(page.group(1));
+            if (pageNumber < 1) {
+                return null;
+            }
+            int fromRow = (pageNumber - 1) * PAGE_SIZE;
+            return new int[] {fromRow, fromRow + PAGE_SIZE};
+        }
+        return null;
+    }
+
     public void createTable(String action) {
         boolean validInput = false;
         int rows = 0, columns = 0;
@@ -140,6 +504,26 @@ public class TableActions {
         }
     }
 
+    public void undo() {
+        String undone = tableService.undo();
+        if (undone == null) {
+            System.out.println("Nothing to undo.");
+            return;
+        }
+        System.out.println("Undid " + undone + ".");
+        handleSaveTable();
+    }
+
+    public void redo() {
+        String redone = tableService.redo();
+        if (redone == null) {
+            System.out.println("Nothing to redo.");
+            return;
+        }
+        System.out.println("Redid " + redone + ".");
+        handleSaveTable();
+    }
+
     public void addRow() {
         System.out.print("No. of Cells: ");
         if (!scan.hasNextInt()) {
@@ -173,19 +557,12 @@ public class TableActions {
         if (!scan.hasNextLine()) return;
         String input = scan.nextLine().trim();
         String[] parts = input.split(" - ");
-        if (parts.length != 2) {
-            System.out.println("Invalid input format. Please use 'row - <asc/desc>'.");
-            return;
-        }
-
-        int rowToSort;
-        try {
-            rowToSort = Integer.parseInt(parts[0].trim());
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid row number.");
+        if (parts.length != 2 && parts.length != 3) {
+            System.out.println("Invalid input format. Please use '<row | row,row,... | all | col n> - <asc/desc> [- both/key/value/numeric/nocase]'.");
             return;
         }
 
+        String target = parts[0].trim().toLowerCase();
         String order = parts[1].trim().toLowerCase();
 
         if (!order.equals("asc") && !order.equals("desc")) {
@@ -193,15 +570,49 @@ public class TableActions {
             return;
         }
 
+        SortStrategy strategy;
+        try {
+            strategy = parts.length == 3 ? SortStrategy.fromOptionName(parts[2].trim().toLowerCase()) : SortStrategy.KEY_VALUE;
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
         try {
-            tableService.sortTable(rowToSort, order);
-            System.out.println("Sorted row " + rowToSort + " in " + order + " order.");
+            if (target.equals("all")) {
+                tableService.sortAllRows(order, strategy);
+                System.out.println("Sorted all rows in " + order + " order.");
+            } else if (target.startsWith("col ")) {
+                int colToSort = Integer.parseInt(target.substring(4).trim());
+                tableService.sortRowsByColumn(colToSort, order, strategy);
+                System.out.println("Sorted rows by column " + colToSort + " in " + order + " order.");
+            } else if (target.contains(",")) {
+                int[] rowsToSort = Arrays.stream(target.split(","))
+                    .mapToInt(row -> Integer.parseInt(row.trim()))
+                    .toArray();
+                tableService.sortRows(rowsToSort, order, strategy);
+                System.out.println("Sorted rows " + target + " in " + order + " order.");
+            } else {
+                int rowToSort = Integer.parseInt(target);
+                tableService.sortTable(rowToSort, order, strategy);
+                System.out.println("Sorted row " + rowToSort + " in " + order + " order.");
+            }
             handleSaveTable();
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid row or column number.");
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
 
+    public void printStats() {
+        if (tableService instanceof InstrumentedTableService) {
+            System.out.print(((InstrumentedTableService) tableService).getMetrics().formatSummary());
+        } else {
+            System.out.println("Statistics are not enabled.");
+        }
+    }
+
     public void saveTable(String fileName) {
         try {
             tableService.saveTableToFile(fileName);
@@ -0,0 +1,340 @@
+package com.mvnmulti.app;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.SearchResult;
+import com.mvnmulti.service.SearchMode;
+import com.mvnmulti.service.SortStrategy;
+import com.mvnmulti.service.TableService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Serves one loaded table to local clients. Every request runs on its own virtual thread; searches and prints
+// share a read lock while loads, edits, inserts, sorts and saves take the write lock.
+//
+// Listening on loopback alone does not keep web pages out: a browser will send them a simple cross-origin POST, and
+// DNS rebinding lets them read the answers. So a request must name the server by a loopback Host, carry no Origin
+// other than the server's own, and send the token made at launch in the X-Table-Token header, which a page cannot
+// add without a preflight this server never grants. Files are loaded and saved only under the root directory.
+public class TableServer {
+    public static final String TOKEN_HEADER = "X-Table-Token";
+    private static final List<String> LOOPBACK_HOSTS = List.of("127.0.0.1", "localhost", "[::1]");
+
+    private final TableService tableService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String token = newToken();
+    private final Path root;
+
+    // Files are confined to the working directory.
+    public TableServer(TableService tableService, int port) throws IOException {
+        this(tableService, port, Paths.get(""));
+    }
+
+    public TableServer(TableService tableService, int port, Path root) throws IOException {
+        this.tableService = tableService;
+        this.root = root.toAbsolutePath().normalize();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/load", exchange -> handle(exchange, "POST", true, this::load));
+        server.createContext("/save", exchange -> handle(exchange, "POST", true, this::save));
+        server.createContext("/search", exchange -> handle(exchange, "GET", false, this::search));
+        server.createContext("/print", exchange -> handle(exchange, "GET", false, this::print));
+        server.createContext("/edit", exchange -> handle(exchange, "POST", true, this::edit));
+        server.createContext("/add_row", exchange -> handle(exchange, "POST", true, this::addRow));
+        server.createContext("/sort", exchange -> handle(exchange, "POST", true, this::sort));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private String load(Map<String, String> params) throws IOException {
+        tableService.loadTableFromFile(confined(required(params, "file")), Boolean.parseBoolean(params.get("strict")));
+        return "{\"rows\":" + tableService.getTable().getRowCount() + "}";
+    }
+
+    // Saving again to the file the table came from needs no file parameter; that file may lie outside the root, as
+    // the table was opened at launch.
+    private String save(Map<String, String> params) throws IOException {
+        String fileName = params.containsKey("file") ? confined(params.get("file")) : tableService.getCurrentFileName();
+        if (fileName == null) {
+            throw new IllegalArgumentException("Missing parameter: file (the table has not been loaded or saved yet)");
+        }
+        tableService.saveTableToFile(fileName);
+        return "{\"file\":" + quote(fileName) + "}";
+    }
+
+    private String search(Map<String, String> params) {
+        String term = required(params, "term");
+        SearchMode mode = SearchMode.fromOptionName(params.getOrDefault("mode", "literal"));
+        int fromRow = intParam(params, "from", 0);
+        int toRow = intParam(params, "to", Integer.MAX_VALUE);
+        List<SearchResult> results = tableService.searchTable(term, mode, fromRow, toRow);
+
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            SearchResult result = results.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"row\":").append(result.getRowIndex())
+                .append(",\"col\":").append(result.getColIndex())
+                .append(",\"keyOccurrences\":").append(result.getKeyOccurrences())
+                .append(",\"valueOccurrences\":").append(result.getValueOccurrences())
+                .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String print(Map<String, String> params) {
+        int fromRow = intParam(params, "from", 0);
+        int toRow = intParam(params, "to", Integer.MAX_VALUE);
+        List<Row> rows = tableService.getRows(fromRow, toRow);
+
+        StringBuilder json = new StringBuilder("{\"from\":").append(fromRow).append(",\"rows\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[');
+            List<Cell> cells = rows.get(i).getCells();
+            for (int j = 0; j < cells.size(); j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\"key\":").append(quote(cells.get(j).getKey()))
+                    .append(",\"value\":").append(quote(cells.get(j).getValue())).append('}');
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String edit(Map<String, String> params) {
+        EditCellResult result = tableService.editCell(intParam(params, "row", -1), intParam(params, "col", -1),
+            required(params, "type"), required(params, "value"));
+        return "{\"oldKey\":" + quote(result.getOldKey()) + ",\"oldValue\":" + quote(result.getOldValue())
+            + ",\"newKey\":" + quote(result.getNewKey()) + ",\"newValue\":" + quote(result.getNewValue()) + "}";
+    }
+
+    private String addRow(Map<String, String> params) {
+        int cells = intParam(params, "cells", -1);
+        if (cells < 1) {
+            throw new IllegalArgumentException(params.containsKey("cells") ? "cells must be at least 1."
+                : "Missing parameter: cells");
+        }
+        int rowIndex = intParam(params, "row", tableService.getTable().getRowCount());
+        tableService.addRow(cells, rowIndex);
+        return "{\"row\":" + rowIndex + "}";
+    }
+
+    private String sort(Map<String, String> params) {
+        String order = params.getOrDefault("order", "asc");
+        SortStrategy strategy = SortStrategy.fromOptionName(params.getOrDefault("strategy", "both"));
+        if (params.containsKey("col")) {
+            tableService.sortRowsByColumn(intParam(params, "col", -1), order, strategy);
+        } else if (params.containsKey("rows")) {
+            int[] rows = Arrays.stream(params.get("rows").split(",")).mapToInt(row -> Integer.parseInt(row.trim())).toArray();
+            tableService.sortRows(rows, order, strategy);
+        } else if (params.containsKey("row")) {
+            tableService.sortTable(intParam(params, "row", -1), order, strategy);
+        } else {
+            tableService.sortAllRows(order, strategy);
+        }
+        return "{\"sorted\":true}";
+    }
+
+    private void handle(HttpExchange exchange, String method, boolean write, Handler handler) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            String refused = refusal(exchange);
+            if (refused != null) {
+                status = 403;
+                body = error(refused);
+            } else if (!exchange.getRequestMethod().equals(method)) {
+                status = 405;
+                body = error("Use " + method + ".");
+            } else {
+                Lock held = write ? lock.writeLock() : lock.readLock();
+                held.lock();
+                try {
+                    body = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+                } finally {
+                    held.unlock();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            status = 500;
+            body = error(e.getMessage());
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    // Why the request is refused, or null when it comes from a local client that knows the token.
+    private String refusal(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !isLoopback(host)) {
+            return "Host must be a loopback address of this server.";
+        }
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        if (origin != null && !(origin.startsWith("http://") && isLoopback(origin.substring("http://".length())))) {
+            return "Cross-origin requests are not allowed.";
+        }
+        String sent = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        if (sent == null || !MessageDigest.isEqual(sent.getBytes(StandardCharsets.UTF_8), expected)) {
+            return "Missing or wrong " + TOKEN_HEADER + " header.";
+        }
+        return null;
+    }
+
+    private boolean isLoopback(String hostAndPort) {
+        String port = ":" + getPort();
+        for (String host : LOOPBACK_HOSTS) {
+            if (hostAndPort.equalsIgnoreCase(host + port)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Resolved against the root, following links, and refused if it ends up outside it.
+    private String confined(String fileName) throws IOException {
+        Path realRoot = root.toRealPath();
+        Path path = realRoot.resolve(fileName).normalize();
+        Path parent = path.getParent();
+        Path real = Files.exists(path) ? path.toRealPath()
+            : parent != null && Files.exists(parent) ? parent.toRealPath().resolve(path.getFileName()) : path;
+        if (!real.startsWith(realRoot)) {
+            throw new IllegalArgumentException("File must be inside " + realRoot + ": " + fileName);
+        }
+        return real.toString();
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            params.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                keyValue.length == 2 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message == null ? "" : message) + "}";
+    }
+
+    static String quote(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        String handle(Map<String, String> params) throws IOException;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mvnmulti.app;
+
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DefaultTableTest {
+
+    // The build generates app_default.table from app_default.txt (see the exec plugin in app/pom.xml).
+    @Test
+    public void testCompactDefaultMatchesText() throws IOException {
+        FileTable compact = new FileTable();
+        compact.loadDefaultTable();
+
+        FileTable text = new FileTable();
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("app_default.txt")) {
+            text.loadTableFromContent(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        assertEquals(text.getTable(), compact.getTable());
+        assertTrue(compact.isAppDefault());
+        assertEquals("app_default.txt", compact.getCurrentFileName());
+    }
+}
@@ -0,0 +1,189 @@
+package com.mvnmulti.app;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.TableServiceImpl;
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableServerTest {
+    private TableServiceImpl tableService;
+    private TableServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tableService = new TableServiceImpl(new FileTable());
+        Table table = tableService.getTable();
+        for (int i = 0; i < 50; i++) {
+            List<Cell> cells = new ArrayList<>();
+            cells.add(new Cell("k" + i, "v" + i));
+            cells.add(new Cell("x" + i, "\"q\u001f"));
+            table.addRow(new Row(cells));
+        }
+        server = new TableServer(tableService, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        return sendWith(method, path, TableServer.TOKEN_HEADER, server.getToken());
+    }
+
+    private HttpResponse<String> sendWith(String method, String path, String... headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody());
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // HttpClient sets Host itself, so a request naming another host is written by hand.
+    private String sendWithHost(String host) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write(("POST /add_row?cells=1 HTTP/1.1\r\nHost: " + host + "\r\n"
+                + TableServer.TOKEN_HEADER + ": " + server.getToken() + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+        }
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        HttpResponse<String> response = send("GET", "/search?term=k4&from=0&to=45");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"results\":[{\"row\":4,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0},"
+            + "{\"row\":40,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0},"
+            + "{\"row\":41,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0},"
+            + "{\"row\":42,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0},"
+            + "{\"row\":43,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0},"
+            + "{\"row\":44,\"col\":0,\"keyOccurrences\":1,\"valueOccurrences\":0}]}", response.body());
+    }
+
+    @Test
+    public void testPrintEscapesJson() throws Exception {
+        HttpResponse<String> response = send("GET", "/print?from=1&to=2");
+
+        assertEquals("{\"from\":1,\"rows\":[[{\"key\":\"k1\",\"value\":\"v1\"},{\"key\":\"x1\",\"value\":\"\\\"q\\u001f\"}]]}",
+            response.body());
+    }
+
+    @Test
+    public void testEditAndSort() throws Exception {
+        HttpResponse<String> edit = send("POST", "/edit?row=0&col=0&type=key&value=z%20z");
+        HttpResponse<String> sort = send("POST", "/sort?row=0&order=desc&strategy=key");
+
+        assertEquals("{\"oldKey\":\"k0\",\"oldValue\":\"v0\",\"newKey\":\"z z\",\"newValue\":\"v0\"}", edit.body());
+        assertEquals(200, sort.statusCode());
+        assertEquals("z z", tableService.getTable().getRow(0).getCells().get(0).getKey());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(400, send("POST", "/edit?row=0&col=0&type=key&value=k1").statusCode());
+        assertEquals(400, send("GET", "/search").statusCode());
+        assertEquals(400, send("POST", "/add_row?cells=abc").statusCode());
+        assertEquals(400, send("POST", "/add_row").statusCode());
+        assertEquals(400, send("POST", "/add_row?cells=0").statusCode());
+        assertEquals(400, send("POST", "/add_row?cells=-2").statusCode());
+        assertEquals(50, tableService.getTable().getRowCount());
+        assertEquals(405, send("GET", "/edit?row=0&col=0&type=value&value=1").statusCode());
+        assertEquals(500, send("POST", "/load?file=missing.txt").statusCode());
+        assertEquals(404, send("GET", "/nothing").statusCode());
+    }
+
+    @Test
+    public void testSaveWithoutFileNeedsOne() throws Exception {
+        HttpResponse<String> response = send("POST", "/save");
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("Missing parameter: file"));
+    }
+
+    @Test
+    public void testRefusesRequestsThatMayComeFromAWebPage() throws Exception {
+        String local = "http://127.0.0.1:" + server.getPort();
+
+        assertEquals(403, sendWith("POST", "/add_row?cells=1").statusCode());
+        assertEquals(403, sendWith("POST", "/add_row?cells=1", TableServer.TOKEN_HEADER, "wrong").statusCode());
+        assertEquals(403, sendWith("POST", "/add_row?cells=1", TableServer.TOKEN_HEADER, server.getToken(),
+            "Origin", "http://evil.example").statusCode());
+        assertEquals("HTTP/1.1 403 Forbidden", sendWithHost("evil.example:" + server.getPort()));
+        assertEquals(50, tableService.getTable().getRowCount());
+
+        assertEquals(200, sendWith("POST", "/add_row?cells=1", TableServer.TOKEN_HEADER, server.getToken(),
+            "Origin", local).statusCode());
+        assertEquals("HTTP/1.1 200 OK", sendWithHost("localhost:" + server.getPort()));
+        assertEquals(52, tableService.getTable().getRowCount());
+    }
+
+    @Test
+    public void testFilesStayInsideTheRoot(@TempDir Path directory) throws Exception {
+        server.stop();
+        Path root = Files.createDirectory(directory.resolve("root"));
+        server = new TableServer(tableService, 0, root);
+        server.start();
+
+        assertEquals(400, send("POST", "/save?file=../outside.txt").statusCode());
+        assertEquals(400, send("POST", "/save?file=" + directory.resolve("outside.txt")).statusCode());
+        assertEquals(400, send("POST", "/load?file=../outside.txt").statusCode());
+        assertFalse(Files.exists(directory.resolve("outside.txt")));
+
+        assertEquals(200, send("POST", "/save?file=tables/inside.txt").statusCode());
+        assertTrue(Files.exists(root.resolve("tables/inside.txt")));
+        assertEquals(200, send("POST", "/load?file=tables/inside.txt").statusCode());
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                String path = i % 4 == 0 ? "/add_row?cells=2&row=0" : "/search?term=k&from=0&to=1000";
+                String method = i % 4 == 0 ? "POST" : "GET";
+                responses.add(executor.submit(() -> send(method, path).statusCode()));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get());
+            }
+        }
+
+        assertEquals(100, tableService.getTable().getRowCount());
+        assertTrue(send("GET", "/print?from=0&to=1000").body().startsWith("{\"from\":0,\"rows\":[["));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.FrequencyResult;
+import com.mvnmulti.service.CellField;
+import com.mvnmulti.service.CharClass;
+import com.mvnmulti.service.TableServiceImpl;
+import com.mvnmulti.utilities.FileTable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Marks the table modified before every call so each one is a full pass; cachedTop shows the cost of a repeat query.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AggregateBenchmark {
+    @Param({"1000000", "10000000"})
+    private int cells;
+
+    private TableServiceImpl tableService;
+
+    @Setup(Level.Trial)
+    public void createTable() {
+        tableService = new TableServiceImpl(new FileTable());
+        BenchmarkTables.fill(tableService.getTable(), cells, 42);
+    }
+
+    @Benchmark
+    public long countByPrefix() {
+        tableService.getTable().markModified();
+        return tableService.countCells(CellField.VALUE, "a");
+    }
+
+    @Benchmark
+    public Map<CharClass, Long> groupByCharClass() {
+        tableService.getTable().markModified();
+        return tableService.groupCellsByCharClass(CellField.VALUE);
+    }
+
+    @Benchmark
+    public Map<String, Long> groupByPrefix() {
+        tableService.getTable().markModified();
+        return tableService.groupCellsByPrefix(CellField.VALUE, 1);
+    }
+
+    @Benchmark
+    public List<FrequencyResult> topValues() {
+        tableService.getTable().markModified();
+        return tableService.topCells(CellField.VALUE, 10);
+    }
+
+    @Benchmark
+    public List<FrequencyResult> cachedTop() {
+        return tableService.topCells(CellField.VALUE, 10);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.utilities.AsyncFileTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Loads a thousand small tables at once through the virtual-thread facade at several concurrency limits.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncFileTableBenchmark {
+    private static final int TABLES = 1000;
+
+    @Param({"1", "8", "64", "1000"})
+    private int maxConcurrency;
+
+    private final Path[] files = new Path[TABLES];
+    private AsyncFileTable asyncFileTable;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        for (int i = 0; i < TABLES; i++) {
+            files[i] = BenchmarkTables.writeTableFile(100, i);
+        }
+        asyncFileTable = new AsyncFileTable(maxConcurrency);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        asyncFileTable.close();
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public Object loadManyTables() {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[TABLES];
+        for (int i = 0; i < TABLES; i++) {
+            loads[i] = asyncFileTable.load(files[i].toString());
+        }
+        return CompletableFuture.allOf(loads).join();
+    }
+}
@@ -0,0 +1,124 @@
+package com.mvnmulti.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks with the GC profiler and compares average time and allocation per operation against a
+// baseline recorded on the same machine with --save-baseline.
+//
+//   java -cp benchmarks/target/benchmarks.jar com.mvnmulti.benchmarks.BenchmarkRunner [--save-baseline] [regex] [-p name=v1,v2]
+public class BenchmarkRunner {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final Path RESULTS_DIR = Paths.get(System.getProperty("benchmarks.dir", "benchmarks/results"));
+    private static final Path BASELINE_FILE = Paths.get(System.getProperty("benchmarks.baseline", "benchmarks/baseline.tsv"));
+    private static final double THRESHOLD = Double.parseDouble(System.getProperty("benchmarks.threshold", "0.10"));
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        boolean saveBaseline = false;
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(RESULTS_DIR.resolve("latest.json").toString());
+
+        boolean hasInclude = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--save-baseline")) {
+                saveBaseline = true;
+            } else if (args[i].equals("-p") && i + 1 < args.length) {
+                String[] param = args[++i].split("=", 2);
+                options.param(param[0], param[1].split(","));
+            } else {
+                options.include(args[i]);
+                hasInclude = true;
+            }
+        }
+        if (!hasInclude) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+
+        Files.createDirectories(RESULTS_DIR);
+        Collection<RunResult> results = new Runner(options.build()).run();
+        Map<String, double[]> current = summarize(results);
+        if (saveBaseline) {
+            writeBaseline(BASELINE_FILE, current);
+            System.out.println("Baseline written to " + BASELINE_FILE);
+        } else if (Files.exists(BASELINE_FILE)) {
+            compare(readBaseline(BASELINE_FILE), current);
+        } else {
+            System.out.println("No baseline at " + BASELINE_FILE + "; rerun with --save-baseline to record one.");
+        }
+    }
+
+    private static Map<String, double[]> summarize(Collection<RunResult> results) {
+        Map<String, double[]> summary = new LinkedHashMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            StringBuilder name = new StringBuilder(params.getBenchmark());
+            for (String key : params.getParamsKeys()) {
+                name.append(' ').append(key).append('=').append(params.getParam(key));
+            }
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION_METRIC);
+            summary.put(name.toString(), new double[] {
+                result.getPrimaryResult().getScore(),
+                allocation == null ? Double.NaN : allocation.getScore()
+            });
+        }
+        return summary;
+    }
+
+    private static void compare(Map<String, double[]> baseline, Map<String, double[]> current) {
+        int regressions = 0;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double[] after = entry.getValue();
+            boolean slower = after[0] > before[0] * (1 + THRESHOLD);
+            boolean allocatesMore = after[1] > before[1] * (1 + THRESHOLD);
+            if (slower || allocatesMore) {
+                regressions++;
+                System.out.printf("REGRESSION %s: time %.3f -> %.3f, alloc B/op %.1f -> %.1f%n",
+                    entry.getKey(), before[0], after[0], before[1], after[1]);
+            }
+        }
+        System.out.println(regressions == 0 ? "No regressions against baseline." : regressions + " regression(s) against baseline.");
+    }
+
+    private static void writeBaseline(Path file, Map<String, double[]> summary) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, double[]> entry : summary.entrySet()) {
+            lines.add(entry.getKey() + '\t' + entry.getValue()[0] + '\t' + entry.getValue()[1]);
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, double[]> readBaseline(Path file) throws IOException {
+        Map<String, double[]> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields.length == 3) {
+                baseline.put(fields[0], new double[] {Double.parseDouble(fields[1]), Double.parseDouble(fields[2])});
+            }
+        }
+        return baseline;
+    }
+}
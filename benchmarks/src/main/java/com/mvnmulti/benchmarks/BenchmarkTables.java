@@ -0,0 +1,63 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Fixtures are built directly rather than through createTable: its 3-character keys run out at 94^3 cells.
+final class BenchmarkTables {
+    static final int COLUMNS = 10;
+
+    private BenchmarkTables() {
+    }
+
+    static void fill(Table table, int cells, long seed) {
+        Random random = new Random(seed);
+        int columns = Math.min(cells, COLUMNS);
+        int rows = Math.max(1, cells / columns);
+        int keyIndex = 0;
+        table.clear();
+        for (int i = 0; i < rows; i++) {
+            List<Cell> rowCells = new ArrayList<>(columns);
+            for (int j = 0; j < columns; j++) {
+                rowCells.add(new Cell(uniqueKey(keyIndex++), randomAscii(random, 3)));
+            }
+            table.addRow(new Row(rowCells));
+        }
+    }
+
+    static Path writeTableFile(int cells, long seed) throws IOException {
+        Path file = Files.createTempFile("table-benchmark-" + cells + "-", ".txt");
+        file.toFile().deleteOnExit();
+        FileTable fileTable = new FileTable();
+        fill(fileTable.getTable(), cells, seed);
+        fileTable.saveTableToFile(file.toString());
+        return file;
+    }
+
+    // Base-94 over the printable range, at least three characters like generated keys.
+    static String uniqueKey(int index) {
+        StringBuilder key = new StringBuilder();
+        do {
+            key.append((char) (index % 94 + 33));
+            index /= 94;
+        } while (index > 0 || key.length() < 3);
+        return key.toString();
+    }
+
+    static String randomAscii(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (random.nextInt(94) + 33);
+        }
+        return new String(chars);
+    }
+}
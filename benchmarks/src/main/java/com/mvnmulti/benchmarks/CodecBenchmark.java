@@ -0,0 +1,69 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.utilities.TableCodec;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Streams a native table file to CSV or JSON Lines and back; divide the file sizes by the scores for MB/s.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+    @Param({"1000000", "10000000"})
+    private int cells;
+
+    @Param({"csv", "jsonl"})
+    private String format;
+
+    private Path nativeFile;
+    private Path exportedFile;
+    private Path scratchFile;
+    private TableCodec codec;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        codec = TableCodecs.forFileName("table." + format);
+        nativeFile = BenchmarkTables.writeTableFile(cells, 42);
+        exportedFile = Files.createTempFile("table-benchmark-export-", "." + format);
+        scratchFile = Files.createTempFile("table-benchmark-scratch-", ".txt");
+        TableCodecs.convert(nativeFile, TableCodecs.NATIVE, exportedFile, codec);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(nativeFile);
+        Files.deleteIfExists(exportedFile);
+        Files.deleteIfExists(scratchFile);
+    }
+
+    @Benchmark
+    public long exportFromNative() throws IOException {
+        return TableCodecs.convert(nativeFile, TableCodecs.NATIVE, scratchFile, codec);
+    }
+
+    @Benchmark
+    public long importToNative() throws IOException {
+        return TableCodecs.convert(exportedFile, codec, scratchFile, TableCodecs.NATIVE);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.TableServiceImpl;
+import com.mvnmulti.utilities.FileTable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// createTable draws unique 3-character keys, so it cannot fill more than 94^3 cells; sizes stop at 10^5.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CreateTableBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int cells;
+
+    private TableServiceImpl tableService;
+    private int rows;
+    private int columns;
+
+    @Setup
+    public void createService() {
+        tableService = new TableServiceImpl(new FileTable());
+        columns = Math.min(cells, BenchmarkTables.COLUMNS);
+        rows = cells / columns;
+    }
+
+    @Benchmark
+    public Table createTable() {
+        tableService.createTable(rows, columns);
+        return tableService.getTable();
+    }
+}
@@ -0,0 +1,64 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FileTableBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    private int cells;
+
+    private Path sourceFile;
+    private Path targetFile;
+    private FileTable loadedTable;
+
+    @Setup(Level.Trial)
+    public void writeSourceFile() throws IOException {
+        sourceFile = BenchmarkTables.writeTableFile(cells, 42);
+        targetFile = Files.createTempFile("table-benchmark-save-", ".txt");
+        loadedTable = new FileTable();
+        loadedTable.loadTableFromFile(sourceFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(sourceFile);
+        Files.deleteIfExists(targetFile);
+    }
+
+    @Benchmark
+    public Table loadTableFromFile() throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(sourceFile.toString());
+        return fileTable.getTable();
+    }
+
+    @Benchmark
+    public void saveTableToFile() throws IOException {
+        loadedTable.saveTableToFile(targetFile.toString());
+    }
+}
@@ -0,0 +1,63 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.ChunkedList;
+import com.mvnmulti.model.Row;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Inserts a row at a random position and removes one from another, so the list keeps its size across invocations.
+// Every row is the same instance; only the cost of moving references is measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RowInsertBenchmark {
+    @Param({"100000", "10000000"})
+    private int rows;
+
+    @Param({"array", "chunked"})
+    private String storage;
+
+    private List<Row> list;
+    private Random random;
+    private Row row;
+
+    @Setup(Level.Trial)
+    public void createList() {
+        row = new Row(new ArrayList<>());
+        list = storage.equals("array") ? new ArrayList<>(rows + 1) : new ChunkedList<>();
+        for (int i = 0; i < rows; i++) {
+            list.add(row);
+        }
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public Row insertAndRemoveAtRandom() {
+        list.add(random.nextInt(list.size() + 1), row);
+        return list.remove(random.nextInt(list.size()));
+    }
+
+    @Benchmark
+    public Row getAtRandom() {
+        return list.get(random.nextInt(list.size()));
+    }
+}
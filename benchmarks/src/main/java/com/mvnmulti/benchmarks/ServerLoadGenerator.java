@@ -0,0 +1,98 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.service.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives a running table server (app started with --serve) from many virtual-thread clients and reports
+// throughput and latency percentiles. The token is the one the server printed at startup.
+//
+//   java -cp benchmarks/target/benchmarks.jar com.mvnmulti.benchmarks.ServerLoadGenerator token [url] [clients] [seconds] [rows]
+public class ServerLoadGenerator {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ServerLoadGenerator token [url] [clients] [seconds] [rows]");
+            System.exit(2);
+        }
+        String token = args[0];
+        String baseUrl = args.length > 1 ? args[1] : "http://127.0.0.1:8080";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int rows = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        // Requests sent with a method the server does not take for that path; these should never happen.
+        LongAdder wrongMethod = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                long seed = i;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    while (System.nanoTime() < deadline) {
+                        String path = nextPath(random, rows);
+                        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                            .header("X-Table-Token", token);
+                        if (path.startsWith("/edit")) {
+                            builder.POST(HttpRequest.BodyPublishers.noBody());
+                        }
+                        HttpRequest request = builder.build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 405) {
+                                wrongMethod.increment();
+                            }
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latency.record(System.nanoTime() - start);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        System.out.printf(Locale.ROOT,
+            "requests=%d errors=%d wrongMethod=%d throughput=%.1f req/s p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+            latency.getCount(), errors.sum(), wrongMethod.sum(), latency.getCount() / (double) seconds,
+            latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6, latency.getMax() / 1e6);
+    }
+
+    // Nine reads (paged searches and prints) for every write (a value edit).
+    private static String nextPath(Random random, int rows) {
+        int fromRow = random.nextInt(Math.max(1, rows));
+        switch (random.nextInt(10)) {
+            case 0:
+                return "/edit?row=" + fromRow + "&col=0&type=value&value=" + random.nextInt(1000);
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+                return "/print?from=" + fromRow + "&to=" + (fromRow + 10);
+            default:
+                return "/search?term=" + (char) ('a' + random.nextInt(26)) + "&from=" + fromRow + "&to=" + (fromRow + 100);
+        }
+    }
+}
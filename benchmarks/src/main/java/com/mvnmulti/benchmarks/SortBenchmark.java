@@ -0,0 +1,82 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.CellComparators;
+import com.mvnmulti.service.TableServiceImpl;
+import com.mvnmulti.utilities.FileTable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"100", "10000", "1000000"})
+    private int cellsPerRow;
+
+    // Undo history limit; 0 leaves sorts unrecorded, the default records each sort's permutation.
+    @Param({"0", "16"})
+    private int historyMb;
+
+    private List<Cell> unsortedCells;
+    private TableServiceImpl tableService;
+
+    @Setup(Level.Trial)
+    public void createCells() {
+        Random random = new Random(42);
+        unsortedCells = new ArrayList<>(cellsPerRow);
+        for (int i = 0; i < cellsPerRow; i++) {
+            unsortedCells.add(new Cell(BenchmarkTables.randomAscii(random, 3), BenchmarkTables.randomAscii(random, 3)));
+        }
+        tableService = new TableServiceImpl(new FileTable(), historyMb * 1024L * 1024);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTable() {
+        Table table = tableService.getTable();
+        table.clear();
+        table.addRow(new Row(new ArrayList<>(unsortedCells)));
+    }
+
+    @Benchmark
+    public List<Cell> concatenatingComparator() {
+        List<Cell> cells = tableService.getTable().getRow(0).getCells();
+        cells.sort(Comparator.comparing(cell -> (cell.getKey() + cell.getValue())));
+        return cells;
+    }
+
+    @Benchmark
+    public List<Cell> keyValueComparator() {
+        List<Cell> cells = tableService.getTable().getRow(0).getCells();
+        cells.sort(CellComparators.KEY_VALUE);
+        return cells;
+    }
+
+    @Benchmark
+    public List<Cell> sortTable() {
+        tableService.sortTable(0, "asc");
+        return tableService.getTable().getRow(0).getCells();
+    }
+}
@@ -0,0 +1,104 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.service.TableDiff;
+import com.mvnmulti.service.TablePatch;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Diffs two versions of a table file that differ in about one row in a hundred, then patches the old one. The files
+// are written row by row and the fork gets a 64 MB heap, far less than either table would take loaded, so a run that
+// completes shows the diff and the patch stay within a bounded amount of memory.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx64m"})
+public class TableDiffBenchmark {
+    @Param({"1000000", "10000000"})
+    private int cells;
+
+    private Path oldFile;
+    private Path newFile;
+    private Path patchFile;
+    private Path patchedFile;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        oldFile = Files.createTempFile("table-diff-old-", ".txt");
+        newFile = Files.createTempFile("table-diff-new-", ".txt");
+        patchFile = Files.createTempFile("table-diff-", ".patch");
+        patchedFile = Files.createTempFile("table-diff-patched-", ".txt");
+
+        Random random = new Random(42);
+        int key = 0;
+        try (Writer oldWriter = TableCodecs.newWriter(oldFile); Writer newWriter = TableCodecs.newWriter(newFile)) {
+            for (int row = 0; row < cells / BenchmarkTables.COLUMNS; row++) {
+                String line = randomLine(random, key);
+                key += BenchmarkTables.COLUMNS;
+                int change = random.nextInt(300);
+                if (change == 0) {
+                    newWriter.write(randomLine(random, cells + key));
+                } else if (change == 1) {
+                    oldWriter.write(line);
+                    continue;
+                } else if (change == 2) {
+                    oldWriter.write(line);
+                    newWriter.write(line.substring(0, line.length() - 4) + "new)\n");
+                    continue;
+                }
+                oldWriter.write(line);
+                newWriter.write(line);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(oldFile);
+        Files.deleteIfExists(newFile);
+        Files.deleteIfExists(patchFile);
+        Files.deleteIfExists(patchedFile);
+    }
+
+    private static String randomLine(Random random, int firstKey) {
+        StringBuilder line = new StringBuilder();
+        for (int j = 0; j < BenchmarkTables.COLUMNS; j++) {
+            line.append(j == 0 ? "" : "\u001f").append('(').append(BenchmarkTables.uniqueKey(firstKey + j))
+                .append('\u001e').append(BenchmarkTables.randomAscii(random, 3)).append(')');
+        }
+        return line.append('\n').toString();
+    }
+
+    @Benchmark
+    public long diff() throws IOException {
+        return new TableDiff().diff(oldFile, newFile, patchFile);
+    }
+
+    @Benchmark
+    public long diffAndPatch() throws IOException {
+        long changes = new TableDiff().diff(oldFile, newFile, patchFile);
+        TablePatch.apply(oldFile, patchFile, patchedFile);
+        return changes;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.SearchResult;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.SortStrategy;
+import com.mvnmulti.service.TableServiceImpl;
+import com.mvnmulti.utilities.FileTable;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TableServiceBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    private int cells;
+
+    private TableServiceImpl tableService;
+    private Random random;
+    private int editCounter;
+
+    @Setup(Level.Trial)
+    public void createTable() {
+        tableService = new TableServiceImpl(new FileTable());
+        BenchmarkTables.fill(tableService.getTable(), cells, 42);
+        random = new Random(7);
+    }
+
+    // Rows remember their last sort; clearing that before each call makes sortAllRows do the full sort.
+    @State(Scope.Thread)
+    public static class UnsortedRows {
+        @Setup(Level.Invocation)
+        public void clearSortedFlags(TableServiceBenchmark benchmark) {
+            for (Row row : benchmark.tableService.getTable().getRows()) {
+                row.setSortedOrder(null);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SearchResult> searchTable() {
+        return tableService.searchTable("a!");
+    }
+
+    @Benchmark
+    public EditCellResult editCellValue() {
+        Table table = tableService.getTable();
+        int rowIndex = random.nextInt(table.getRowCount());
+        int colIndex = random.nextInt(table.getRow(rowIndex).getCells().size());
+        return tableService.editCell(rowIndex, colIndex, "value", BenchmarkTables.randomAscii(random, 3));
+    }
+
+    // Key edits scan the whole table for duplicates; unique keys are drawn past the fixture's key range.
+    @Benchmark
+    public EditCellResult editCellKey() {
+        Table table = tableService.getTable();
+        int rowIndex = random.nextInt(table.getRowCount());
+        int colIndex = random.nextInt(table.getRow(rowIndex).getCells().size());
+        return tableService.editCell(rowIndex, colIndex, "key", BenchmarkTables.uniqueKey(cells + editCounter++));
+    }
+
+    // Inserts in the middle and undoes the insert so the table keeps its size, row marks and history across
+    // invocations.
+    @Benchmark
+    public String addRow() {
+        tableService.addRow(BenchmarkTables.COLUMNS, tableService.getTable().getRowCount() / 2);
+        return tableService.undo();
+    }
+
+    @Benchmark
+    public Table sortAllRows(UnsortedRows unsortedRows) {
+        tableService.sortAllRows("asc", SortStrategy.KEY_VALUE);
+        return tableService.getTable();
+    }
+
+    @Benchmark
+    public Table sortRowsByColumn() {
+        tableService.sortRowsByColumn(0, random.nextBoolean() ? "asc" : "desc", SortStrategy.KEY_VALUE);
+        return tableService.getTable();
+    }
+}
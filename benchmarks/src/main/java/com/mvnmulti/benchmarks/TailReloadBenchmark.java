@@ -0,0 +1,73 @@
+package com.mvnmulti.benchmarks;
+
+import com.mvnmulti.utilities.FileTable;
+import com.mvnmulti.utilities.TableFileChange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Appends a batch of rows to a loaded table's file and picks them up; the cost should follow the batch, not the table.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TailReloadBenchmark {
+    private static final int APPENDED_ROWS = 100;
+
+    @Param({"10000", "1000000"})
+    private int cells;
+
+    private Path file;
+    private FileTable fileTable;
+    private byte[] batch;
+
+    @Setup(Level.Iteration)
+    public void loadTable() throws IOException {
+        file = BenchmarkTables.writeTableFile(cells, 42);
+        fileTable = new FileTable();
+        fileTable.loadTableFromFile(file.toString());
+
+        Random random = new Random(7);
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < APPENDED_ROWS; i++) {
+            for (int j = 0; j < BenchmarkTables.COLUMNS; j++) {
+                rows.append(j == 0 ? "" : "\u001f").append('(').append(BenchmarkTables.randomAscii(random, 3))
+                    .append('\u001e').append(BenchmarkTables.randomAscii(random, 3)).append(')');
+            }
+            rows.append('\n');
+        }
+        batch = rows.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public TableFileChange appendAndReload() throws IOException {
+        Files.write(file, batch, StandardOpenOption.APPEND);
+        return fileTable.reloadIfChanged();
+    }
+}
@@ -1,18 +1,115 @@
 package com.mvnmulti.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.util.Random;
 
 @Data
-@AllArgsConstructor
 public class Cell {
     private String key;
     private String value;
 
+    // First four UTF-16 units of key + value packed big-endian; compared unsigned it orders like the full string.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private transient long sortPrefix;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private transient boolean sortPrefixValid;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private transient double numericValue;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private transient boolean numericValueValid;
+
+    // The row the cell was last added to, told of every change so it forgets its sorted order.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    transient Row owner;
+
+    public Cell(String key, String value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+        sortPrefixValid = false;
+        changed();
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+        sortPrefixValid = false;
+        numericValueValid = false;
+        changed();
+    }
+
+    private void changed() {
+        if (owner != null) {
+            owner.cellChanged();
+        }
+    }
+
+    public long getSortPrefix() {
+        if (!sortPrefixValid) {
+            sortPrefix = packPrefix(key, value);
+            sortPrefixValid = true;
+        }
+        return sortPrefix;
+    }
+
+    // The value parsed as a number, or NaN when it is not numeric; parsed once per value.
+    public double getNumericValue() {
+        if (!numericValueValid) {
+            numericValue = parseNumber(value);
+            numericValueValid = true;
+        }
+        return numericValue;
+    }
+
+    // How getNumericValue reads a value, for callers holding the text without a Cell.
+    public static double parseNumber(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty() || "+-.0123456789".indexOf(trimmed.charAt(0)) < 0) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long packPrefix(String key, String value) {
+        long prefix = 0;
+        int keyLength = key.length();
+        int length = keyLength + value.length();
+        for (int i = 0; i < 4; i++) {
+            char c = 0;
+            if (i < length) {
+                c = i < keyLength ? key.charAt(i) : value.charAt(i - keyLength);
+            }
+            prefix = (prefix << 16) | c;
+        }
+        return prefix;
+    }
+
     @Override
     public String toString() {
         return key + "," + value;
     }
-}
\ No newline at end of file
+}
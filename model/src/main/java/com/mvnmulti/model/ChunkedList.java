@@ -0,0 +1,563 @@
+package com.mvnmulti.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// A list kept as a counted B+-tree of fixed-size blocks. Every branch knows how many elements sit below it, so get,
+// set, add and remove at any position descend O(log n) levels and shift at most one block, where ArrayList moves every
+// later element. Iterators and bulk operations walk a block at a time, so full scans stay O(n).
+public class ChunkedList<E> extends AbstractList<E> {
+    static final int LEAF_CAPACITY = 512;
+    static final int BRANCH_CAPACITY = 64;
+
+    private Node root = new Leaf();
+
+    public ChunkedList() {
+    }
+
+    public ChunkedList(Collection<? extends E> elements) {
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, root.size);
+        return (E) root.get(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        Objects.checkIndex(index, root.size);
+        return (E) root.set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkPosition(index);
+        Node split = root.insert(index, element);
+        if (split != null) {
+            Branch branch = new Branch();
+            branch.children[0] = root;
+            branch.children[1] = split;
+            branch.childCount = 2;
+            branch.size = root.size + split.size;
+            root = branch;
+        }
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        Objects.checkIndex(index, root.size);
+        Object removed = root.remove(index);
+        if (root.size == 0) {
+            root = new Leaf();
+        }
+        while (root instanceof Branch branch && branch.childCount == 1) {
+            root = branch.children[0];
+        }
+        modCount++;
+        return (E) removed;
+    }
+
+    @Override
+    public void clear() {
+        root = new Leaf();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        checkPosition(index);
+        return new Itr(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        root.forEach((Consumer<Object>) action);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // Sorts a flat copy and writes it back block by block, leaving the tree shape as it was.
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> comparator) {
+        int expectedModCount = modCount;
+        Object[] elements = toArray();
+        Arrays.sort(elements, (Comparator<Object>) comparator);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        root.fill(elements, 0);
+        modCount++;
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return new RangeSpliterator(0, root.size, modCount);
+    }
+
+    // Leaves in order, for tests that check the tree stays packed.
+    int leafCount() {
+        return root.leafCount();
+    }
+
+    private void checkPosition(int index) {
+        if (index < 0 || index > root.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + root.size);
+        }
+    }
+
+    private abstract static class Node {
+        int size;
+
+        abstract Object get(int index);
+
+        abstract Object set(int index, Object element);
+
+        // Returns the new right sibling when the node had to split, null otherwise.
+        abstract Node insert(int index, Object element);
+
+        abstract Object remove(int index);
+
+        // Moves all of next into this node if one of them is under a quarter full and together they fit.
+        abstract boolean absorb(Node next);
+
+        abstract void forEach(Consumer<Object> action);
+
+        abstract int fill(Object[] elements, int from);
+
+        abstract int leafCount();
+    }
+
+    private static final class Leaf extends Node {
+        private final Object[] items = new Object[LEAF_CAPACITY];
+
+        @Override
+        Object get(int index) {
+            return items[index];
+        }
+
+        @Override
+        Object set(int index, Object element) {
+            Object old = items[index];
+            items[index] = element;
+            return old;
+        }
+
+        @Override
+        Node insert(int index, Object element) {
+            if (size < LEAF_CAPACITY) {
+                System.arraycopy(items, index, items, index + 1, size - index);
+                items[index] = element;
+                size++;
+                return null;
+            }
+
+            // Appending past a full leaf starts a new one, so tables built in order stay densely packed.
+            Leaf right = new Leaf();
+            if (index == size) {
+                right.items[0] = element;
+                right.size = 1;
+                return right;
+            }
+            int half = size / 2;
+            right.size = size - half;
+            System.arraycopy(items, half, right.items, 0, right.size);
+            Arrays.fill(items, half, size, null);
+            size = half;
+            if (index <= half) {
+                insert(index, element);
+            } else {
+                right.insert(index - half, element);
+            }
+            return right;
+        }
+
+        @Override
+        Object remove(int index) {
+            Object old = items[index];
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            items[--size] = null;
+            return old;
+        }
+
+        @Override
+        boolean absorb(Node next) {
+            Leaf leaf = (Leaf) next;
+            if ((size >= LEAF_CAPACITY / 4 && leaf.size >= LEAF_CAPACITY / 4) || size + leaf.size > LEAF_CAPACITY) {
+                return false;
+            }
+            System.arraycopy(leaf.items, 0, items, size, leaf.size);
+            size += leaf.size;
+            return true;
+        }
+
+        @Override
+        void forEach(Consumer<Object> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(items[i]);
+            }
+        }
+
+        @Override
+        int fill(Object[] elements, int from) {
+            System.arraycopy(elements, from, items, 0, size);
+            return from + size;
+        }
+
+        @Override
+        int leafCount() {
+            return 1;
+        }
+    }
+
+    private static final class Branch extends Node {
+        private final Node[] children = new Node[BRANCH_CAPACITY];
+        private int childCount;
+
+        @Override
+        Object get(int index) {
+            for (int i = 0; ; i++) {
+                Node child = children[i];
+                if (index < child.size) {
+                    return child.get(index);
+                }
+                index -= child.size;
+            }
+        }
+
+        @Override
+        Object set(int index, Object element) {
+            for (int i = 0; ; i++) {
+                Node child = children[i];
+                if (index < child.size) {
+                    return child.set(index, element);
+                }
+                index -= child.size;
+            }
+        }
+
+        @Override
+        Node insert(int index, Object element) {
+            int i = 0;
+            while (i < childCount - 1 && index >= children[i].size) {
+                index -= children[i].size;
+                i++;
+            }
+            Node split = children[i].insert(index, element);
+            size++;
+            if (split == null) {
+                return null;
+            }
+            if (childCount < BRANCH_CAPACITY) {
+                insertChild(i + 1, split);
+                return null;
+            }
+
+            Branch right = new Branch();
+            if (i + 1 == childCount) {
+                right.insertChild(0, split);
+            } else {
+                int half = childCount / 2;
+                right.childCount = childCount - half;
+                System.arraycopy(children, half, right.children, 0, right.childCount);
+                Arrays.fill(children, half, childCount, null);
+                childCount = half;
+                if (i + 1 <= half) {
+                    insertChild(i + 1, split);
+                } else {
+                    right.insertChild(i + 1 - half, split);
+                }
+            }
+            right.size = right.recount();
+            size = recount();
+            return right;
+        }
+
+        @Override
+        Object remove(int index) {
+            int i = 0;
+            while (index >= children[i].size) {
+                index -= children[i].size;
+                i++;
+            }
+            Node child = children[i];
+            Object old = child.remove(index);
+            size--;
+            if (child.size == 0) {
+                removeChild(i);
+            } else if (i > 0 && children[i - 1].absorb(child)) {
+                removeChild(i);
+            } else if (i + 1 < childCount && child.absorb(children[i + 1])) {
+                removeChild(i + 1);
+            }
+            return old;
+        }
+
+        @Override
+        boolean absorb(Node next) {
+            Branch branch = (Branch) next;
+            if ((childCount >= BRANCH_CAPACITY / 4 && branch.childCount >= BRANCH_CAPACITY / 4)
+                    || childCount + branch.childCount > BRANCH_CAPACITY) {
+                return false;
+            }
+            System.arraycopy(branch.children, 0, children, childCount, branch.childCount);
+            childCount += branch.childCount;
+            size += branch.size;
+            return true;
+        }
+
+        @Override
+        void forEach(Consumer<Object> action) {
+            for (int i = 0; i < childCount; i++) {
+                children[i].forEach(action);
+            }
+        }
+
+        @Override
+        int fill(Object[] elements, int from) {
+            for (int i = 0; i < childCount; i++) {
+                from = children[i].fill(elements, from);
+            }
+            return from;
+        }
+
+        @Override
+        int leafCount() {
+            int leaves = 0;
+            for (int i = 0; i < childCount; i++) {
+                leaves += children[i].leafCount();
+            }
+            return leaves;
+        }
+
+        private void insertChild(int position, Node child) {
+            System.arraycopy(children, position, children, position + 1, childCount - position);
+            children[position] = child;
+            childCount++;
+        }
+
+        private void removeChild(int position) {
+            System.arraycopy(children, position + 1, children, position, childCount - position - 1);
+            children[--childCount] = null;
+        }
+
+        private int recount() {
+            int total = 0;
+            for (int i = 0; i < childCount; i++) {
+                total += children[i].size;
+            }
+            return total;
+        }
+    }
+
+    // Remembers the leaf it last read from, so stepping through neighbouring positions only descends the tree once
+    // per leaf.
+    private class Itr implements ListIterator<E> {
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+        private Leaf leaf;
+        private int leafStart;
+
+        Itr(int index) {
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < root.size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= root.size) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = cursor++;
+            return elementAt(lastReturned);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkForComodification();
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = --cursor;
+            return elementAt(lastReturned);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void set(E element) {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            elementAt(lastReturned);
+            leaf.items[lastReturned - leafStart] = element;
+        }
+
+        @Override
+        public void add(E element) {
+            checkForComodification();
+            ChunkedList.this.add(cursor++, element);
+            afterStructuralChange();
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            ChunkedList.this.remove(lastReturned);
+            cursor = lastReturned;
+            afterStructuralChange();
+        }
+
+        @SuppressWarnings("unchecked")
+        E elementAt(int index) {
+            if (leaf == null || index < leafStart || index >= leafStart + leaf.size) {
+                Node node = root;
+                int start = 0;
+                while (node instanceof Branch branch) {
+                    int i = 0;
+                    while (index - start >= branch.children[i].size) {
+                        start += branch.children[i].size;
+                        i++;
+                    }
+                    node = branch.children[i];
+                }
+                leaf = (Leaf) node;
+                leafStart = start;
+            }
+            return (E) leaf.items[index - leafStart];
+        }
+
+        private void afterStructuralChange() {
+            lastReturned = -1;
+            expectedModCount = modCount;
+            leaf = null;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // Splits by position, so parallel streams get balanced halves without copying the list.
+    private final class RangeSpliterator implements Spliterator<E> {
+        private int index;
+        private final int end;
+        private final int expectedModCount;
+        private Itr cursor;
+
+        RangeSpliterator(int index, int end, int expectedModCount) {
+            this.index = index;
+            this.end = end;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (index >= end) {
+                return false;
+            }
+            action.accept(cursor().elementAt(index++));
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            Itr elements = cursor();
+            for (; index < end; index++) {
+                action.accept(elements.elementAt(index));
+            }
+            checkForComodification();
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (middle - index < LEAF_CAPACITY) {
+                return null;
+            }
+            Spliterator<E> prefix = new RangeSpliterator(index, middle, expectedModCount);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+        private Itr cursor() {
+            if (cursor == null) {
+                cursor = new Itr(index);
+            }
+            return cursor;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
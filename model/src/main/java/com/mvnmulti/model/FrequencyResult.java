@@ -0,0 +1,11 @@
+package com.mvnmulti.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FrequencyResult {
+    private final String text;
+    private final long count;
+}
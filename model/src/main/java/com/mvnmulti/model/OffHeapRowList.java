@@ -0,0 +1,458 @@
+package com.mvnmulti.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Rows kept outside the heap in direct buffers ("slabs"), so the collector sees one long per row, the address of its
+// record, instead of a row, a list, cells and strings. get decodes a fresh Row on every call; a change to a returned
+// row is kept only once the row is passed back to set, as Table.setRow does. Cursor reads cells in place for scans
+// and sorts that should not decode every row.
+//
+// A record holds its capacity in bytes and its cell count, then each cell's key and value as an int header (length
+// << 1, plus 1 when the chars take two bytes rather than one) followed by the chars. A row that outgrows its record is
+// written again at the end and the old record becomes garbage; once garbage outweighs live records they are copied
+// into fresh slabs. clear hands full-size slabs to a pool shared by every list, so a reloaded or newly opened table
+// reuses them at once. The pool holds at most table.offheap.pool.mb of slabs (256 MB by default, 0 turns it off);
+// smaller slabs and those the pool has no room for are only dropped, and their direct memory is freed whenever the
+// collector gets to them.
+public class OffHeapRowList extends AbstractList<Row> implements RandomAccess {
+    public static final int SLAB_BYTES = 1 << 24;
+    // Small tables start with a small slab; each further slab doubles in size up to SLAB_BYTES.
+    private static final int FIRST_SLAB_BYTES = 1 << 16;
+    private static final long MAX_POOLED_SLABS = Long.getLong("table.offheap.pool.mb", 256) * 1024 * 1024 / SLAB_BYTES;
+    private static final Deque<ByteBuffer> POOL = new ArrayDeque<>();
+
+    private static final int HEADER_BYTES = 8;
+    private static final int TEXT_HEADER_BYTES = 4;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private long[] addresses = new long[16];
+    private int size;
+    // Next free byte in the last slab.
+    private int end;
+    private long liveBytes;
+    private long garbageBytes;
+
+    public OffHeapRowList() {
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Row get(int index) {
+        Objects.checkIndex(index, size);
+        return decode(addresses[index]);
+    }
+
+    // Rewrites the record in place when the row still fits it.
+    @Override
+    public Row set(int index, Row row) {
+        Objects.checkIndex(index, size);
+        long address = addresses[index];
+        Row previous = decode(address);
+        List<Cell> cells = row.getCells();
+        int bytes = recordBytes(cells);
+        ByteBuffer slab = slab(address);
+        int capacity = slab.getInt(offset(address));
+        if (bytes <= capacity) {
+            write(slab, offset(address), capacity, cells);
+        } else {
+            discard(address);
+            addresses[index] = append(cells, bytes);
+            compactIfWasteful();
+        }
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Row row) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        long address = append(row.getCells(), recordBytes(row.getCells()));
+        if (size == addresses.length) {
+            addresses = Arrays.copyOf(addresses, size + (size >> 1));
+        }
+        System.arraycopy(addresses, index, addresses, index + 1, size - index);
+        addresses[index] = address;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Row remove(int index) {
+        Objects.checkIndex(index, size);
+        long address = addresses[index];
+        Row previous = decode(address);
+        discard(address);
+        System.arraycopy(addresses, index + 1, addresses, index, size - index - 1);
+        size--;
+        modCount++;
+        compactIfWasteful();
+        return previous;
+    }
+
+    // Pools the full-size slabs for reuse by this or any other list, while the pool has room, and drops the rest.
+    @Override
+    public void clear() {
+        release(slabs);
+        slabs.clear();
+        addresses = new long[16];
+        size = 0;
+        end = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        modCount++;
+    }
+
+    // Bytes held by live records, which is about what the rows take outside the heap.
+    public long getStoredBytes() {
+        return liveBytes;
+    }
+
+    // Row i becomes the row that was at order[i].
+    public void reorderRows(int[] order) {
+        if (order.length != size) {
+            throw new IllegalArgumentException("Order has " + order.length + " positions for " + size + " rows.");
+        }
+        long[] reordered = new long[addresses.length];
+        for (int i = 0; i < size; i++) {
+            reordered[i] = addresses[order[i]];
+        }
+        addresses = reordered;
+    }
+
+    // Cell i of the row becomes the cell that was at order[offset + i]; the record keeps its size, so this is done in
+    // place.
+    public void reorderCells(int index, int[] order, int offset) {
+        Objects.checkIndex(index, size);
+        long address = addresses[index];
+        ByteBuffer slab = slab(address);
+        int base = offset(address);
+        int cellCount = slab.getInt(base + 4);
+        int[] starts = new int[cellCount + 1];
+        starts[0] = base + HEADER_BYTES;
+        for (int i = 0; i < cellCount; i++) {
+            starts[i + 1] = textEnd(slab, textEnd(slab, starts[i]));
+        }
+
+        byte[] cells = new byte[starts[cellCount] - starts[0]];
+        slab.get(starts[0], cells);
+        int position = starts[0];
+        for (int i = 0; i < cellCount; i++) {
+            int cell = order[offset + i];
+            int length = starts[cell + 1] - starts[cell];
+            slab.put(position, cells, starts[cell] - starts[0], length);
+            position += length;
+        }
+    }
+
+    // Scans the stored keys without decoding them.
+    public boolean containsKey(String key) {
+        boolean wide = isWide(key);
+        int header = key.length() << 1 | (wide ? 1 : 0);
+        byte[] narrow = wide ? null : key.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < size; i++) {
+            ByteBuffer slab = slab(addresses[i]);
+            int position = offset(addresses[i]);
+            int cellCount = slab.getInt(position + 4);
+            position += HEADER_BYTES;
+            for (int j = 0; j < cellCount; j++) {
+                if (slab.getInt(position) == header && textEquals(slab, position + TEXT_HEADER_BYTES, key, narrow)) {
+                    return true;
+                }
+                position = textEnd(slab, textEnd(slab, position));
+            }
+        }
+        return false;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private long append(List<Cell> cells, int bytes) {
+        if (slabs.isEmpty() || end + bytes > slabs.get(slabs.size() - 1).capacity()) {
+            addSlab(bytes);
+        }
+        ByteBuffer slab = slabs.get(slabs.size() - 1);
+        long address = (long) (slabs.size() - 1) << 32 | end;
+        write(slab, end, bytes, cells);
+        end += bytes;
+        liveBytes += bytes;
+        return address;
+    }
+
+    private void addSlab(int minBytes) {
+        int bytes = (int) Math.min(SLAB_BYTES, (long) FIRST_SLAB_BYTES << Math.min(slabs.size(), 16));
+        ByteBuffer slab = null;
+        if (minBytes <= bytes && bytes == SLAB_BYTES) {
+            synchronized (POOL) {
+                slab = POOL.poll();
+            }
+        }
+        if (slab == null) {
+            slab = ByteBuffer.allocateDirect(Math.max(minBytes, bytes)).order(ByteOrder.nativeOrder());
+        }
+        slabs.add(slab);
+        end = 0;
+    }
+
+    private static void release(List<ByteBuffer> released) {
+        synchronized (POOL) {
+            for (ByteBuffer slab : released) {
+                if (slab.capacity() == SLAB_BYTES && POOL.size() < MAX_POOLED_SLABS) {
+                    POOL.push(slab);
+                }
+            }
+        }
+    }
+
+    private void discard(long address) {
+        int capacity = slab(address).getInt(offset(address));
+        liveBytes -= capacity;
+        garbageBytes += capacity;
+    }
+
+    private void compactIfWasteful() {
+        if (garbageBytes <= Math.max(liveBytes, FIRST_SLAB_BYTES)) {
+            return;
+        }
+        List<ByteBuffer> old = new ArrayList<>(slabs);
+        slabs.clear();
+        end = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        for (int i = 0; i < size; i++) {
+            ByteBuffer source = old.get((int) (addresses[i] >>> 32));
+            int from = offset(addresses[i]);
+            int cellCount = source.getInt(from + 4);
+            int used = from + HEADER_BYTES;
+            for (int j = 0; j < cellCount; j++) {
+                used = textEnd(source, textEnd(source, used));
+            }
+            int bytes = used - from;
+
+            if (slabs.isEmpty() || end + bytes > slabs.get(slabs.size() - 1).capacity()) {
+                addSlab(bytes);
+            }
+            ByteBuffer target = slabs.get(slabs.size() - 1);
+            target.put(end, source, from, bytes);
+            target.putInt(end, bytes);
+            addresses[i] = (long) (slabs.size() - 1) << 32 | end;
+            end += bytes;
+            liveBytes += bytes;
+        }
+        release(old);
+    }
+
+    private static int recordBytes(List<Cell> cells) {
+        long bytes = HEADER_BYTES;
+        for (Cell cell : cells) {
+            bytes += textBytes(cell.getKey()) + textBytes(cell.getValue());
+        }
+        if (bytes > SLAB_BYTES * 64L) {
+            throw new IllegalArgumentException("Row too large to store off the heap: " + bytes + " bytes.");
+        }
+        return (int) bytes;
+    }
+
+    private static long textBytes(String text) {
+        return TEXT_HEADER_BYTES + (long) text.length() * (isWide(text) ? 2 : 1);
+    }
+
+    private static boolean isWide(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void write(ByteBuffer slab, int offset, int capacity, List<Cell> cells) {
+        slab.putInt(offset, capacity);
+        slab.putInt(offset + 4, cells.size());
+        int position = offset + HEADER_BYTES;
+        for (Cell cell : cells) {
+            position = writeText(slab, position, cell.getKey());
+            position = writeText(slab, position, cell.getValue());
+        }
+    }
+
+    private static int writeText(ByteBuffer slab, int position, String text) {
+        boolean wide = isWide(text);
+        int length = text.length();
+        slab.putInt(position, length << 1 | (wide ? 1 : 0));
+        position += TEXT_HEADER_BYTES;
+        if (!wide) {
+            slab.put(position, text.getBytes(StandardCharsets.ISO_8859_1));
+            return position + length;
+        }
+        for (int i = 0; i < length; i++) {
+            slab.putChar(position + 2 * i, text.charAt(i));
+        }
+        return position + 2 * length;
+    }
+
+    private Row decode(long address) {
+        ByteBuffer slab = slab(address);
+        int position = offset(address);
+        int cellCount = slab.getInt(position + 4);
+        List<Cell> cells = new ArrayList<>(cellCount);
+        position += HEADER_BYTES;
+        for (int i = 0; i < cellCount; i++) {
+            String key = readText(slab, position);
+            position = textEnd(slab, position);
+            String value = readText(slab, position);
+            position = textEnd(slab, position);
+            cells.add(new Cell(key, value));
+        }
+        return new Row(cells);
+    }
+
+    private static String readText(ByteBuffer slab, int position) {
+        int header = slab.getInt(position);
+        int length = header >>> 1;
+        position += TEXT_HEADER_BYTES;
+        if ((header & 1) == 0) {
+            byte[] bytes = new byte[length];
+            slab.get(position, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = slab.getChar(position + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    private static int textEnd(ByteBuffer slab, int position) {
+        int header = slab.getInt(position);
+        return position + TEXT_HEADER_BYTES + ((header >>> 1) << (header & 1));
+    }
+
+    // The header has already been matched, so the lengths agree.
+    private static boolean textEquals(ByteBuffer slab, int position, String text, byte[] narrow) {
+        if (narrow != null) {
+            for (int i = 0; i < narrow.length; i++) {
+                if (slab.get(position + i) != narrow[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (slab.getChar(position + 2 * i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads one row at a time in place. The text returned by key or value is overwritten by the next call of the same
+    // method and is only valid until the list is next changed.
+    public final class Cursor {
+        private final Text key = new Text();
+        private final Text value = new Text();
+        private ByteBuffer slab;
+        private int[] cellStarts = new int[8];
+        private int cellCount;
+        private int located;
+
+        private Cursor() {
+        }
+
+        public Cursor seek(int index) {
+            Objects.checkIndex(index, size);
+            long address = addresses[index];
+            slab = slab(address);
+            cellCount = slab.getInt(offset(address) + 4);
+            cellStarts[0] = offset(address) + HEADER_BYTES;
+            located = 1;
+            return this;
+        }
+
+        public int cellCount() {
+            return cellCount;
+        }
+
+        public CharSequence key(int cell) {
+            key.bind(slab, locate(cell));
+            return key;
+        }
+
+        public CharSequence value(int cell) {
+            value.bind(slab, textEnd(slab, locate(cell)));
+            return value;
+        }
+
+        private int locate(int cell) {
+            Objects.checkIndex(cell, cellCount);
+            if (cell >= cellStarts.length) {
+                cellStarts = Arrays.copyOf(cellStarts, Math.max(cell + 1, cellStarts.length * 2));
+            }
+            while (located <= cell) {
+                cellStarts[located] = textEnd(slab, textEnd(slab, cellStarts[located - 1]));
+                located++;
+            }
+            return cellStarts[cell];
+        }
+    }
+
+    private static final class Text implements CharSequence {
+        private ByteBuffer slab;
+        private int start;
+        private int length;
+        private boolean wide;
+
+        void bind(ByteBuffer slab, int position) {
+            int header = slab.getInt(position);
+            this.slab = slab;
+            this.start = position + TEXT_HEADER_BYTES;
+            this.length = header >>> 1;
+            this.wide = (header & 1) != 0;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            Objects.checkIndex(index, length);
+            return wide ? slab.getChar(start + 2 * index) : (char) (slab.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return readText(slab, start - TEXT_HEADER_BYTES);
+        }
+    }
+}
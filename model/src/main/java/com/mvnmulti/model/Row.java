@@ -1,16 +1,37 @@
 package com.mvnmulti.model;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.RandomAccess;
 
 @Data
 public class Row {
-    private List<Cell> cells = new ArrayList<>();
+    // A view of the list the row was given; changes through it, or to one of its cells, clear sortedOrder.
+    private List<Cell> cells;
+
+    // Strategy and order the cells were last sorted in; sortedOrder is null once the row has been edited since.
+    @EqualsAndHashCode.Exclude
+    private transient String sortedBy;
+
+    @EqualsAndHashCode.Exclude
+    private transient String sortedOrder;
 
     public Row(List<Cell> cells) {
-        this.cells = cells;
+        this.cells = new CellList(cells);
+    }
+
+    public void setCells(List<Cell> cells) {
+        this.cells = new CellList(cells);
+        sortedOrder = null;
+    }
+
+    void cellChanged() {
+        sortedOrder = null;
     }
 
     @Override
@@ -21,4 +42,61 @@ public class Row {
         }
         return String.join("   ", cellStrings);
     }
-}
\ No newline at end of file
+
+    // Each cell added is owned by this row, so its setters reach cellChanged.
+    private final class CellList extends AbstractList<Cell> implements RandomAccess {
+        private final List<Cell> cells;
+
+        CellList(List<Cell> cells) {
+            this.cells = cells;
+            for (Cell cell : cells) {
+                own(cell);
+            }
+        }
+
+        private void own(Cell cell) {
+            if (cell != null) {
+                cell.owner = Row.this;
+            }
+        }
+
+        @Override
+        public Cell get(int index) {
+            return cells.get(index);
+        }
+
+        @Override
+        public int size() {
+            return cells.size();
+        }
+
+        @Override
+        public Cell set(int index, Cell cell) {
+            own(cell);
+            sortedOrder = null;
+            return cells.set(index, cell);
+        }
+
+        @Override
+        public void add(int index, Cell cell) {
+            own(cell);
+            sortedOrder = null;
+            cells.add(index, cell);
+            modCount++;
+        }
+
+        @Override
+        public Cell remove(int index) {
+            sortedOrder = null;
+            modCount++;
+            return cells.remove(index);
+        }
+
+        @Override
+        public void sort(Comparator<? super Cell> comparator) {
+            sortedOrder = null;
+            cells.sort(comparator);
+            modCount++;
+        }
+    }
+}
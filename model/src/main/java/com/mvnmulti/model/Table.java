@@ -1,15 +1,66 @@
 package com.mvnmulti.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 @Data
 @NoArgsConstructor
 public class Table {
-    private List<Row> rows = new ArrayList<>();
+    // Positional inserts and lookups are O(log n), so adding a row near the top of a large table stays cheap.
+    private List<Row> rows = new ChunkedList<>();
+
+    // Bumped by every change made through Table or the service, so holders can tell whether it has unsaved edits.
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient int modificationCount;
+
+    // Keys held outside these rows, such as in the other shards of a sharded table, which containsKey also reports.
+    // A lookup rather than a set, so those keys can stay on disk.
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient Predicate<String> reservedKeys = key -> false;
+
+    // Row positions that follow rows inserted or removed above them, such as where each shard of a sharded table
+    // starts; a row inserted at a marked position goes above the mark. Dropped when the rows are replaced.
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient int[] rowMarks;
+
+    // Rows encoded outside the heap (see OffHeapRowList), for tables too large to keep as objects.
+    public static Table offHeap() {
+        Table table = new Table();
+        table.rows = new OffHeapRowList();
+        return table;
+    }
+
+    // Adopts a ChunkedList or an OffHeapRowList as it is and copies any other list into storage of the current kind.
+    // Off-heap storage that is replaced is released.
+    public void setRows(List<Row> rows) {
+        List<Row> previous = this.rows;
+        if (rows instanceof ChunkedList || rows instanceof OffHeapRowList) {
+            this.rows = rows;
+        } else {
+            this.rows = previous instanceof OffHeapRowList ? new OffHeapRowList() : new ChunkedList<>();
+            this.rows.addAll(rows);
+        }
+        if (previous instanceof OffHeapRowList && previous != this.rows) {
+            previous.clear();
+        }
+        rowMarks = null;
+        markModified();
+    }
+
+    public void markModified() {
+        modificationCount++;
+    }
 
     public int getRowCount() {
         return rows.size();
@@ -20,22 +71,61 @@ public class Table {
     }
 
     public void addRow(Row row) {
+        moveRowMarks(rows.size(), 1);
         rows.add(row);
+        markModified();
+    }
+
+    public void addRow(int index, Row row) {
+        rows.add(index, row);
+        moveRowMarks(index, 1);
+        markModified();
     }
 
     public Row getRow(int index) {
         return rows.get(index);
     }
 
+    public List<Row> getRowRange(int fromIndex, int toIndex) {
+        return rows.subList(fromIndex, toIndex);
+    }
+
+    // Also writes back a row that was changed in place, which off-heap rows need as getRow returns a copy.
     public void setRow(int index, Row row) {
         rows.set(index, row);
+        markModified();
+    }
+
+    public Row removeRow(int index) {
+        Row row = rows.remove(index);
+        moveRowMarks(index + 1, -1);
+        markModified();
+        return row;
     }
 
     public void clear() {
         rows.clear();
+        rowMarks = null;
+        markModified();
+    }
+
+    private void moveRowMarks(int from, int by) {
+        if (rowMarks != null) {
+            for (int i = 0; i < rowMarks.length; i++) {
+                if (rowMarks[i] >= from) {
+                    rowMarks[i] += by;
+                }
+            }
+        }
     }
 
     public boolean containsKey(String key) {
+        if (reservedKeys.test(key)) {
+            return true;
+        }
+        if (rows instanceof OffHeapRowList) {
+            return ((OffHeapRowList) rows).containsKey(key);
+        }
         for (Row row : rows) {
             for (Cell cell : row.getCells()) {
                 if (cell.getKey().equals(key)) {
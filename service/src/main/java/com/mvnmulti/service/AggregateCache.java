@@ -0,0 +1,42 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Table;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Aggregation results for one table, dropped as soon as the table's modification count moves on.
+class AggregateCache {
+    private final Map<String, Object> entries;
+    private Table table;
+    private int modificationCount;
+
+    AggregateCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <T> T get(String query, Table current, Supplier<T> compute) {
+        if (current != table || current.getModificationCount() != modificationCount) {
+            entries.clear();
+            table = current;
+            modificationCount = current.getModificationCount();
+        }
+        Object result = entries.get(query);
+        if (result == null) {
+            result = compute.get();
+            entries.put(query, result);
+        }
+        return (T) result;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
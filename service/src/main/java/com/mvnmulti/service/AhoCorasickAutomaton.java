@@ -0,0 +1,118 @@
+package com.mvnmulti.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Matches many literal terms in one pass. Built as a dense DFA over the characters that occur in the terms;
+// any other character is symbol 0 and always leads back to the root.
+class AhoCorasickAutomaton {
+    private final char[] alphabet;
+    private final int[] asciiSymbols = new int[128];
+    private final int width;
+    private final int[] transitions;
+    private final int[] matchCounts;
+
+    AhoCorasickAutomaton(String[] terms) {
+        Set<String> uniqueTerms = new LinkedHashSet<>();
+        for (String term : terms) {
+            if (!term.isEmpty()) {
+                uniqueTerms.add(term);
+            }
+        }
+        if (uniqueTerms.isEmpty()) {
+            throw new IllegalArgumentException("Search term must not be empty.");
+        }
+
+        TreeSet<Character> characters = new TreeSet<>();
+        for (String term : uniqueTerms) {
+            for (int i = 0; i < term.length(); i++) {
+                characters.add(term.charAt(i));
+            }
+        }
+        alphabet = new char[characters.size()];
+        int symbol = 0;
+        for (char c : characters) {
+            alphabet[symbol++] = c;
+            if (c < 128) {
+                asciiSymbols[c] = symbol;
+            }
+        }
+        width = alphabet.length + 1;
+
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        List<Integer> terminalCounts = new ArrayList<>();
+        trie.add(new HashMap<>());
+        terminalCounts.add(0);
+        for (String term : uniqueTerms) {
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                int next = trie.get(state).getOrDefault(symbolOf(term.charAt(i)), -1);
+                if (next < 0) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    terminalCounts.add(0);
+                    trie.get(state).put(symbolOf(term.charAt(i)), next);
+                }
+                state = next;
+            }
+            terminalCounts.set(state, terminalCounts.get(state) + 1);
+        }
+
+        int stateCount = trie.size();
+        transitions = new int[stateCount * width];
+        matchCounts = new int[stateCount];
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+
+        matchCounts[0] = terminalCounts.get(0);
+        for (int s = 1; s < width; s++) {
+            int child = trie.get(0).getOrDefault(s, 0);
+            transitions[s] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matchCounts[state] = terminalCounts.get(state) + matchCounts[failure[state]];
+            for (int s = 1; s < width; s++) {
+                Integer child = trie.get(state).get(s);
+                int fallback = transitions[failure[state] * width + s];
+                if (child == null) {
+                    transitions[state * width + s] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    transitions[state * width + s] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    // Every occurrence of every term, including overlapping ones.
+    int countOccurrences(CharSequence text) {
+        int count = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * width + symbolOf(text.charAt(i))];
+            count += matchCounts[state];
+        }
+        return count;
+    }
+
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(alphabet, c);
+        return index < 0 ? 0 : index + 1;
+    }
+}
@@ -0,0 +1,135 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.util.Comparator;
+import java.util.List;
+
+public final class CellComparators {
+    // Orders cells exactly like comparing key + value, but walks both strings in place instead of concatenating.
+    public static final Comparator<Cell> KEY_VALUE = CellComparators::compareKeyValue;
+    public static final Comparator<Cell> CASE_INSENSITIVE = CellComparators::compareKeyValueIgnoreCase;
+    // Numeric values first in numeric order, then the remaining cells by key + value.
+    public static final Comparator<Cell> NUMERIC_VALUE = CellComparators::compareNumericValue;
+
+    private CellComparators() {
+    }
+
+    public static Comparator<Cell> forOrder(Comparator<Cell> comparator, String order) {
+        switch (order) {
+            case "asc":
+                return comparator;
+            case "desc":
+                return comparator.reversed();
+            default:
+                throw new IllegalArgumentException("Invalid order. Please use 'asc' or 'desc'.");
+        }
+    }
+
+    // Rows without the requested column always sort after rows that have it, whatever the order.
+    public static Comparator<Row> byColumn(int colIndex, Comparator<Cell> cellComparator) {
+        return (first, second) -> {
+            List<Cell> firstCells = first.getCells();
+            List<Cell> secondCells = second.getCells();
+            boolean firstHasColumn = colIndex < firstCells.size();
+            boolean secondHasColumn = colIndex < secondCells.size();
+            if (firstHasColumn && secondHasColumn) {
+                return cellComparator.compare(firstCells.get(colIndex), secondCells.get(colIndex));
+            }
+            return Boolean.compare(secondHasColumn, firstHasColumn);
+        };
+    }
+
+    static int compareKeyValue(Cell first, Cell second) {
+        int prefixComparison = Long.compareUnsigned(first.getSortPrefix(), second.getSortPrefix());
+        if (prefixComparison != 0) {
+            return prefixComparison;
+        }
+
+        String firstKey = first.getKey();
+        String firstValue = first.getValue();
+        String secondKey = second.getKey();
+        String secondValue = second.getValue();
+        int firstKeyLength = firstKey.length();
+        int secondKeyLength = secondKey.length();
+        int firstLength = firstKeyLength + firstValue.length();
+        int secondLength = secondKeyLength + secondValue.length();
+        int limit = Math.min(firstLength, secondLength);
+
+        for (int i = 0; i < limit; i++) {
+            char a = i < firstKeyLength ? firstKey.charAt(i) : firstValue.charAt(i - firstKeyLength);
+            char b = i < secondKeyLength ? secondKey.charAt(i) : secondValue.charAt(i - secondKeyLength);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    static int compareKeyValueIgnoreCase(Cell first, Cell second) {
+        String firstKey = first.getKey();
+        String firstValue = first.getValue();
+        String secondKey = second.getKey();
+        String secondValue = second.getValue();
+        int firstKeyLength = firstKey.length();
+        int secondKeyLength = secondKey.length();
+        int firstLength = firstKeyLength + firstValue.length();
+        int secondLength = secondKeyLength + secondValue.length();
+        int limit = Math.min(firstLength, secondLength);
+
+        for (int i = 0; i < limit; i++) {
+            char a = i < firstKeyLength ? firstKey.charAt(i) : firstValue.charAt(i - firstKeyLength);
+            char b = i < secondKeyLength ? secondKey.charAt(i) : secondValue.charAt(i - secondKeyLength);
+            if (a != b) {
+                a = Character.toLowerCase(Character.toUpperCase(a));
+                b = Character.toLowerCase(Character.toUpperCase(b));
+                if (a != b) {
+                    return a - b;
+                }
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    // KEY_VALUE and CASE_INSENSITIVE over text that is not held in Strings, such as cells read in place from an
+    // OffHeapRowList.
+    static int compareKeyValue(CharSequence firstKey, CharSequence firstValue, CharSequence secondKey,
+            CharSequence secondValue, boolean ignoreCase) {
+        int firstKeyLength = firstKey.length();
+        int secondKeyLength = secondKey.length();
+        int firstLength = firstKeyLength + firstValue.length();
+        int secondLength = secondKeyLength + secondValue.length();
+        int limit = Math.min(firstLength, secondLength);
+
+        for (int i = 0; i < limit; i++) {
+            char a = i < firstKeyLength ? firstKey.charAt(i) : firstValue.charAt(i - firstKeyLength);
+            char b = i < secondKeyLength ? secondKey.charAt(i) : secondValue.charAt(i - secondKeyLength);
+            if (a != b) {
+                if (!ignoreCase) {
+                    return a - b;
+                }
+                a = Character.toLowerCase(Character.toUpperCase(a));
+                b = Character.toLowerCase(Character.toUpperCase(b));
+                if (a != b) {
+                    return a - b;
+                }
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    static int compareNumericValue(Cell first, Cell second) {
+        double firstNumber = first.getNumericValue();
+        double secondNumber = second.getNumericValue();
+        boolean firstIsNumber = !Double.isNaN(firstNumber);
+        boolean secondIsNumber = !Double.isNaN(secondNumber);
+        if (firstIsNumber && secondIsNumber) {
+            return Double.compare(firstNumber, secondNumber);
+        }
+        if (firstIsNumber || secondIsNumber) {
+            return firstIsNumber ? -1 : 1;
+        }
+        return compareKeyValue(first, second);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+
+public enum CellField {
+    KEY("key"),
+    VALUE("value");
+
+    private final String optionName;
+
+    CellField(String optionName) {
+        this.optionName = optionName;
+    }
+
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public String of(Cell cell) {
+        return this == KEY ? cell.getKey() : cell.getValue();
+    }
+
+    public static CellField fromOptionName(String optionName) {
+        for (CellField field : values()) {
+            if (field.optionName.equals(optionName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Invalid cell field. Please use 'key' or 'value'.");
+    }
+}
@@ -0,0 +1,52 @@
+package com.mvnmulti.service;
+
+// The kind of character a key or value starts with.
+public enum CharClass {
+    EMPTY,
+    DIGIT,
+    UPPERCASE,
+    LOWERCASE,
+    WHITESPACE,
+    PUNCTUATION,
+    OTHER;
+
+    private static final CharClass[] ASCII = new CharClass[128];
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            if (c >= '0' && c <= '9') {
+                ASCII[c] = DIGIT;
+            } else if (c >= 'A' && c <= 'Z') {
+                ASCII[c] = UPPERCASE;
+            } else if (c >= 'a' && c <= 'z') {
+                ASCII[c] = LOWERCASE;
+            } else if (c == ' ' || (c >= '\t' && c <= '\r')) {
+                ASCII[c] = WHITESPACE;
+            } else if (c > ' ' && c < 127) {
+                ASCII[c] = PUNCTUATION;
+            } else {
+                ASCII[c] = OTHER;
+            }
+        }
+    }
+
+    public static CharClass of(String text) {
+        if (text.isEmpty()) {
+            return EMPTY;
+        }
+        char first = text.charAt(0);
+        if (first < ASCII.length) {
+            return ASCII[first];
+        }
+        if (Character.isDigit(first)) {
+            return DIGIT;
+        }
+        if (Character.isUpperCase(first)) {
+            return UPPERCASE;
+        }
+        if (Character.isLowerCase(first)) {
+            return LOWERCASE;
+        }
+        return Character.isWhitespace(first) ? WHITESPACE : OTHER;
+    }
+}
@@ -0,0 +1,87 @@
+package com.mvnmulti.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Immutable, shareable form of a query; each search takes its own counter since counters may hold mutable state.
+interface CompiledSearch {
+    OccurrenceCounter newCounter();
+
+    // Text is a String for rows on the heap and read in place for off-heap rows.
+    interface OccurrenceCounter {
+        int count(CharSequence text);
+    }
+
+    static CompiledSearch compile(String query, SearchMode mode) {
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Search term must not be empty.");
+        }
+
+        switch (mode) {
+            case LITERAL:
+                return () -> text -> countLiteral(text, query);
+            case REGEX:
+                Pattern pattern = Pattern.compile(query);
+                return () -> {
+                    Matcher matcher = pattern.matcher("");
+                    return text -> countMatches(matcher.reset(text));
+                };
+            case ANY_TERM:
+                AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(query.trim().split("\\s+"));
+                return () -> automaton::countOccurrences;
+            default:
+                throw new IllegalArgumentException("Invalid search mode.");
+        }
+    }
+
+    // Non-overlapping occurrences, scanning left to right.
+    private static int countLiteral(CharSequence text, String term) {
+        if (!(text instanceof String)) {
+            return countLiteralInPlace(text, term);
+        }
+        String string = (String) text;
+        int count = 0;
+        int index = string.indexOf(term);
+        while (index >= 0) {
+            count++;
+            index = string.indexOf(term, index + term.length());
+        }
+        return count;
+    }
+
+    private static int countLiteralInPlace(CharSequence text, String term) {
+        int count = 0;
+        int last = text.length() - term.length();
+        char first = term.charAt(0);
+        int i = 0;
+        while (i <= last) {
+            if (text.charAt(i) == first && matchesAt(text, i, term)) {
+                count++;
+                i += term.length();
+            } else {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean matchesAt(CharSequence text, int start, String term) {
+        for (int j = 1; j < term.length(); j++) {
+            if (text.charAt(start + j) != term.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Empty matches are not counted as occurrences.
+    private static int countMatches(Matcher matcher) {
+        int count = 0;
+        while (matcher.find()) {
+            if (matcher.end() > matcher.start()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
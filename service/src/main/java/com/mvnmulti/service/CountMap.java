@@ -0,0 +1,91 @@
+package com.mvnmulti.service;
+
+import java.util.function.ObjLongConsumer;
+
+// String -> count with the counts kept as primitives in an open-addressed table, for the per-thread tallies of a
+// parallel aggregation.
+final class CountMap {
+    private String[] keys = new String[16];
+    private long[] counts = new long[16];
+    private int size;
+
+    void add(String key, long count) {
+        int mask = keys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = count;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    // Walks the smaller table into the larger one, grown beforehand. Adding a bigger table's slots in order to a
+    // smaller one crowds them into a few long probe runs and makes the merge quadratic.
+    void addAll(CountMap other) {
+        String[] otherKeys = other.keys;
+        long[] otherCounts = other.counts;
+        int otherSize = other.size;
+        if (otherKeys.length > keys.length) {
+            otherKeys = keys;
+            otherCounts = counts;
+            otherSize = size;
+            keys = other.keys.clone();
+            counts = other.counts.clone();
+            size = other.size;
+        }
+        int capacity = keys.length;
+        while ((size + otherSize) * 2 > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherKeys[i] != null) {
+                add(otherKeys[i], otherCounts[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(ObjLongConsumer<String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new String[capacity];
+        counts = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    // Short strings have hash codes packed into a narrow, dense range, which linear probing turns into one long run
+    // unless the bits are mixed first (murmur3's finalizer).
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,489 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.OffHeapRowList;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+// Undo and redo for one table. Entries sit in a ring buffer whose total footprint is kept under a byte limit by
+// evicting the oldest entries first. Sorts are kept as permutations rather than copies of the rows. The history is
+// dropped once the table changes other than through the service (a load, a reload, or a patch applied straight to the
+// table rather than through TableService.applyPatch), as the recorded positions no longer apply.
+class EditHistory {
+    // Rough per-object costs on a 64-bit JVM with compressed references.
+    private static final long ENTRY_BYTES = 64;
+    private static final long STRING_BYTES = 40;
+    private static final long CELL_BYTES = 24;
+    private static final long ROW_BYTES = 64;
+    private static final long ARRAY_BYTES = 16;
+
+    // Below this many elements a linear scan finds an element's old position faster than a hash lookup.
+    private static final int SCAN_LIMIT = 16;
+
+    private final long limitBytes;
+    private Change[] ring = new Change[16];
+    private int head;
+    private int undoable;
+    private int size;
+    private long bytes;
+    private Table table;
+    private int modificationCount;
+
+    EditHistory(long limitBytes) {
+        this.limitBytes = limitBytes;
+    }
+
+    boolean isEnabled() {
+        return limitBytes > 0;
+    }
+
+    // Called before a change is made; forgets everything if the table was replaced or modified behind the history.
+    void sync(Table current) {
+        if (current != table || current.getModificationCount() != modificationCount) {
+            clear();
+            table = current;
+            modificationCount = current.getModificationCount();
+        }
+    }
+
+    // Whether a change holding about this many ints could be kept. Callers skip working out changes that could not,
+    // and call forget once they are made.
+    boolean canHold(long ints) {
+        return isEnabled() && ENTRY_BYTES + 2 * ARRAY_BYTES + 4 * ints <= limitBytes;
+    }
+
+    // Called after a change that could not be recorded; what came before it can no longer be undone.
+    void forget() {
+        clear();
+        modificationCount = table.getModificationCount();
+    }
+
+    // Called after the change has been made to the table last passed to sync. Redo entries are discarded; a change
+    // too large to fit on its own clears the history instead.
+    void record(Change change) {
+        modificationCount = table.getModificationCount();
+        if (change == null || !isEnabled()) {
+            return;
+        }
+        while (size > undoable) {
+            removeNewest();
+        }
+        if (change.bytes() > limitBytes) {
+            clear();
+            return;
+        }
+        if (size == ring.length) {
+            grow();
+        }
+        ring[slot(size++)] = change;
+        undoable++;
+        bytes += change.bytes();
+        while (bytes > limitBytes) {
+            bytes -= ring[head].bytes();
+            ring[head] = null;
+            head = slot(1);
+            size--;
+            undoable--;
+        }
+    }
+
+    String undo(Table current) {
+        sync(current);
+        if (undoable == 0) {
+            return null;
+        }
+        Change change = ring[slot(--undoable)];
+        change.undo(current);
+        modificationCount = current.getModificationCount();
+        return change.description();
+    }
+
+    String redo(Table current) {
+        sync(current);
+        if (undoable == size) {
+            return null;
+        }
+        Change change = ring[slot(undoable++)];
+        change.redo(current);
+        modificationCount = current.getModificationCount();
+        return change.description();
+    }
+
+    int undoableCount() {
+        return undoable;
+    }
+
+    int redoableCount() {
+        return size - undoable;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    private void clear() {
+        while (size > 0) {
+            removeNewest();
+        }
+        head = 0;
+        undoable = 0;
+    }
+
+    private void removeNewest() {
+        int slot = slot(size - 1);
+        bytes -= ring[slot].bytes();
+        ring[slot] = null;
+        size--;
+    }
+
+    private int slot(int index) {
+        return (head + index) % ring.length;
+    }
+
+    private void grow() {
+        Change[] grown = new Change[ring.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = ring[slot(i)];
+        }
+        ring = grown;
+        head = 0;
+    }
+
+    static Change cellEdit(EditCellResult edit) {
+        return new CellEdit(edit);
+    }
+
+    static Change rowInsert(int rowIndex, Row row) {
+        return new RowInsert(rowIndex, row);
+    }
+
+    static Change patch(String patchFile, TablePatch.Applied applied) {
+        return applied.size() == 0 ? null : new Patch(patchFile, applied);
+    }
+
+    // permutation[i] is the position the row now at i held before the sort; null when the order did not change.
+    static Change rowOrder(int colIndex, int[] permutation) {
+        return permutation == null ? null : new RowOrder(colIndex, permutation);
+    }
+
+    // permutations[i] is the cell permutation of rows[i], null for rows the sort left as they were.
+    static Change cellOrder(int[] rows, int[][] permutations, SortStrategy strategy, String order) {
+        int changedRows = 0;
+        int cells = 0;
+        for (int[] permutation : permutations) {
+            if (permutation != null) {
+                changedRows++;
+                cells += permutation.length;
+            }
+        }
+        if (changedRows == 0) {
+            return null;
+        }
+
+        int[] changed = new int[changedRows];
+        int[] flat = new int[cells];
+        int next = 0;
+        int offset = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (permutations[i] != null) {
+                changed[next++] = rows[i];
+                System.arraycopy(permutations[i], 0, flat, offset, permutations[i].length);
+                offset += permutations[i].length;
+            }
+        }
+        return new CellOrder(changed, flat, strategy.name(), order);
+    }
+
+    // Finds where each element of the reordered list sat in the snapshot taken before; elements are matched by
+    // identity as equal cells or rows may appear more than once.
+    static int[] permutation(Object[] before, List<?> after) {
+        int[] permutation = new int[before.length];
+        boolean moved = false;
+        Map<Object, Integer> positions = null;
+        if (before.length > SCAN_LIMIT) {
+            positions = new IdentityHashMap<>(before.length);
+            for (int i = 0; i < before.length; i++) {
+                positions.put(before[i], i);
+            }
+        }
+
+        int i = 0;
+        for (Object element : after) {
+            int position;
+            if (before[i] == element) {
+                position = i;
+            } else if (positions != null) {
+                position = positions.get(element);
+            } else {
+                position = 0;
+                while (before[position] != element) {
+                    position++;
+                }
+            }
+            permutation[i] = position;
+            moved |= position != i;
+            i++;
+        }
+        return moved ? permutation : null;
+    }
+
+    private static <T> void permute(List<T> list, int[] permutation, int offset, boolean inverse) {
+        @SuppressWarnings("unchecked")
+        T[] current = (T[]) list.toArray();
+        ListIterator<T> writer = list.listIterator();
+        if (inverse) {
+            @SuppressWarnings("unchecked")
+            T[] restored = (T[]) new Object[current.length];
+            for (int i = 0; i < current.length; i++) {
+                restored[permutation[offset + i]] = current[i];
+            }
+            current = restored;
+            for (T element : current) {
+                writer.next();
+                writer.set(element);
+            }
+        } else {
+            for (int i = 0; i < current.length; i++) {
+                writer.next();
+                writer.set(current[permutation[offset + i]]);
+            }
+        }
+    }
+
+    static long rowBytes(Row row) {
+        long bytes = ROW_BYTES;
+        for (Cell cell : row.getCells()) {
+            bytes += CELL_BYTES + stringBytes(cell.getKey()) + stringBytes(cell.getValue());
+        }
+        return bytes;
+    }
+
+    static long editBytes(EditCellResult edit) {
+        return stringBytes(edit.getOldKey()) + stringBytes(edit.getOldValue()) + stringBytes(edit.getNewKey())
+            + stringBytes(edit.getNewValue());
+    }
+
+    private static long stringBytes(String text) {
+        return STRING_BYTES + 2L * text.length();
+    }
+
+    private static long intArrayBytes(int[] array) {
+        return ARRAY_BYTES + 4L * array.length;
+    }
+
+    interface Change {
+        void undo(Table table);
+
+        void redo(Table table);
+
+        long bytes();
+
+        String description();
+    }
+
+    private static final class CellEdit implements Change {
+        private final EditCellResult edit;
+
+        CellEdit(EditCellResult edit) {
+            this.edit = edit;
+        }
+
+        @Override
+        public void undo(Table table) {
+            set(table, edit.getOldKey(), edit.getOldValue());
+        }
+
+        @Override
+        public void redo(Table table) {
+            set(table, edit.getNewKey(), edit.getNewValue());
+        }
+
+        private void set(Table table, String key, String value) {
+            Row row = table.getRow(edit.getRowIndex());
+            Cell cell = row.getCells().get(edit.getColIndex());
+            cell.setKey(key);
+            cell.setValue(value);
+            table.setRow(edit.getRowIndex(), row);
+        }
+
+        @Override
+        public long bytes() {
+            return ENTRY_BYTES + editBytes(edit);
+        }
+
+        @Override
+        public String description() {
+            return "edit of cell [" + edit.getRowIndex() + "," + edit.getColIndex() + "]";
+        }
+    }
+
+    private static final class RowInsert implements Change {
+        private final int rowIndex;
+        private final Row row;
+        private final long bytes;
+
+        RowInsert(int rowIndex, Row row) {
+            this.rowIndex = rowIndex;
+            this.row = row;
+            this.bytes = ENTRY_BYTES + rowBytes(row);
+        }
+
+        @Override
+        public void undo(Table table) {
+            table.removeRow(rowIndex);
+        }
+
+        @Override
+        public void redo(Table table) {
+            table.addRow(rowIndex, row);
+        }
+
+        @Override
+        public long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public String description() {
+            return "row added at " + rowIndex;
+        }
+    }
+
+    private static final class Patch implements Change {
+        private final String patchFile;
+        private final TablePatch.Applied applied;
+        private final long bytes;
+
+        Patch(String patchFile, TablePatch.Applied applied) {
+            this.patchFile = patchFile;
+            this.applied = applied;
+            this.bytes = ENTRY_BYTES + applied.bytes();
+        }
+
+        @Override
+        public void undo(Table table) {
+            applied.undo(table);
+        }
+
+        @Override
+        public void redo(Table table) {
+            applied.redo(table);
+        }
+
+        @Override
+        public long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public String description() {
+            return "patch " + patchFile;
+        }
+    }
+
+    private static final class RowOrder implements Change {
+        private final int colIndex;
+        private final int[] permutation;
+
+        RowOrder(int colIndex, int[] permutation) {
+            this.colIndex = colIndex;
+            this.permutation = permutation;
+        }
+
+        @Override
+        public void undo(Table table) {
+            reorder(table, true);
+        }
+
+        @Override
+        public void redo(Table table) {
+            reorder(table, false);
+        }
+
+        // Off-heap rows are reordered by address rather than through copies of every row.
+        private void reorder(Table table, boolean inverse) {
+            List<Row> rows = table.getRows();
+            if (rows instanceof OffHeapRowList) {
+                int[] order = permutation;
+                if (inverse) {
+                    order = new int[permutation.length];
+                    for (int i = 0; i < permutation.length; i++) {
+                        order[permutation[i]] = i;
+                    }
+                }
+                ((OffHeapRowList) rows).reorderRows(order);
+            } else {
+                permute(rows, permutation, 0, inverse);
+            }
+            table.markModified();
+        }
+
+        @Override
+        public long bytes() {
+            return ENTRY_BYTES + intArrayBytes(permutation);
+        }
+
+        @Override
+        public String description() {
+            return "sort of rows by column " + colIndex;
+        }
+    }
+
+    // The permutations of all sorted rows are packed into one array; each row's slice is as long as the row, which
+    // is the same when the change is undone or redone as it was when the sort ran.
+    private static final class CellOrder implements Change {
+        private final int[] rows;
+        private final int[] permutations;
+        private final String sortedBy;
+        private final String sortedOrder;
+
+        CellOrder(int[] rows, int[] permutations, String sortedBy, String sortedOrder) {
+            this.rows = rows;
+            this.permutations = permutations;
+            this.sortedBy = sortedBy;
+            this.sortedOrder = sortedOrder;
+        }
+
+        @Override
+        public void undo(Table table) {
+            int offset = 0;
+            for (int rowIndex : rows) {
+                Row row = table.getRow(rowIndex);
+                permute(row.getCells(), permutations, offset, true);
+                offset += row.getCells().size();
+                table.getRows().set(rowIndex, row);
+            }
+            table.markModified();
+        }
+
+        @Override
+        public void redo(Table table) {
+            int offset = 0;
+            for (int rowIndex : rows) {
+                Row row = table.getRow(rowIndex);
+                permute(row.getCells(), permutations, offset, false);
+                offset += row.getCells().size();
+                row.setSortedBy(sortedBy);
+                row.setSortedOrder(sortedOrder);
+                table.getRows().set(rowIndex, row);
+            }
+            table.markModified();
+        }
+
+        @Override
+        public long bytes() {
+            return ENTRY_BYTES + intArrayBytes(rows) + intArrayBytes(permutations);
+        }
+
+        @Override
+        public String description() {
+            return rows.length == 1 ? "sort of row " + rows[0] : "sort of cells in " + rows.length + " rows";
+        }
+    }
+}
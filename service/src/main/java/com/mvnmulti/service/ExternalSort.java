@@ -0,0 +1,283 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.utilities.TableCodec;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Sorts table files that need not fit in memory, writing the result to another file; the source and target formats
+// follow their file names as for exports. Sorting the cells within each row streams one row at a time. Sorting rows
+// by a column reads rows until their estimated size reaches the memory budget, sorts them and spills them as a run to
+// a temporary file, length-prefixed so that cells holding newlines or delimiters survive, then merges up to `fanIn` runs at a time until one pass writes the target. The merge takes the
+// earliest run on ties, so the result matches the stable in-memory sort. Runs go to a directory beside the target,
+// which is removed afterwards. The target is written beside itself and moved into place at the end, so it may be
+// the source.
+public class ExternalSort {
+    public static final int DEFAULT_FAN_IN = 64;
+
+    // Each open run holds a buffered stream of this size, so fan-in is also limited by the budget.
+    private static final int RUN_BUFFER_BYTES = 64 * 1024;
+
+    private final long memoryBytes;
+    private final int fanIn;
+
+    // A quarter of the maximum heap, leaving room for the rows being written and the collector.
+    public ExternalSort() {
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    public ExternalSort(long memoryBytes) {
+        this(memoryBytes, DEFAULT_FAN_IN);
+    }
+
+    public ExternalSort(long memoryBytes, int fanIn) {
+        if (memoryBytes < 1) {
+            throw new IllegalArgumentException("Memory budget must be positive.");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Merges must take at least two runs.");
+        }
+        this.memoryBytes = memoryBytes;
+        this.fanIn = (int) Math.max(2, Math.min(fanIn, memoryBytes / RUN_BUFFER_BYTES));
+    }
+
+    // Returns the number of rows written.
+    public long sortCells(Path source, Path target, String order, SortStrategy strategy) throws IOException {
+        Comparator<Cell> comparator = CellComparators.forOrder(strategy.getComparator(), order);
+        TableCodec targetCodec = TableCodecs.forFileName(target.toString());
+        long[] rows = new long[1];
+        try (Reader reader = TableCodecs.newReader(source)) {
+            TableCodecs.replace(target, writer -> TableCodecs.forFileName(source.toString()).read(reader, row -> {
+                TableServiceImpl.sortList(row.getCells(), comparator);
+                targetCodec.write(row, writer);
+                rows[0]++;
+            }));
+        }
+        return rows[0];
+    }
+
+    // Rows without the column sort after the rest, as in TableService.sortRowsByColumn. Returns the number of rows.
+    public long sortRows(Path source, Path target, int colIndex, String order, SortStrategy strategy) throws IOException {
+        if (colIndex < 0) {
+            throw new IllegalArgumentException("Invalid column index.");
+        }
+        Comparator<Row> comparator = CellComparators.byColumn(colIndex,
+            CellComparators.forOrder(strategy.getComparator(), order));
+        TableCodec targetCodec = TableCodecs.forFileName(target.toString());
+
+        Path[] spillDirectory = new Path[1];
+        try {
+            List<Path> runs = new ArrayList<>();
+            List<Row> buffer = new ArrayList<>();
+            long[] buffered = new long[1];
+            long[] rows = new long[1];
+            try (Reader reader = TableCodecs.newReader(source)) {
+                TableCodecs.forFileName(source.toString()).read(reader, row -> {
+                    buffer.add(row);
+                    buffered[0] += estimateBytes(row);
+                    rows[0]++;
+                    if (buffered[0] >= memoryBytes) {
+                        if (spillDirectory[0] == null) {
+                            spillDirectory[0] = createSpillDirectory(target);
+                        }
+                        runs.add(spill(buffer, comparator, spillDirectory[0], runs.size()));
+                        buffered[0] = 0;
+                    }
+                });
+            }
+            Path directory = spillDirectory[0];
+
+            if (runs.isEmpty()) {
+                TableServiceImpl.sortList(buffer, comparator);
+                TableCodecs.replace(target, writer -> {
+                    for (Row row : buffer) {
+                        targetCodec.write(row, writer);
+                    }
+                });
+                return rows[0];
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(buffer, comparator, directory, runs.size()));
+            }
+            buffer.clear();
+
+            List<Path> pending = runs;
+            int generation = 0;
+            while (pending.size() > fanIn) {
+                generation++;
+                List<Path> merged = new ArrayList<>();
+                for (int start = 0; start < pending.size(); start += fanIn) {
+                    List<Path> group = pending.subList(start, Math.min(start + fanIn, pending.size()));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    Path run = directory.resolve("merge" + generation + "-" + merged.size() + ".run");
+                    try (RunWriter writer = new RunWriter(run)) {
+                        merge(group, writer::write, comparator);
+                    }
+                    for (Path input : group) {
+                        Files.delete(input);
+                    }
+                    merged.add(run);
+                }
+                pending = merged;
+            }
+            List<Path> last = pending;
+            TableCodecs.replace(target, writer -> merge(last, row -> targetCodec.write(row, writer), comparator));
+            return rows[0];
+        } finally {
+            if (spillDirectory[0] != null) {
+                deleteDirectory(spillDirectory[0]);
+            }
+        }
+    }
+
+    static long estimateBytes(Row row) {
+        long bytes = TableWorkspace.ROW_OVERHEAD_BYTES;
+        for (Cell cell : row.getCells()) {
+            bytes += TableWorkspace.CELL_OVERHEAD_BYTES + 2L * (cell.getKey().length() + cell.getValue().length());
+        }
+        return bytes;
+    }
+
+    private static Path createSpillDirectory(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        return Files.createTempDirectory(Files.createDirectories(parent), target.getFileName() + ".sort");
+    }
+
+    // Sorts the buffered rows into a new run and empties the buffer.
+    private static Path spill(List<Row> buffer, Comparator<Row> comparator, Path directory, int index) throws IOException {
+        TableServiceImpl.sortList(buffer, comparator);
+        Path run = directory.resolve("run" + index + ".run");
+        try (RunWriter writer = new RunWriter(run)) {
+            for (Row row : buffer) {
+                writer.write(row);
+            }
+        }
+        buffer.clear();
+        return run;
+    }
+
+    private static void merge(List<Path> runs, TableCodec.RowSink sink, Comparator<Row> comparator) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            PriorityQueue<RunReader> heads = new PriorityQueue<>(runs.size(), (first, second) -> {
+                int comparison = comparator.compare(first.head, second.head);
+                return comparison != 0 ? comparison : Integer.compare(first.index, second.index);
+            });
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, readers.size());
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+
+            while (!heads.isEmpty()) {
+                RunReader next = heads.poll();
+                sink.accept(next.head);
+                if (next.advance()) {
+                    heads.add(next);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // Runs hold each row as its cell count followed by every key and value as a byte count and UTF-8 bytes, so no
+    // text in a cell is mistaken for a row or cell boundary whatever format the source was in.
+    private static final class RunWriter implements Closeable {
+        private final DataOutputStream output;
+
+        RunWriter(Path run) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_BYTES));
+        }
+
+        void write(Row row) throws IOException {
+            output.writeInt(row.getCells().size());
+            for (Cell cell : row.getCells()) {
+                writeText(cell.getKey());
+                writeText(cell.getValue());
+            }
+        }
+
+        private void writeText(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+
+    // The next row of a run written by RunWriter.
+    private static final class RunReader implements Closeable {
+        private final DataInputStream input;
+        private final int index;
+        private Row head;
+
+        RunReader(Path run, int index) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_BYTES));
+            this.index = index;
+        }
+
+        boolean advance() throws IOException {
+            int cellCount;
+            try {
+                cellCount = input.readInt();
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            List<Cell> cells = new ArrayList<>(cellCount);
+            for (int i = 0; i < cellCount; i++) {
+                cells.add(new Cell(readText(), readText()));
+            }
+            head = new Row(cells);
+            return true;
+        }
+
+        private String readText() throws IOException {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.FrequencyResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.SearchResult;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.ShardManifest;
+import com.mvnmulti.utilities.TableFileChange;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+public class InstrumentedTableService implements TableService {
+    private final TableService delegate;
+    private final TableMetrics metrics;
+
+    public InstrumentedTableService(TableService delegate, TableMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public TableMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void loadTableFromFile(String fileName) throws IOException {
+        loadTableFromFile(fileName, false);
+    }
+
+    @Override
+    public void loadTableFromFile(String fileName, boolean strict) throws IOException {
+        OperationMetrics operation = metrics.operation("loadTableFromFile");
+        record(operation, () -> {
+            delegate.loadTableFromFile(fileName, strict);
+            return null;
+        });
+        operation.addRows(delegate.getTable().getRowCount());
+        operation.addBytes(new File(fileName).length());
+    }
+
+    @Override
+    public void saveTableToFile(String fileName) throws IOException {
+        OperationMetrics operation = metrics.operation("saveTableToFile");
+        record(operation, () -> {
+            delegate.saveTableToFile(fileName);
+            return null;
+        });
+        operation.addRows(delegate.getTable().getRowCount());
+        operation.addBytes(new File(fileName).length());
+    }
+
+    @Override
+    public void saveTableSharded(String manifestFile, int shardCount) throws IOException {
+        OperationMetrics operation = metrics.operation("saveTableSharded");
+        record(operation, () -> {
+            delegate.saveTableSharded(manifestFile, shardCount);
+            return null;
+        });
+        operation.addRows(delegate.getTable().getRowCount());
+        ShardManifest manifest = ShardManifest.read(Paths.get(manifestFile));
+        long bytes = Files.size(manifest.getFile());
+        for (int shard = 0; shard < manifest.getShardCount(); shard++) {
+            bytes += Files.size(manifest.getShardFile(shard));
+        }
+        operation.addBytes(bytes);
+    }
+
+    @Override
+    public void loadDefaultTable() throws IOException {
+        OperationMetrics operation = metrics.operation("loadDefaultTable");
+        record(operation, () -> {
+            delegate.loadDefaultTable();
+            return null;
+        });
+        operation.addRows(delegate.getTable().getRowCount());
+    }
+
+    @Override
+    public TableFileChange reloadIfChanged() throws IOException {
+        OperationMetrics operation = metrics.operation("reloadIfChanged");
+        int rowsBefore = delegate.getTable().getRowCount();
+        TableFileChange change = record(operation, delegate::reloadIfChanged);
+        int rowsAfter = delegate.getTable().getRowCount();
+        operation.addRows(change == TableFileChange.APPENDED ? rowsAfter - rowsBefore : rowsAfter);
+        return change;
+    }
+
+    @Override
+    public Table getTable() {
+        return record(metrics.operation("getTable"), delegate::getTable);
+    }
+
+    @Override
+    public boolean isAppDefault() {
+        return record(metrics.operation("isAppDefault"), delegate::isAppDefault);
+    }
+
+    @Override
+    public String getCurrentFileName() {
+        return record(metrics.operation("getCurrentFileName"), delegate::getCurrentFileName);
+    }
+
+    @Override
+    public void createTable(int rows, int columns) {
+        OperationMetrics operation = metrics.operation("createTable");
+        record(operation, () -> {
+            delegate.createTable(rows, columns);
+            return null;
+        });
+        operation.addRows(rows);
+    }
+
+    @Override
+    public EditCellResult editCell(int rowIndex, int colIndex, String editType, String editedValue) {
+        OperationMetrics operation = metrics.operation("editCell");
+        EditCellResult result = record(operation, () -> delegate.editCell(rowIndex, colIndex, editType, editedValue));
+        operation.addRows(1);
+        return result;
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm) {
+        return recordSearch(SearchMode.LITERAL, 0, Integer.MAX_VALUE, () -> delegate.searchTable(searchTerm));
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, int fromRow, int toRow) {
+        return recordSearch(SearchMode.LITERAL, fromRow, toRow, () -> delegate.searchTable(searchTerm, fromRow, toRow));
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, SearchMode mode) {
+        return recordSearch(mode, 0, Integer.MAX_VALUE, () -> delegate.searchTable(searchTerm, mode));
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, SearchMode mode, int fromRow, int toRow) {
+        return recordSearch(mode, fromRow, toRow, () -> delegate.searchTable(searchTerm, mode, fromRow, toRow));
+    }
+
+    @Override
+    public List<Row> getRows(int fromRow, int toRow) {
+        OperationMetrics operation = metrics.operation("getRows");
+        List<Row> rows = record(operation, () -> delegate.getRows(fromRow, toRow));
+        operation.addRows(rows.size());
+        operation.addResults(rows.size());
+        return rows;
+    }
+
+    @Override
+    public void addRow(int numCells, int rowIndex) {
+        OperationMetrics operation = metrics.operation("addRow");
+        record(operation, () -> {
+            delegate.addRow(numCells, rowIndex);
+            return null;
+        });
+        operation.addRows(1);
+    }
+
+    @Override
+    public void applyPatch(String patchFile) throws IOException {
+        record(metrics.operation("applyPatch"), () -> {
+            delegate.applyPatch(patchFile);
+            return null;
+        });
+    }
+
+    @Override
+    public void sortTable(int rowIndex, String order) {
+        recordSort("sortTable", 1, () -> delegate.sortTable(rowIndex, order));
+    }
+
+    @Override
+    public void sortTable(int rowIndex, String order, SortStrategy strategy) {
+        recordSort("sortTable", 1, () -> delegate.sortTable(rowIndex, order, strategy));
+    }
+
+    @Override
+    public void sortRows(int[] rowIndices, String order, SortStrategy strategy) {
+        recordSort("sortRows", rowIndices.length, () -> delegate.sortRows(rowIndices, order, strategy));
+    }
+
+    @Override
+    public void sortAllRows(String order, SortStrategy strategy) {
+        recordSort("sortAllRows", delegate.getTable().getRowCount(), () -> delegate.sortAllRows(order, strategy));
+    }
+
+    @Override
+    public void sortRowsByColumn(int colIndex, String order, SortStrategy strategy) {
+        recordSort("sortRowsByColumn", delegate.getTable().getRowCount(),
+            () -> delegate.sortRowsByColumn(colIndex, order, strategy));
+    }
+
+    @Override
+    public String generateRandomAscii(int length) {
+        return record(metrics.operation("generateRandomAscii"), () -> delegate.generateRandomAscii(length));
+    }
+
+    @Override
+    public String undo() {
+        return record(metrics.operation("undo"), delegate::undo);
+    }
+
+    @Override
+    public String redo() {
+        return record(metrics.operation("redo"), delegate::redo);
+    }
+
+    @Override
+    public long countCells(CellField field, String prefix) {
+        return recordAggregate("countCells", () -> delegate.countCells(field, prefix), count -> 1);
+    }
+
+    @Override
+    public Map<String, Long> groupCellsByPrefix(CellField field, int prefixLength) {
+        return recordAggregate("groupCellsByPrefix", () -> delegate.groupCellsByPrefix(field, prefixLength), Map::size);
+    }
+
+    @Override
+    public Map<CharClass, Long> groupCellsByCharClass(CellField field) {
+        return recordAggregate("groupCellsByCharClass", () -> delegate.groupCellsByCharClass(field), Map::size);
+    }
+
+    @Override
+    public List<FrequencyResult> topCells(CellField field, int limit) {
+        return recordAggregate("topCells", () -> delegate.topCells(field, limit), List::size);
+    }
+
+    private <T> T recordAggregate(String name, Call<T, RuntimeException> aggregate, ToIntFunction<T> resultCount) {
+        OperationMetrics operation = metrics.operation(name);
+        T result = record(operation, aggregate);
+        operation.addRows(delegate.getTable().getRowCount());
+        operation.addResults(resultCount.applyAsInt(result));
+        return result;
+    }
+
+    // Kept apart by mode, as a regex or fuzzy search costs far more than a literal one; overloads without a mode search
+    // literally.
+    private List<SearchResult> recordSearch(SearchMode mode, int fromRow, int toRow,
+            Call<List<SearchResult>, RuntimeException> search) {
+        OperationMetrics operation = metrics.operation("searchTable:" + mode.getOptionName());
+        List<SearchResult> results = record(operation, search);
+        operation.addRows(Math.max(0, Math.min(toRow, delegate.getTable().getRowCount()) - fromRow));
+        operation.addResults(results.size());
+        return results;
+    }
+
+    private void recordSort(String name, int rows, Runnable sort) {
+        OperationMetrics operation = metrics.operation(name);
+        record(operation, () -> {
+            sort.run();
+            return null;
+        });
+        operation.addRows(rows);
+    }
+
+    private static <T, E extends Exception> T record(OperationMetrics operation, Call<T, E> call) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            operation.recordCall(System.nanoTime() - start, failed);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+}
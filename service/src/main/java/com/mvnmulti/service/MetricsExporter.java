@@ -0,0 +1,61 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.utilities.TableLogger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically rewrites a Prometheus text file (e.g. for node_exporter's textfile collector). The file is replaced
+// atomically so scrapers never see a partial write.
+public class MetricsExporter implements AutoCloseable {
+    private static final TableLogger LOGGER = TableLogger.getLogger(MetricsExporter.class);
+
+    private final TableMetrics metrics;
+    private final Path target;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsExporter(TableMetrics metrics, Path target) {
+        this.metrics = metrics;
+        this.target = target;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long intervalSeconds) {
+        scheduler.scheduleAtFixedRate(this::exportQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void export() throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, metrics.formatPrometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void exportQuietly() {
+        try {
+            export();
+        } catch (IOException e) {
+            LOGGER.error("Could not export metrics.", "file", target, "error", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        exportQuietly();
+    }
+}
@@ -0,0 +1,163 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.OffHeapRowList;
+
+// Sorts of an OffHeapRowList that compare cells where they are stored and then move whole records or cells, so no
+// row is decoded. Both use a stable merge sort and order exactly as the strategies' comparators do, ties included, so
+// a table sorts the same on or off the heap. Numeric sorts parse each value once before sorting.
+final class OffHeapSorts {
+    // Below this many positions insertion sort beats merging.
+    private static final int INSERTION_LIMIT = 16;
+
+    private OffHeapSorts() {
+    }
+
+    // Rows without the column sort after the rest, as with CellComparators.byColumn. Returns where each row was
+    // before, or null when the order did not change.
+    static int[] sortRowsByColumn(OffHeapRowList rows, int colIndex, SortStrategy strategy, String order) {
+        int direction = direction(order);
+        OffHeapRowList.Cursor first = rows.cursor();
+        OffHeapRowList.Cursor second = rows.cursor();
+        double[] numbers = null;
+        if (strategy == SortStrategy.NUMERIC) {
+            numbers = new double[rows.size()];
+            for (int i = 0; i < numbers.length; i++) {
+                first.seek(i);
+                numbers[i] = colIndex < first.cellCount()
+                    ? Cell.parseNumber(first.value(colIndex).toString()) : Double.NaN;
+            }
+        }
+        double[] parsed = numbers;
+
+        int[] positions = sort(rows.size(), (a, b) -> {
+            first.seek(a);
+            second.seek(b);
+            boolean firstHasColumn = colIndex < first.cellCount();
+            boolean secondHasColumn = colIndex < second.cellCount();
+            if (firstHasColumn && secondHasColumn) {
+                return direction * compare(strategy, first, colIndex, second, colIndex,
+                    parsed == null ? 0 : parsed[a], parsed == null ? 0 : parsed[b]);
+            }
+            return Boolean.compare(secondHasColumn, firstHasColumn);
+        });
+        if (positions != null) {
+            rows.reorderRows(positions);
+        }
+        return positions;
+    }
+
+    // Returns where each cell of the row was before, or null when the order did not change.
+    static int[] sortCells(OffHeapRowList rows, int rowIndex, SortStrategy strategy, String order) {
+        int direction = direction(order);
+        OffHeapRowList.Cursor first = rows.cursor().seek(rowIndex);
+        OffHeapRowList.Cursor second = rows.cursor().seek(rowIndex);
+        double[] numbers = null;
+        if (strategy == SortStrategy.NUMERIC) {
+            numbers = new double[first.cellCount()];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = Cell.parseNumber(first.value(i).toString());
+            }
+        }
+        double[] parsed = numbers;
+
+        int[] positions = sort(first.cellCount(), (a, b) -> direction * compare(strategy, first, a, second, b,
+            parsed == null ? 0 : parsed[a], parsed == null ? 0 : parsed[b]));
+        if (positions != null) {
+            rows.reorderCells(rowIndex, positions, 0);
+        }
+        return positions;
+    }
+
+    private static int direction(String order) {
+        switch (order) {
+            case "asc":
+                return 1;
+            case "desc":
+                return -1;
+            default:
+                throw new IllegalArgumentException("Invalid order. Please use 'asc' or 'desc'.");
+        }
+    }
+
+    private static int compare(SortStrategy strategy, OffHeapRowList.Cursor first, int firstCell,
+            OffHeapRowList.Cursor second, int secondCell, double firstNumber, double secondNumber) {
+        switch (strategy) {
+            case KEY:
+                return CharSequence.compare(first.key(firstCell), second.key(secondCell));
+            case VALUE:
+                return CharSequence.compare(first.value(firstCell), second.value(secondCell));
+            case NUMERIC:
+                boolean firstIsNumber = !Double.isNaN(firstNumber);
+                boolean secondIsNumber = !Double.isNaN(secondNumber);
+                if (firstIsNumber && secondIsNumber) {
+                    return Double.compare(firstNumber, secondNumber);
+                }
+                if (firstIsNumber || secondIsNumber) {
+                    return firstIsNumber ? -1 : 1;
+                }
+                break;
+            case CASE_INSENSITIVE:
+                return CellComparators.compareKeyValue(first.key(firstCell), first.value(firstCell),
+                    second.key(secondCell), second.value(secondCell), true);
+            default:
+                break;
+        }
+        return CellComparators.compareKeyValue(first.key(firstCell), first.value(firstCell),
+            second.key(secondCell), second.value(secondCell), false);
+    }
+
+    @FunctionalInterface
+    interface PositionComparator {
+        int compare(int first, int second);
+    }
+
+    // Returns the positions 0..count-1 in sorted order, or null if they already were.
+    static int[] sort(int count, PositionComparator comparator) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        mergeSort(positions.clone(), positions, 0, count, comparator);
+        for (int i = 0; i < count; i++) {
+            if (positions[i] != i) {
+                return positions;
+            }
+        }
+        return null;
+    }
+
+    // Sorts source[from, to) into target; both hold the same positions in that range on entry. Each level merges the
+    // halves its children sorted into the other array, so no copying back is needed.
+    private static void mergeSort(int[] source, int[] target, int from, int to, PositionComparator comparator) {
+        if (to - from < INSERTION_LIMIT) {
+            for (int i = from + 1; i < to; i++) {
+                int position = target[i];
+                int j = i;
+                while (j > from && comparator.compare(target[j - 1], position) > 0) {
+                    target[j] = target[j - 1];
+                    j--;
+                }
+                target[j] = position;
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+        if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < middle && comparator.compare(source[left], source[right]) <= 0) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
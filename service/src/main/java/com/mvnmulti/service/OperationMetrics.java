@@ -0,0 +1,63 @@
+package com.mvnmulti.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder results = new LongAdder();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void recordCall(long durationNanos, boolean failed) {
+        latency.record(durationNanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public void addRows(long count) {
+        rows.add(count);
+    }
+
+    public void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    public void addResults(long count) {
+        results.add(count);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getResults() {
+        return results.sum();
+    }
+}
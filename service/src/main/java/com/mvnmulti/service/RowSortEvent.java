@@ -0,0 +1,29 @@
+package com.mvnmulti.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mvnmulti.RowSort")
+@Label("Row Sort")
+@Category("Table")
+@Description("Cells sorted within rows, or rows ordered by a column")
+@Enabled(false)
+@StackTrace(false)
+public class RowSortEvent extends Event {
+    @Label("Kind")
+    String kind;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Order")
+    String order;
+
+    @Label("Rows")
+    int rows;
+}
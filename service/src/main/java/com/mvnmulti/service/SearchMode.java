@@ -0,0 +1,26 @@
+package com.mvnmulti.service;
+
+public enum SearchMode {
+    LITERAL("literal"),
+    REGEX("regex"),
+    ANY_TERM("any");
+
+    private final String optionName;
+
+    SearchMode(String optionName) {
+        this.optionName = optionName;
+    }
+
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public static SearchMode fromOptionName(String optionName) {
+        for (SearchMode mode : values()) {
+            if (mode.optionName.equals(optionName)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Invalid search mode. Please use 'literal', 'regex' or 'any'.");
+    }
+}
@@ -0,0 +1,31 @@
+package com.mvnmulti.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class SearchPatternCache {
+    private final Map<String, CompiledSearch> entries;
+
+    SearchPatternCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledSearch> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized CompiledSearch get(String query, SearchMode mode) {
+        String cacheKey = mode.name() + ':' + query;
+        CompiledSearch compiled = entries.get(cacheKey);
+        if (compiled == null) {
+            compiled = CompiledSearch.compile(query, mode);
+            entries.put(cacheKey, compiled);
+        }
+        return compiled;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
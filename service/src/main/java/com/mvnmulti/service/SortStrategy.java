@@ -0,0 +1,38 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+
+import java.util.Comparator;
+
+public enum SortStrategy {
+    KEY_VALUE("both", CellComparators.KEY_VALUE),
+    KEY("key", Comparator.comparing(Cell::getKey)),
+    VALUE("value", Comparator.comparing(Cell::getValue)),
+    NUMERIC("numeric", CellComparators.NUMERIC_VALUE),
+    CASE_INSENSITIVE("nocase", CellComparators.CASE_INSENSITIVE);
+
+    private final String optionName;
+    private final Comparator<Cell> comparator;
+
+    SortStrategy(String optionName, Comparator<Cell> comparator) {
+        this.optionName = optionName;
+        this.comparator = comparator;
+    }
+
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public Comparator<Cell> getComparator() {
+        return comparator;
+    }
+
+    public static SortStrategy fromOptionName(String optionName) {
+        for (SortStrategy strategy : values()) {
+            if (strategy.optionName.equals(optionName)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid sort strategy. Please use 'both', 'key', 'value', 'numeric' or 'nocase'.");
+    }
+}
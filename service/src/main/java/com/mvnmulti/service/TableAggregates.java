@@ -0,0 +1,98 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.FrequencyResult;
+import com.mvnmulti.model.Row;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Aggregations computed in a single pass over every cell. Large tables are split across the common pool; each worker
+// tallies into its own primitive counters and the partial results are merged once at the end.
+final class TableAggregates {
+    static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    // Most frequent first, ties in text order.
+    private static final Comparator<FrequencyResult> BY_FREQUENCY =
+        Comparator.comparingLong(FrequencyResult::getCount).reversed().thenComparing(FrequencyResult::getText);
+
+    private TableAggregates() {
+    }
+
+    static long countPrefix(List<Row> rows, CellField field, String prefix) {
+        return stream(rows).mapToLong(row -> {
+            long count = 0;
+            for (Cell cell : row.getCells()) {
+                if (field.of(cell).startsWith(prefix)) {
+                    count++;
+                }
+            }
+            return count;
+        }).sum();
+    }
+
+    static Map<CharClass, Long> groupByCharClass(List<Row> rows, CellField field) {
+        CharClass[] classes = CharClass.values();
+        long[] counts = stream(rows).collect(() -> new long[classes.length], (tally, row) -> {
+            for (Cell cell : row.getCells()) {
+                tally[CharClass.of(field.of(cell)).ordinal()]++;
+            }
+        }, (tally, other) -> {
+            for (int i = 0; i < tally.length; i++) {
+                tally[i] += other[i];
+            }
+        });
+
+        Map<CharClass, Long> groups = new EnumMap<>(CharClass.class);
+        for (CharClass charClass : classes) {
+            groups.put(charClass, counts[charClass.ordinal()]);
+        }
+        return Collections.unmodifiableMap(groups);
+    }
+
+    // Texts shorter than the prefix length form groups of their own.
+    static Map<String, Long> groupByPrefix(List<Row> rows, CellField field, int prefixLength) {
+        Map<String, Long> groups = new TreeMap<>();
+        countTexts(rows, field, prefixLength).forEach(groups::put);
+        return Collections.unmodifiableMap(groups);
+    }
+
+    static List<FrequencyResult> top(List<Row> rows, CellField field, int limit) {
+        PriorityQueue<FrequencyResult> top = new PriorityQueue<>(BY_FREQUENCY.reversed());
+        countTexts(rows, field, Integer.MAX_VALUE).forEach((text, count) -> {
+            if (top.size() < limit) {
+                top.add(new FrequencyResult(text, count));
+            } else if (count >= top.peek().getCount()) {
+                FrequencyResult candidate = new FrequencyResult(text, count);
+                if (BY_FREQUENCY.compare(candidate, top.peek()) < 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+        });
+
+        List<FrequencyResult> results = new ArrayList<>(top);
+        results.sort(BY_FREQUENCY);
+        return Collections.unmodifiableList(results);
+    }
+
+    private static CountMap countTexts(List<Row> rows, CellField field, int prefixLength) {
+        return stream(rows).collect(CountMap::new, (tally, row) -> {
+            for (Cell cell : row.getCells()) {
+                String text = field.of(cell);
+                tally.add(text.length() <= prefixLength ? text : text.substring(0, prefixLength), 1);
+            }
+        }, CountMap::addAll);
+    }
+
+    private static Stream<Row> stream(List<Row> rows) {
+        return rows.size() >= PARALLEL_THRESHOLD ? rows.parallelStream() : rows.stream();
+    }
+}
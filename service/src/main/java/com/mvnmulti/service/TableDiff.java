@@ -0,0 +1,217 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Compares two table files while reading each of them once. Rows are matched on their line text through its hash
+// before anything is parsed, so unchanged stretches cost a hash and a string compare per row. Where the files
+// disagree, the diff looks at most `window` rows ahead on each side for the nearest row that lines up again: rows
+// skipped on the new side are insertions, rows skipped on the old side deletions, and a pair with no match in either
+// window is a modified row. The matching is greedy, so a modified row right next to inserted or deleted ones may be
+// paired with one of them; the changes are then longer than necessary but still turn one file into the other.
+// Memory is bounded by the two windows, whatever the size of the files.
+public class TableDiff {
+    public static final int DEFAULT_WINDOW = 4096;
+
+    private final int window;
+
+    public TableDiff() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public TableDiff(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Window must hold at least two rows.");
+        }
+        this.window = window;
+    }
+
+    // Row indices are positions in the old table after every earlier change has been applied, so replaying the
+    // changes in order turns the old table into the new one. A modified row with the same number of cells is reported
+    // cell by cell; one whose cell count changed is deleted and inserted again. Returns the number of changes.
+    public long diff(Path oldFile, Path newFile, ChangeSink sink) throws IOException {
+        long changes = 0;
+        int position = 0;
+        try (LineWindow oldRows = new LineWindow(oldFile, window); LineWindow newRows = new LineWindow(newFile, window)) {
+            while (true) {
+                oldRows.fill();
+                newRows.fill();
+                if (oldRows.isEmpty() && newRows.isEmpty()) {
+                    break;
+                }
+                if (oldRows.isEmpty()) {
+                    sink.rowInserted(position++, newRows.take());
+                    changes++;
+                    continue;
+                }
+                if (newRows.isEmpty()) {
+                    sink.rowDeleted(position, oldRows.take());
+                    changes++;
+                    continue;
+                }
+                if (oldRows.hash(0) == newRows.hash(0) && oldRows.line(0).equals(newRows.line(0))) {
+                    oldRows.skip();
+                    newRows.skip();
+                    position++;
+                    continue;
+                }
+
+                int inserted = newRows.indexOf(oldRows.line(0), oldRows.hash(0));
+                int deleted = oldRows.indexOf(newRows.line(0), newRows.hash(0));
+                if (inserted > 0 && (deleted < 0 || inserted <= deleted)) {
+                    for (int i = 0; i < inserted; i++) {
+                        sink.rowInserted(position++, newRows.take());
+                    }
+                    changes += inserted;
+                } else if (deleted > 0) {
+                    for (int i = 0; i < deleted; i++) {
+                        sink.rowDeleted(position, oldRows.take());
+                    }
+                    changes += deleted;
+                } else {
+                    changes += compareRows(position++, oldRows.take(), newRows.take(), sink);
+                }
+            }
+        }
+        return changes;
+    }
+
+    // Writes the changes to a patch file that TablePatch can apply.
+    public long diff(Path oldFile, Path newFile, Path patchFile) throws IOException {
+        try (TablePatchWriter writer = new TablePatchWriter(patchFile)) {
+            return diff(oldFile, newFile, writer);
+        }
+    }
+
+    private static int compareRows(int position, Row oldRow, Row newRow, ChangeSink sink) throws IOException {
+        List<Cell> oldCells = oldRow.getCells();
+        List<Cell> newCells = newRow.getCells();
+        if (oldCells.size() != newCells.size()) {
+            sink.rowDeleted(position, oldRow);
+            sink.rowInserted(position, newRow);
+            return 2;
+        }
+
+        int changes = 0;
+        for (int col = 0; col < oldCells.size(); col++) {
+            Cell oldCell = oldCells.get(col);
+            Cell newCell = newCells.get(col);
+            if (!oldCell.equals(newCell)) {
+                sink.cellChanged(new EditCellResult(position, col, oldCell.getKey(), oldCell.getValue(),
+                    newCell.getKey(), newCell.getValue()));
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    public interface ChangeSink {
+        void rowInserted(int rowIndex, Row row) throws IOException;
+
+        // The row holds the cells being removed, so the change can be checked before it is applied.
+        void rowDeleted(int rowIndex, Row row) throws IOException;
+
+        void cellChanged(EditCellResult change) throws IOException;
+    }
+
+    // The next rows of a file, kept in a ring with their hashes. Blank lines are skipped, as loading does. Hashes are
+    // also counted in buckets, so a row that appears nowhere in the window is usually ruled out without a scan.
+    private static final class LineWindow implements Closeable {
+        private final BufferedReader reader;
+        private final String[] lines;
+        private final int[] hashes;
+        private final int[] lineNumbers;
+        private final int[] buckets;
+        private int start;
+        private int count;
+        private int lineNumber;
+        private boolean exhausted;
+
+        LineWindow(Path file, int capacity) throws IOException {
+            reader = TableCodecs.newReader(file);
+            lines = new String[capacity];
+            hashes = new int[capacity];
+            lineNumbers = new int[capacity];
+            buckets = new int[Integer.highestOneBit(capacity) * 8];
+        }
+
+        void fill() throws IOException {
+            while (count < lines.length && !exhausted) {
+                String next = reader.readLine();
+                if (next == null) {
+                    exhausted = true;
+                } else {
+                    lineNumber++;
+                    if (!next.trim().isEmpty()) {
+                        int slot = slot(count++);
+                        lines[slot] = next;
+                        hashes[slot] = next.hashCode();
+                        lineNumbers[slot] = lineNumber;
+                        buckets[bucket(hashes[slot])]++;
+                    }
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        String line(int offset) {
+            return lines[slot(offset)];
+        }
+
+        int hash(int offset) {
+            return hashes[slot(offset)];
+        }
+
+        // Offset of the first row after the head with this text, or -1.
+        int indexOf(String line, int hash) {
+            if (buckets[bucket(hash)] == 0) {
+                return -1;
+            }
+            for (int i = 1; i < count; i++) {
+                int slot = slot(i);
+                if (hashes[slot] == hash && lines[slot].equals(line)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Row take() throws IOException {
+            Row row = TableCodecs.NATIVE.parseRow(lines[start], lineNumbers[start]);
+            skip();
+            return row;
+        }
+
+        void skip() {
+            buckets[bucket(hashes[start])]--;
+            lines[start] = null;
+            start = slot(1);
+            count--;
+        }
+
+        private int bucket(int hash) {
+            return (hash ^ (hash >>> 16)) & (buckets.length - 1);
+        }
+
+        private int slot(int offset) {
+            int slot = start + offset;
+            return slot < lines.length ? slot : slot - lines.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mvnmulti.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToLongFunction;
+
+public class TableMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1.0};
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public String formatSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT, "%-24s %10s %8s %12s %12s %12s %12s %14s %12s%n",
+            "operation", "count", "errors", "p50 (ms)", "p99 (ms)", "max (ms)", "rows", "bytes", "results"));
+        for (OperationMetrics metrics : operations.values()) {
+            if (metrics.getCount() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = metrics.getLatency();
+            summary.append(String.format(Locale.ROOT, "%-24s %10d %8d %12.3f %12.3f %12.3f %12d %14d %12d%n",
+                metrics.getName(), metrics.getCount(), metrics.getErrors(),
+                toMillis(latency.getValueAtPercentile(50)), toMillis(latency.getValueAtPercentile(99)),
+                toMillis(latency.getMax()), metrics.getRows(), metrics.getBytes(), metrics.getResults()));
+        }
+        return summary.toString();
+    }
+
+    // Prometheus text exposition format, version 0.0.4.
+    public String formatPrometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP table_operation_duration_seconds Latency of TableService operations.\n");
+        text.append("# TYPE table_operation_duration_seconds summary\n");
+        for (OperationMetrics metrics : operations.values()) {
+            LatencyHistogram latency = metrics.getLatency();
+            for (double quantile : QUANTILES) {
+                long nanos = quantile == 1.0 ? latency.getMax() : latency.getValueAtPercentile(quantile * 100);
+                text.append("table_operation_duration_seconds{operation=\"").append(metrics.getName())
+                    .append("\",quantile=\"").append(quantile).append("\"} ").append(toSeconds(nanos)).append('\n');
+            }
+            text.append("table_operation_duration_seconds_sum{operation=\"").append(metrics.getName()).append("\"} ")
+                .append(toSeconds(latency.getTotal())).append('\n');
+            text.append("table_operation_duration_seconds_count{operation=\"").append(metrics.getName()).append("\"} ")
+                .append(latency.getCount()).append('\n');
+        }
+        appendCounter(text, "table_operation_errors_total", "Failed TableService operations.", OperationMetrics::getErrors);
+        appendCounter(text, "table_operation_rows_total", "Rows processed by TableService operations.", OperationMetrics::getRows);
+        appendCounter(text, "table_operation_bytes_total", "File bytes read or written by TableService operations.", OperationMetrics::getBytes);
+        appendCounter(text, "table_operation_results_total", "Results returned by TableService operations.", OperationMetrics::getResults);
+        return text.toString();
+    }
+
+    private void appendCounter(StringBuilder text, String name, String help, ToLongFunction<OperationMetrics> value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (OperationMetrics metrics : operations.values()) {
+            text.append(name).append("{operation=\"").append(metrics.getName()).append("\"} ")
+                .append(value.applyAsLong(metrics)).append('\n');
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,343 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.TableCodecs;
+import com.mvnmulti.utilities.TableParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Patch files hold one change per line, in the order TableDiff emitted them, with cells in the native table format:
+//   +<row>\u001F<cells>                       insert a row at that position
+//   -<row>\u001F<cells>                       delete the row at that position, which must hold exactly these cells
+//   ~<row>\u001F<col>\u001F<old>\u001F<new>   replace one cell, which must still hold the old key and value
+// Every change is checked against the table before it is made; applying stops at the first one that does not match.
+// Applied to a table, a patch is all or nothing: the changes made before a mismatch are rolled back.
+public final class TablePatch {
+    static final char INSERT = '+';
+    static final char DELETE = '-';
+    static final char CHANGE = '~';
+    static final char FIELD_DELIMITER = '\u001F';
+
+    private TablePatch() {
+    }
+
+    public static void read(Path patchFile, TableDiff.ChangeSink sink) throws IOException {
+        try (BufferedReader reader = TableCodecs.newReader(patchFile)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+                readEntry(line, lineNumber, sink);
+            }
+        }
+    }
+
+    // Streams the source table through the patch into the target file; neither table is held in memory. The target
+    // is replaced only once the whole patch applied, and may be the source.
+    public static void apply(Path sourceFile, Path patchFile, Path targetFile) throws IOException {
+        try (BufferedReader source = TableCodecs.newReader(sourceFile)) {
+            TableCodecs.replace(targetFile, target -> {
+                FileApplier applier = new FileApplier(source, target);
+                read(patchFile, applier);
+                applier.finish();
+            });
+        }
+    }
+
+    // Leaves the table as it was when any entry does not match.
+    public static void apply(Table table, Path patchFile) throws IOException {
+        applyChanges(table, patchFile);
+    }
+
+    // Returns what was changed, so the service can record it for undo.
+    static Applied applyChanges(Table table, Path patchFile) throws IOException {
+        TableApplier applier = new TableApplier(table);
+        try {
+            read(patchFile, applier);
+        } catch (IOException | RuntimeException e) {
+            applier.applied.undo(table);
+            throw e;
+        }
+        return applier.applied;
+    }
+
+    private static void readEntry(String line, int lineNumber, TableDiff.ChangeSink sink) throws IOException {
+        int rowEnd = line.indexOf(FIELD_DELIMITER);
+        if (rowEnd < 2) {
+            throw new TableParseException(lineNumber, "Invalid patch entry: " + line);
+        }
+        int rowIndex = parseIndex(line.substring(1, rowEnd), lineNumber);
+        switch (line.charAt(0)) {
+            case INSERT:
+                sink.rowInserted(rowIndex, parseRow(line.substring(rowEnd + 1), lineNumber));
+                break;
+            case DELETE:
+                sink.rowDeleted(rowIndex, parseRow(line.substring(rowEnd + 1), lineNumber));
+                break;
+            case CHANGE:
+                int colEnd = line.indexOf(FIELD_DELIMITER, rowEnd + 1);
+                if (colEnd < 0) {
+                    throw new TableParseException(lineNumber, "Invalid patch entry: " + line);
+                }
+                int colIndex = parseIndex(line.substring(rowEnd + 1, colEnd), lineNumber);
+                List<Cell> cells = parseRow(line.substring(colEnd + 1), lineNumber).getCells();
+                if (cells.size() != 2) {
+                    throw new TableParseException(lineNumber, "A cell change needs the old and the new cell: " + line);
+                }
+                sink.cellChanged(new EditCellResult(rowIndex, colIndex, cells.get(0).getKey(), cells.get(0).getValue(),
+                    cells.get(1).getKey(), cells.get(1).getValue()));
+                break;
+            default:
+                throw new TableParseException(lineNumber, "Unknown patch entry: " + line);
+        }
+    }
+
+    private static int parseIndex(String text, int lineNumber) throws TableParseException {
+        try {
+            int index = Integer.parseInt(text);
+            if (index >= 0) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new TableParseException(lineNumber, "Invalid index in patch entry: " + text);
+    }
+
+    private static Row parseRow(String cells, int lineNumber) throws TableParseException {
+        return cells.isEmpty() ? new Row(new ArrayList<>()) : TableCodecs.NATIVE.parseRow(cells, lineNumber);
+    }
+
+    private static void changeCell(Row row, EditCellResult change) throws IOException {
+        List<Cell> cells = row.getCells();
+        int colIndex = change.getColIndex();
+        if (colIndex >= cells.size()) {
+            throw mismatch(change.getRowIndex(), "the row has only " + cells.size() + " cells");
+        }
+        Cell cell = cells.get(colIndex);
+        if (!cell.getKey().equals(change.getOldKey()) || !cell.getValue().equals(change.getOldValue())) {
+            throw mismatch(change.getRowIndex(), "cell " + colIndex + " is " + cell + ", expected "
+                + change.getOldKey() + "," + change.getOldValue());
+        }
+        cell.setKey(change.getNewKey());
+        cell.setValue(change.getNewValue());
+    }
+
+    private static IOException mismatch(int rowIndex, String detail) {
+        return new IOException("Patch does not apply at row " + rowIndex + ": " + detail);
+    }
+
+    // The changes a patch made to a table, in order: inserted and deleted rows with their cells, and cell edits.
+    static final class Applied {
+        private final List<Step> steps = new ArrayList<>();
+
+        int size() {
+            return steps.size();
+        }
+
+        void undo(Table table) {
+            for (int i = steps.size() - 1; i >= 0; i--) {
+                Step step = steps.get(i);
+                switch (step.kind) {
+                    case INSERT:
+                        table.removeRow(step.rowIndex);
+                        break;
+                    case DELETE:
+                        table.addRow(step.rowIndex, step.row);
+                        break;
+                    default:
+                        setCell(table, step.change, step.change.getOldKey(), step.change.getOldValue());
+                        break;
+                }
+            }
+        }
+
+        void redo(Table table) {
+            for (Step step : steps) {
+                switch (step.kind) {
+                    case INSERT:
+                        table.addRow(step.rowIndex, step.row);
+                        break;
+                    case DELETE:
+                        table.removeRow(step.rowIndex);
+                        break;
+                    default:
+                        setCell(table, step.change, step.change.getNewKey(), step.change.getNewValue());
+                        break;
+                }
+            }
+        }
+
+        long bytes() {
+            long bytes = 0;
+            for (Step step : steps) {
+                bytes += step.row != null ? EditHistory.rowBytes(step.row) : EditHistory.editBytes(step.change);
+            }
+            return bytes;
+        }
+
+        private static void setCell(Table table, EditCellResult change, String key, String value) {
+            Row row = table.getRow(change.getRowIndex());
+            Cell cell = row.getCells().get(change.getColIndex());
+            cell.setKey(key);
+            cell.setValue(value);
+            table.setRow(change.getRowIndex(), row);
+        }
+    }
+
+    private static final class Step {
+        private final char kind;
+        private final int rowIndex;
+        private final Row row;
+        private final EditCellResult change;
+
+        Step(char kind, int rowIndex, Row row, EditCellResult change) {
+            this.kind = kind;
+            this.rowIndex = rowIndex;
+            this.row = row;
+            this.change = change;
+        }
+    }
+
+    private static final class TableApplier implements TableDiff.ChangeSink {
+        private final Table table;
+        private final Applied applied = new Applied();
+
+        TableApplier(Table table) {
+            this.table = table;
+        }
+
+        @Override
+        public void rowInserted(int rowIndex, Row row) throws IOException {
+            if (rowIndex > table.getRowCount()) {
+                throw mismatch(rowIndex, "the table has only " + table.getRowCount() + " rows");
+            }
+            table.addRow(rowIndex, row);
+            applied.steps.add(new Step(INSERT, rowIndex, row, null));
+        }
+
+        @Override
+        public void rowDeleted(int rowIndex, Row row) throws IOException {
+            Row current = existingRow(rowIndex);
+            if (!current.getCells().equals(row.getCells())) {
+                throw mismatch(rowIndex, "expected to delete " + row + " but found " + current);
+            }
+            table.removeRow(rowIndex);
+            applied.steps.add(new Step(DELETE, rowIndex, current, null));
+        }
+
+        @Override
+        public void cellChanged(EditCellResult change) throws IOException {
+            Row row = existingRow(change.getRowIndex());
+            changeCell(row, change);
+            table.setRow(change.getRowIndex(), row);
+            applied.steps.add(new Step(CHANGE, change.getRowIndex(), null, change));
+        }
+
+        private Row existingRow(int rowIndex) throws IOException {
+            if (rowIndex >= table.getRowCount()) {
+                throw mismatch(rowIndex, "the table has only " + table.getRowCount() + " rows");
+            }
+            return table.getRow(rowIndex);
+        }
+    }
+
+    // Copies untouched rows through as text and parses only the rows a change touches. Cell changes to one row are
+    // gathered and the row written once the patch moves past it.
+    private static final class FileApplier implements TableDiff.ChangeSink {
+        private final BufferedReader source;
+        private final Writer target;
+        private int position;
+        private int lineNumber;
+        private Row editing;
+
+        FileApplier(BufferedReader source, Writer target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public void rowInserted(int rowIndex, Row row) throws IOException {
+            finishEditing();
+            copyUntil(rowIndex);
+            TableCodecs.NATIVE.write(row, target);
+            position++;
+        }
+
+        @Override
+        public void rowDeleted(int rowIndex, Row row) throws IOException {
+            finishEditing();
+            copyUntil(rowIndex);
+            Row current = TableCodecs.NATIVE.parseRow(nextLine(rowIndex), lineNumber);
+            if (!current.getCells().equals(row.getCells())) {
+                throw mismatch(rowIndex, "expected to delete " + row + " but found " + current);
+            }
+        }
+
+        @Override
+        public void cellChanged(EditCellResult change) throws IOException {
+            if (editing == null || change.getRowIndex() != position) {
+                finishEditing();
+                copyUntil(change.getRowIndex());
+                editing = TableCodecs.NATIVE.parseRow(nextLine(change.getRowIndex()), lineNumber);
+            }
+            changeCell(editing, change);
+        }
+
+        void finish() throws IOException {
+            finishEditing();
+            String line;
+            while ((line = nextLineOrNull()) != null) {
+                target.write(line);
+                target.write('\n');
+            }
+        }
+
+        private void finishEditing() throws IOException {
+            if (editing != null) {
+                TableCodecs.NATIVE.write(editing, target);
+                editing = null;
+                position++;
+            }
+        }
+
+        private void copyUntil(int rowIndex) throws IOException {
+            if (rowIndex < position) {
+                throw mismatch(rowIndex, "entries are out of order");
+            }
+            while (position < rowIndex) {
+                target.write(nextLine(rowIndex));
+                target.write('\n');
+                position++;
+            }
+        }
+
+        private String nextLine(int rowIndex) throws IOException {
+            String line = nextLineOrNull();
+            if (line == null) {
+                throw mismatch(rowIndex, "the table ends before this row");
+            }
+            return line;
+        }
+
+        private String nextLineOrNull() throws IOException {
+            String line;
+            while ((line = source.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+    }
+}
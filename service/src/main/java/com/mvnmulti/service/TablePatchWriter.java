@@ -0,0 +1,53 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+
+// Streams changes to a patch file in the format TablePatch reads.
+public class TablePatchWriter implements TableDiff.ChangeSink, Closeable {
+    private final Writer writer;
+
+    public TablePatchWriter(Path patchFile) throws IOException {
+        this.writer = TableCodecs.newWriter(patchFile);
+    }
+
+    @Override
+    public void rowInserted(int rowIndex, Row row) throws IOException {
+        writeEntry(TablePatch.INSERT, rowIndex);
+        TableCodecs.NATIVE.write(row, writer);
+    }
+
+    @Override
+    public void rowDeleted(int rowIndex, Row row) throws IOException {
+        writeEntry(TablePatch.DELETE, rowIndex);
+        TableCodecs.NATIVE.write(row, writer);
+    }
+
+    @Override
+    public void cellChanged(EditCellResult change) throws IOException {
+        writeEntry(TablePatch.CHANGE, change.getRowIndex());
+        writer.write(Integer.toString(change.getColIndex()));
+        writer.write(TablePatch.FIELD_DELIMITER);
+        TableCodecs.NATIVE.write(new Row(List.of(new Cell(change.getOldKey(), change.getOldValue()),
+            new Cell(change.getNewKey(), change.getNewValue()))), writer);
+    }
+
+    private void writeEntry(char kind, int rowIndex) throws IOException {
+        writer.write(kind);
+        writer.write(Integer.toString(rowIndex));
+        writer.write(TablePatch.FIELD_DELIMITER);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
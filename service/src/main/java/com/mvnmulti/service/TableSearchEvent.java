@@ -0,0 +1,29 @@
+package com.mvnmulti.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mvnmulti.TableSearch")
+@Label("Table Search")
+@Category("Table")
+@Description("A search over a range of table rows")
+@Enabled(false)
+@StackTrace(false)
+public class TableSearchEvent extends Event {
+    @Label("Mode")
+    String mode;
+
+    @Label("Term Length")
+    int termLength;
+
+    @Label("Cells Scanned")
+    long cellsScanned;
+
+    @Label("Hits")
+    int hits;
+}
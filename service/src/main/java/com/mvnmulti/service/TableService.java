@@ -1,23 +1,49 @@
 package com.mvnmulti.service;
 
 import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.FrequencyResult;
+import com.mvnmulti.model.Row;
 import com.mvnmulti.model.SearchResult;
 import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.TableFileChange;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 public interface TableService {
     void loadTableFromFile(String fileName) throws IOException;
+    void loadTableFromFile(String fileName, boolean strict) throws IOException;
     void saveTableToFile(String fileName) throws IOException;
+    void saveTableSharded(String manifestFile, int shardCount) throws IOException;
     void loadDefaultTable() throws IOException;
+    TableFileChange reloadIfChanged() throws IOException;
     Table getTable();
     boolean isAppDefault();
     String getCurrentFileName();
     void createTable(int rows, int columns);
     EditCellResult editCell(int rowIndex, int colIndex, String editType, String editedValue);
     List<SearchResult> searchTable(String searchTerm);
+    List<SearchResult> searchTable(String searchTerm, int fromRow, int toRow);
+    List<SearchResult> searchTable(String searchTerm, SearchMode mode);
+    List<SearchResult> searchTable(String searchTerm, SearchMode mode, int fromRow, int toRow);
+    List<Row> getRows(int fromRow, int toRow);
     void addRow(int numCells, int rowIndex);
+    // All or nothing, and undone as one step.
+    void applyPatch(String patchFile) throws IOException;
     void sortTable(int rowIndex, String order);
+    void sortTable(int rowIndex, String order, SortStrategy strategy);
+    void sortRows(int[] rowIndices, String order, SortStrategy strategy);
+    void sortAllRows(String order, SortStrategy strategy);
+    void sortRowsByColumn(int colIndex, String order, SortStrategy strategy);
     String generateRandomAscii(int length);
+    // Steps back or forward through cell edits, row inserts, patches and sorts; returns what was undone or redone, or
+    // null when there is nothing to step over.
+    String undo();
+    String redo();
+    // Aggregations over every cell; each result is cached until the table is next modified.
+    long countCells(CellField field, String prefix);
+    Map<String, Long> groupCellsByPrefix(CellField field, int prefixLength);
+    Map<CharClass, Long> groupCellsByCharClass(CellField field);
+    List<FrequencyResult> topCells(CellField field, int limit);
 }
\ No newline at end of file
@@ -1,26 +1,49 @@
 package com.mvnmulti.service;
 
 import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.OffHeapRowList;
 import com.mvnmulti.model.Row;
 import com.mvnmulti.model.Table;
 import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.FrequencyResult;
 import com.mvnmulti.model.SearchResult;
 import com.mvnmulti.utilities.FileTable;
+import com.mvnmulti.utilities.TableEvents;
+import com.mvnmulti.utilities.TableFileChange;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Random;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
-import java.util.Collections;
+import java.util.stream.IntStream;
 
 public class TableServiceImpl implements TableService {
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private static final int PATTERN_CACHE_SIZE = 64;
+    private static final int AGGREGATE_CACHE_SIZE = 64;
+    public static final long DEFAULT_HISTORY_LIMIT_BYTES = 16L << 20;
+
     private final FileTable fileTable;
+    private final SearchPatternCache patternCache = new SearchPatternCache(PATTERN_CACHE_SIZE);
+    private final AggregateCache aggregateCache = new AggregateCache(AGGREGATE_CACHE_SIZE);
+    private final EditHistory history;
 
     public TableServiceImpl(FileTable fileTable) {
+        this(fileTable, DEFAULT_HISTORY_LIMIT_BYTES);
+    }
+
+    // The undo history keeps its entries' estimated footprint under historyLimitBytes; zero turns it off.
+    public TableServiceImpl(FileTable fileTable, long historyLimitBytes) {
         this.fileTable = fileTable;
+        this.history = new EditHistory(historyLimitBytes);
     }
 
     @Override
@@ -28,16 +51,31 @@ public class TableServiceImpl implements TableService {
         fileTable.loadTableFromFile(fileName);
     }
 
+    @Override
+    public void loadTableFromFile(String fileName, boolean strict) throws IOException {
+        fileTable.loadTableFromFile(fileName, strict);
+    }
+
     @Override
     public void saveTableToFile(String fileName) throws IOException {
         fileTable.saveTableToFile(fileName);
     }
 
+    @Override
+    public void saveTableSharded(String manifestFile, int shardCount) throws IOException {
+        fileTable.saveTableSharded(manifestFile, shardCount);
+    }
+
     @Override
     public void loadDefaultTable() throws IOException {
         fileTable.loadDefaultTable();
     }
 
+    @Override
+    public TableFileChange reloadIfChanged() throws IOException {
+        return fileTable.reloadIfChanged();
+    }
+
     @Override
     public Table getTable() {
         return fileTable.getTable();
@@ -65,7 +103,7 @@ public class TableServiceImpl implements TableService {
                 String key;
                 do {
                     key = generateRandomAscii(3);
-                } while (generatedKeys.contains(key));
+                } while (generatedKeys.contains(key) || table.getReservedKeys().test(key));
                 generatedKeys.add(key);
                 String value = generateRandomAscii(3);
                 rowCells.add(new Cell(key, value));
@@ -86,6 +124,7 @@ public class TableServiceImpl implements TableService {
             throw new IllegalArgumentException("Invalid column index.");
         }
 
+        history.sync(table);
         Cell cell = row.getCells().get(colIndex);
         String oldKey = cell.getKey();
         String oldValue = cell.getValue();
@@ -123,57 +162,328 @@ public class TableServiceImpl implements TableService {
                 throw new IllegalArgumentException("Invalid edit type.");
         }
 
-        return new EditCellResult(rowIndex, colIndex, oldKey, oldValue, newKey, newValue);
+        table.setRow(rowIndex, row);
+        EditCellResult result = new EditCellResult(rowIndex, colIndex, oldKey, oldValue, newKey, newValue);
+        history.record(EditHistory.cellEdit(result));
+        return result;
     }
 
     @Override
     public List<SearchResult> searchTable(String searchTerm) {
+        return searchTable(searchTerm, SearchMode.LITERAL);
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, int fromRow, int toRow) {
+        return searchTable(searchTerm, SearchMode.LITERAL, fromRow, toRow);
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, SearchMode mode) {
+        return searchTable(searchTerm, mode, 0, fileTable.getTable().getRowCount());
+    }
+
+    @Override
+    public List<SearchResult> searchTable(String searchTerm, SearchMode mode, int fromRow, int toRow) {
+        TableSearchEvent event = null;
+        if (TableEvents.isRecorderRunning()) {
+            event = new TableSearchEvent();
+            event.begin();
+        }
         List<SearchResult> results = new ArrayList<>();
 
         Table table = fileTable.getTable();
-        for (int i = 0; i < table.getRowCount(); i++) {
-            Row row = table.getRow(i);
-            for (int j = 0; j < row.getCells().size(); j++) {
-                Cell cell = row.getCells().get(j);
-                int keyOccurrences = (cell.getKey().length() - cell.getKey().replace(searchTerm, "").length()) / searchTerm.length();
-                int valueOccurrences = (cell.getValue().length() - cell.getValue().replace(searchTerm, "").length()) / searchTerm.length();
-
-                if (keyOccurrences > 0 || valueOccurrences > 0) {
-                    results.add(new SearchResult(keyOccurrences, searchTerm, valueOccurrences, i, j));
+        int end = clampRange(table, fromRow, toRow);
+        CompiledSearch.OccurrenceCounter counter = patternCache.get(searchTerm, mode).newCounter();
+        long cellsScanned = 0;
+        if (table.getRows() instanceof OffHeapRowList) {
+            // Matched where the cells are stored, so no row is decoded.
+            OffHeapRowList.Cursor cursor = ((OffHeapRowList) table.getRows()).cursor();
+            for (int i = Math.min(fromRow, end); i < end; i++) {
+                cursor.seek(i);
+                cellsScanned += cursor.cellCount();
+                for (int j = 0; j < cursor.cellCount(); j++) {
+                    addSearchResult(results, searchTerm, counter.count(cursor.key(j)), counter.count(cursor.value(j)),
+                        i, j);
+                }
+            }
+        } else {
+            for (int i = Math.min(fromRow, end); i < end; i++) {
+                Row row = table.getRow(i);
+                cellsScanned += row.getCells().size();
+                for (int j = 0; j < row.getCells().size(); j++) {
+                    Cell cell = row.getCells().get(j);
+                    addSearchResult(results, searchTerm, counter.count(cell.getKey()), counter.count(cell.getValue()),
+                        i, j);
                 }
             }
         }
+
+        if (event != null && event.shouldCommit()) {
+            event.mode = mode.name();
+            event.termLength = searchTerm.length();
+            event.cellsScanned = cellsScanned;
+            event.hits = results.size();
+            event.commit();
+        }
         return results;
     }
 
+    private static void addSearchResult(List<SearchResult> results, String searchTerm, int keyOccurrences,
+            int valueOccurrences, int rowIndex, int colIndex) {
+        if (keyOccurrences > 0 || valueOccurrences > 0) {
+            results.add(new SearchResult(keyOccurrences, searchTerm, valueOccurrences, rowIndex, colIndex));
+        }
+    }
+
+    @Override
+    public List<Row> getRows(int fromRow, int toRow) {
+        Table table = fileTable.getTable();
+        int end = clampRange(table, fromRow, toRow);
+        return table.getRowRange(Math.min(fromRow, end), end);
+    }
+
+    private int clampRange(Table table, int fromRow, int toRow) {
+        if (fromRow < 0 || toRow < fromRow) {
+            throw new IllegalArgumentException("Invalid row range.");
+        }
+        return Math.min(toRow, table.getRowCount());
+    }
+
     @Override
     public void addRow(int numCells, int rowIndex) {
+        if (numCells < 0) {
+            throw new IllegalArgumentException("Invalid number of cells.");
+        }
         List<Cell> newCells = new ArrayList<>();
         for (int i = 0; i < numCells; i++) {
             newCells.add(new Cell(generateRandomAscii(3), generateRandomAscii(3)));
         }
 
-        if (rowIndex < 0 || rowIndex > fileTable.getTable().getRowCount()) {
+        Table table = fileTable.getTable();
+        if (rowIndex < 0 || rowIndex > table.getRowCount()) {
             throw new IllegalArgumentException("Invalid row index.");
         }
-        fileTable.getTable().getRows().add(rowIndex, new Row(newCells));
+        Row row = new Row(newCells);
+        history.sync(table);
+        table.addRow(rowIndex, row);
+        history.record(EditHistory.rowInsert(rowIndex, row));
+    }
+
+    // A patch that does not apply leaves the table, and so the history, as it was.
+    @Override
+    public void applyPatch(String patchFile) throws IOException {
+        Table table = fileTable.getTable();
+        history.sync(table);
+        TablePatch.Applied applied;
+        try {
+            applied = TablePatch.applyChanges(table, Paths.get(patchFile));
+        } catch (IOException | RuntimeException e) {
+            history.record(null);
+            throw e;
+        }
+        history.record(EditHistory.patch(patchFile, applied));
     }
 
     @Override
     public void sortTable(int rowIndex, String order) {
+        sortTable(rowIndex, order, SortStrategy.KEY_VALUE);
+    }
+
+    @Override
+    public void sortTable(int rowIndex, String order, SortStrategy strategy) {
+        RowSortEvent event = beginSortEvent();
         Table table = fileTable.getTable();
         if (rowIndex < 0 || rowIndex >= table.getRowCount()) {
             throw new IllegalArgumentException("Invalid row index.");
         }
 
-        List<Cell> rowToSortList = table.getRow(rowIndex).getCells();
-        Comparator<Cell> comparator = Comparator.comparing(cell -> (cell.getKey() + cell.getValue()));
+        history.sync(table);
+        int[] permutation;
+        boolean record;
+        if (table.getRows() instanceof OffHeapRowList) {
+            permutation = OffHeapSorts.sortCells((OffHeapRowList) table.getRows(), rowIndex, strategy, order);
+            record = permutation == null || history.canHold(1 + permutation.length);
+        } else {
+            Row row = table.getRow(rowIndex);
+            record = history.canHold(1 + row.getCells().size());
+            permutation = sortCells(row, order, strategy, CellComparators.forOrder(strategy.getComparator(), order),
+                record);
+        }
+        table.markModified();
+        recordCellOrder(record, new int[] {rowIndex}, new int[][] {permutation}, strategy, order);
+        commitSortEvent(event, "cells", strategy, order, 1);
+    }
+
+    @Override
+    public void sortRows(int[] rowIndices, String order, SortStrategy strategy) {
+        RowSortEvent event = beginSortEvent();
+        Table table = fileTable.getTable();
+        for (int rowIndex : rowIndices) {
+            if (rowIndex < 0 || rowIndex >= table.getRowCount()) {
+                throw new IllegalArgumentException("Invalid row index: " + rowIndex);
+            }
+        }
+
+        history.sync(table);
+        Comparator<Cell> comparator = CellComparators.forOrder(strategy.getComparator(), order);
+        int[] distinct = Arrays.stream(rowIndices).distinct().toArray();
+        boolean record = history.canHold((long) distinct.length * (1 + table.getColumnCount()));
+        int[][] permutations = sortEachRow(table.getRows(), distinct, order, strategy, comparator,
+            rowIndices.length >= PARALLEL_SORT_THRESHOLD, record);
+        table.markModified();
+        recordCellOrder(record, distinct, permutations, strategy, order);
+        commitSortEvent(event, "cells", strategy, order, rowIndices.length);
+    }
+
+    @Override
+    public void sortAllRows(String order, SortStrategy strategy) {
+        RowSortEvent event = beginSortEvent();
+        Table table = fileTable.getTable();
+        history.sync(table);
+        Comparator<Cell> comparator = CellComparators.forOrder(strategy.getComparator(), order);
+        List<Row> rows = table.getRows();
+        // The row count is exact but the cell count is estimated from the first row; record drops a change that
+        // turns out too large after all.
+        if (history.canHold((long) rows.size() * (1 + table.getColumnCount()))) {
+            int[] all = IntStream.range(0, rows.size()).toArray();
+            int[][] permutations = sortEachRow(rows, all, order, strategy, comparator,
+                rows.size() >= PARALLEL_SORT_THRESHOLD, true);
+            table.markModified();
+            recordCellOrder(true, all, permutations, strategy, order);
+        } else {
+            if (rows instanceof OffHeapRowList) {
+                sortEachRow(rows, IntStream.range(0, rows.size()).toArray(), order, strategy, comparator, false, false);
+            } else if (rows.size() >= PARALLEL_SORT_THRESHOLD) {
+                rows.parallelStream().forEach(row -> sortCells(row, order, strategy, comparator, false));
+            } else {
+                rows.forEach(row -> sortCells(row, order, strategy, comparator, false));
+            }
+            table.markModified();
+            history.forget();
+        }
+        commitSortEvent(event, "cells", strategy, order, rows.size());
+    }
+
+    @Override
+    public void sortRowsByColumn(int colIndex, String order, SortStrategy strategy) {
+        RowSortEvent event = beginSortEvent();
+        if (colIndex < 0) {
+            throw new IllegalArgumentException("Invalid column index.");
+        }
+
+        Table table = fileTable.getTable();
+        history.sync(table);
+        if (table.getRows() instanceof OffHeapRowList) {
+            int[] permutation = OffHeapSorts.sortRowsByColumn((OffHeapRowList) table.getRows(), colIndex, strategy,
+                order);
+            table.markModified();
+            if (history.canHold(table.getRowCount())) {
+                history.record(EditHistory.rowOrder(colIndex, permutation));
+            } else {
+                history.forget();
+            }
+            commitSortEvent(event, "rows", strategy, order, table.getRowCount());
+            return;
+        }
+        Comparator<Cell> cellComparator = CellComparators.forOrder(strategy.getComparator(), order);
+        Object[] before = history.canHold(table.getRowCount()) ? table.getRows().toArray() : null;
+        sortList(table.getRows(), CellComparators.byColumn(colIndex, cellComparator));
+        table.markModified();
+        if (before != null) {
+            history.record(EditHistory.rowOrder(colIndex, EditHistory.permutation(before, table.getRows())));
+        } else {
+            history.forget();
+        }
+        commitSortEvent(event, "rows", strategy, order, table.getRowCount());
+    }
+
+    private static RowSortEvent beginSortEvent() {
+        if (!TableEvents.isRecorderRunning()) {
+            return null;
+        }
+        RowSortEvent event = new RowSortEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commitSortEvent(RowSortEvent event, String kind, SortStrategy strategy, String order, int rows) {
+        if (event != null && event.shouldCommit()) {
+            event.kind = kind;
+            event.strategy = strategy.name();
+            event.order = order;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private void recordCellOrder(boolean record, int[] rows, int[][] permutations, SortStrategy strategy, String order) {
+        if (record) {
+            history.record(EditHistory.cellOrder(rows, permutations, strategy, order));
+        } else {
+            history.forget();
+        }
+    }
+
+    // Sorts the given rows' cells, returning each row's permutation when asked to record them. Off-heap rows are
+    // sorted one after another where they are stored.
+    private int[][] sortEachRow(List<Row> rows, int[] rowIndices, String order, SortStrategy strategy,
+            Comparator<Cell> comparator, boolean parallel, boolean record) {
+        int[][] permutations = new int[rowIndices.length][];
+        if (rows instanceof OffHeapRowList) {
+            for (int i = 0; i < rowIndices.length; i++) {
+                int[] permutation = OffHeapSorts.sortCells((OffHeapRowList) rows, rowIndices[i], strategy, order);
+                permutations[i] = record ? permutation : null;
+            }
+            return permutations;
+        }
+        IntStream positions = IntStream.range(0, rowIndices.length);
+        if (parallel) {
+            positions = positions.parallel();
+        }
+        positions.forEach(i -> permutations[i] = sortCells(rows.get(rowIndices[i]), order, strategy, comparator, record));
+        return permutations;
+    }
+
+    // Returns where each cell was before the sort if asked to record it and the order changed, null otherwise.
+    private int[] sortCells(Row row, String order, SortStrategy strategy, Comparator<Cell> comparator, boolean record) {
+        if (strategy.name().equals(row.getSortedBy()) && order.equals(row.getSortedOrder())) {
+            return null;
+        }
+
+        // Not reversed when only the order changed: every strategy has ties between different cells, which a fresh
+        // stable sort keeps in row order but a reverse would flip.
+        Object[] before = record ? row.getCells().toArray() : null;
+        sortList(row.getCells(), comparator);
+        row.setSortedBy(strategy.name());
+        row.setSortedOrder(order);
+        return before == null ? null : EditHistory.permutation(before, row.getCells());
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> void sortList(List<T> list, Comparator<? super T> comparator) {
+        if (list.size() < PARALLEL_SORT_THRESHOLD) {
+            list.sort(comparator);
+            return;
+        }
 
-        if (order.equals("desc")) {
-            comparator = comparator.reversed();
+        T[] elements = (T[]) list.toArray();
+        Arrays.parallelSort(elements, comparator);
+        ListIterator<T> writer = list.listIterator();
+        for (T element : elements) {
+            writer.next();
+            writer.set(element);
         }
+    }
 
-        rowToSortList.sort(comparator);
+    @Override
+    public String undo() {
+        return history.undo(fileTable.getTable());
+    }
+
+    @Override
+    public String redo() {
+        return history.redo(fileTable.getTable());
     }
 
     @Override
@@ -185,4 +495,39 @@ public class TableServiceImpl implements TableService {
         }
         return rand.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public long countCells(CellField field, String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix must not be null.");
+        }
+        Table table = fileTable.getTable();
+        return aggregateCache.get("count:" + field + ':' + prefix, table,
+            () -> TableAggregates.countPrefix(table.getRows(), field, prefix));
+    }
+
+    @Override
+    public Map<String, Long> groupCellsByPrefix(CellField field, int prefixLength) {
+        if (prefixLength <= 0) {
+            throw new IllegalArgumentException("Prefix length must be positive.");
+        }
+        Table table = fileTable.getTable();
+        return aggregateCache.get("prefix:" + field + ':' + prefixLength, table,
+            () -> TableAggregates.groupByPrefix(table.getRows(), field, prefixLength));
+    }
+
+    @Override
+    public Map<CharClass, Long> groupCellsByCharClass(CellField field) {
+        Table table = fileTable.getTable();
+        return aggregateCache.get("class:" + field, table, () -> TableAggregates.groupByCharClass(table.getRows(), field));
+    }
+
+    @Override
+    public List<FrequencyResult> topCells(CellField field, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        Table table = fileTable.getTable();
+        return aggregateCache.get("top:" + field + ':' + limit, table, () -> TableAggregates.top(table.getRows(), field, limit));
+    }
+}
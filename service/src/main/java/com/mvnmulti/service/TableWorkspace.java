@@ -0,0 +1,274 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.OffHeapRowList;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.FileTable;
+import com.mvnmulti.utilities.TableLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Keeps several named tables open at once. Lookups by name are O(1); only opening a table or switching to it counts
+// as a use, so listing the tables or asking about one leaves the order alone. When the estimated size of all open
+// tables goes over the budget, the least recently used ones other than the active table are saved if dirty and closed.
+public class TableWorkspace {
+    // Rough heap cost of a row and of a cell besides its characters, on a 64-bit JVM with compressed pointers.
+    static final long ROW_OVERHEAD_BYTES = 64;
+    static final long CELL_OVERHEAD_BYTES = 128;
+
+    private static final TableLogger LOGGER = TableLogger.getLogger(TableWorkspace.class);
+
+    private final long memoryBudgetBytes;
+    private final Function<FileTable, TableService> serviceFactory;
+    private final Supplier<Table> tableFactory;
+    // Least recently used first; use moves a table to the end.
+    private final Map<String, Entry> tables = new LinkedHashMap<>();
+    // Key -> names of the open tables containing it, refreshed lazily for tables that changed since last indexed.
+    private final Map<String, Set<String>> keyIndex = new HashMap<>();
+    private String activeName;
+
+    public TableWorkspace(long memoryBudgetBytes, Function<FileTable, TableService> serviceFactory) {
+        this(memoryBudgetBytes, serviceFactory, Table::new);
+    }
+
+    // Table::offHeap keeps each table's rows outside the heap.
+    public TableWorkspace(long memoryBudgetBytes, Function<FileTable, TableService> serviceFactory,
+            Supplier<Table> tableFactory) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive.");
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.serviceFactory = serviceFactory;
+        this.tableFactory = tableFactory;
+    }
+
+    public TableService open(String name, String fileName) throws IOException {
+        return open(name, fileName, false);
+    }
+
+    public TableService open(String name, String fileName, boolean strict) throws IOException {
+        Entry entry = newEntry(name);
+        entry.service.loadTableFromFile(fileName, strict);
+        return add(name, entry);
+    }
+
+    public TableService openDefault(String name) throws IOException {
+        Entry entry = newEntry(name);
+        entry.service.loadDefaultTable();
+        return add(name, entry);
+    }
+
+    public TableService use(String name) {
+        Entry entry = tables.remove(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No open table named " + name + ".");
+        }
+        tables.put(name, entry);
+        activeName = name;
+        return entry.service;
+    }
+
+    public TableService getActive() {
+        return activeName == null ? null : tables.get(activeName).service;
+    }
+
+    public String getActiveName() {
+        return activeName;
+    }
+
+    // Least recently used first.
+    public List<String> getOpenTables() {
+        return new ArrayList<>(tables.keySet());
+    }
+
+    public boolean isDirty(String name) {
+        return entry(name).fileTable.isDirty();
+    }
+
+    public long getEstimatedBytes(String name) {
+        return measure(entry(name));
+    }
+
+    public long getEstimatedBytes() {
+        long total = 0;
+        for (Entry entry : tables.values()) {
+            total += measure(entry);
+        }
+        return total;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    // Saves the table first if it has unsaved edits; a failed save leaves it open.
+    public void close(String name) throws IOException {
+        Entry entry = entry(name);
+        if (entry.fileTable.isDirty()) {
+            entry.service.saveTableToFile(entry.fileTable.getCurrentFileName());
+        }
+        remove(name, entry);
+        if (name.equals(activeName)) {
+            activeName = tables.isEmpty() ? null : getOpenTables().get(tables.size() - 1);
+        }
+    }
+
+    public void saveAll() throws IOException {
+        for (Entry entry : tables.values()) {
+            if (entry.fileTable.isDirty()) {
+                entry.service.saveTableToFile(entry.fileTable.getCurrentFileName());
+            }
+        }
+    }
+
+    public Set<String> findKey(String key) {
+        for (Map.Entry<String, Entry> table : tables.entrySet()) {
+            index(table.getKey(), table.getValue());
+        }
+        Set<String> names = keyIndex.get(key);
+        return names == null ? Collections.emptySet() : new TreeSet<>(names);
+    }
+
+    private Entry newEntry(String name) {
+        if (tables.containsKey(name)) {
+            throw new IllegalArgumentException("A table named " + name + " is already open.");
+        }
+        FileTable fileTable = new FileTable(tableFactory.get());
+        return new Entry(fileTable, serviceFactory.apply(fileTable));
+    }
+
+    private TableService add(String name, Entry entry) {
+        tables.put(name, entry);
+        activeName = name;
+        evictOverBudget();
+        return entry.service;
+    }
+
+    private Entry entry(String name) {
+        Entry entry = tables.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No open table named " + name + ".");
+        }
+        return entry;
+    }
+
+    private void evictOverBudget() {
+        long total = getEstimatedBytes();
+        Iterator<Map.Entry<String, Entry>> eldest = new ArrayList<>(tables.entrySet()).iterator();
+        while (total > memoryBudgetBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> candidate = eldest.next();
+            String name = candidate.getKey();
+            Entry entry = candidate.getValue();
+            if (name.equals(activeName)) {
+                continue;
+            }
+
+            boolean dirty = entry.fileTable.isDirty();
+            if (dirty) {
+                try {
+                    entry.service.saveTableToFile(entry.fileTable.getCurrentFileName());
+                } catch (IOException e) {
+                    LOGGER.error("Could not save table before eviction; keeping it open.", "name", name,
+                        "error", e.getMessage());
+                    continue;
+                }
+            }
+            total -= entry.bytes;
+            remove(name, entry);
+            LOGGER.info("Evicted table.", "name", name, "saved", dirty);
+        }
+    }
+
+    private void remove(String name, Entry entry) {
+        tables.remove(name);
+        unindex(name, entry);
+        Table table = entry.fileTable.getTable();
+        if (table.getRows() instanceof OffHeapRowList) {
+            // Hands the full-size slabs back to the pool now rather than leaving them for the collector.
+            table.clear();
+        }
+    }
+
+    private static long measure(Entry entry) {
+        Table table = entry.fileTable.getTable();
+        if (entry.measuredAt != table.getModificationCount()) {
+            entry.bytes = estimateBytes(table);
+            entry.measuredAt = table.getModificationCount();
+        }
+        return entry.bytes;
+    }
+
+    // Off-heap rows cost what they store plus an address each.
+    static long estimateBytes(Table table) {
+        if (table.getRows() instanceof OffHeapRowList) {
+            OffHeapRowList rows = (OffHeapRowList) table.getRows();
+            return rows.getStoredBytes() + 8L * rows.size();
+        }
+        long bytes = 0;
+        for (Row row : table.getRows()) {
+            bytes += ROW_OVERHEAD_BYTES;
+            for (Cell cell : row.getCells()) {
+                bytes += CELL_OVERHEAD_BYTES + 2L * (cell.getKey().length() + cell.getValue().length());
+            }
+        }
+        return bytes;
+    }
+
+    private void index(String name, Entry entry) {
+        Table table = entry.fileTable.getTable();
+        if (entry.indexedAt == table.getModificationCount()) {
+            return;
+        }
+
+        unindex(name, entry);
+        Set<String> keys = new HashSet<>();
+        for (Row row : table.getRows()) {
+            for (Cell cell : row.getCells()) {
+                keys.add(cell.getKey());
+            }
+        }
+        for (String key : keys) {
+            keyIndex.computeIfAbsent(key, ignored -> new HashSet<>(2)).add(name);
+        }
+        entry.keys = keys;
+        entry.indexedAt = table.getModificationCount();
+    }
+
+    private void unindex(String name, Entry entry) {
+        for (String key : entry.keys) {
+            Set<String> names = keyIndex.get(key);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                keyIndex.remove(key);
+            }
+        }
+        entry.keys = Collections.emptySet();
+        entry.indexedAt = -1;
+    }
+
+    private static final class Entry {
+        private final FileTable fileTable;
+        private final TableService service;
+        private long bytes;
+        private int measuredAt = -1;
+        private Set<String> keys = Collections.emptySet();
+        private int indexedAt = -1;
+
+        private Entry(FileTable fileTable, TableService service) {
+            this.fileTable = fileTable;
+            this.service = service;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncFileTableTest {
+    @TempDir
+    Path directory;
+
+    private AsyncFileTable asyncFileTable;
+
+    @BeforeEach
+    public void setUp() {
+        asyncFileTable = new AsyncFileTable(8);
+        TableLogger.setOutput(new PrintStream(new ByteArrayOutputStream(), true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        asyncFileTable.close();
+        TableLogger.setOutput(System.out);
+    }
+
+    private Path writeTable(String fileName, String key) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.write(file, ("(" + key + "\u001ev)\u001f(x\u001ey)").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testLoadsManyIndependentTables() throws IOException {
+        List<CompletableFuture<Table>> loads = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            loads.add(asyncFileTable.load(writeTable("table" + i + ".txt", "k" + i).toString()));
+        }
+
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).join();
+        for (int i = 0; i < 1000; i++) {
+            Table table = loads.get(i).join();
+            assertEquals(1, table.getRowCount());
+            assertEquals("k" + i, table.getRow(0).getCells().get(0).getKey());
+        }
+    }
+
+    @Test
+    public void testSaveThenLoad() {
+        List<Cell> cells = new ArrayList<>();
+        cells.add(new Cell("a", "b"));
+        Table table = new Table();
+        table.addRow(new Row(cells));
+        String fileName = directory.resolve("saved.txt").toString();
+
+        Table loaded = asyncFileTable.save(table, fileName).thenCompose(ignored -> asyncFileTable.load(fileName)).join();
+
+        assertEquals(table, loaded);
+    }
+
+    @Test
+    public void testMissingFileCompletesExceptionally() {
+        CompletableFuture<Table> load = asyncFileTable.load(directory.resolve("missing.txt").toString());
+
+        CompletionException e = assertThrows(CompletionException.class, load::join);
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(asyncFileTable.submit(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(2);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        assertTrue(peak.get() <= 8);
+    }
+
+    @Test
+    public void testCancelQueuedTask() throws Exception {
+        try (AsyncFileTable single = new AsyncFileTable(1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<Boolean> blocker = single.submit(() -> release.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> queued = single.submit(() -> {
+                ran.set(true);
+                return null;
+            });
+
+            assertTrue(queued.cancel(true));
+            release.countDown();
+
+            assertTrue(blocker.join());
+            assertThrows(CancellationException.class, queued::join);
+            assertEquals(1, single.load(writeTable("after.txt", "k").toString()).join().getRowCount());
+            assertFalse(ran.get());
+        }
+    }
+}
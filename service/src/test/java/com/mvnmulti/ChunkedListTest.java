@@ -0,0 +1,162 @@
+package com.mvnmulti.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChunkedListTest {
+    @Test
+    public void testRandomOperationsMatchArrayList() {
+        Random random = new Random(7);
+        List<Integer> expected = new ArrayList<>();
+        ChunkedList<Integer> actual = new ChunkedList<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                actual.add(index, i);
+            } else if (operation < 9) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -i), actual.set(index, -i));
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testRemovingEverythingLeavesAnEmptyList() {
+        ChunkedList<Integer> list = new ChunkedList<>();
+        for (int i = 0; i < 100_000; i++) {
+            list.add(i);
+        }
+        Random random = new Random(3);
+        while (!list.isEmpty()) {
+            list.remove(random.nextInt(list.size()));
+        }
+
+        assertEquals(0, list.size());
+        list.add(0, 42);
+        assertEquals(List.of(42), list);
+    }
+
+    @Test
+    public void testAppendingPacksLeaves() {
+        ChunkedList<Integer> list = new ChunkedList<>();
+        int count = 100 * ChunkedList.LEAF_CAPACITY;
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+
+        assertEquals(100, list.leafCount());
+    }
+
+    @Test
+    public void testIndexBounds() {
+        ChunkedList<String> list = new ChunkedList<>(List.of("a", "b"));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(2));
+    }
+
+    @Test
+    public void testListIteratorEditsInPlace() {
+        ChunkedList<Integer> list = new ChunkedList<>();
+        for (int i = 0; i < 5000; i++) {
+            list.add(i);
+        }
+
+        ListIterator<Integer> iterator = list.listIterator();
+        while (iterator.hasNext()) {
+            int value = iterator.next();
+            if (value % 2 == 0) {
+                iterator.remove();
+            } else {
+                iterator.set(value * 10);
+                if (value % 5 == 0) {
+                    iterator.add(-value);
+                }
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            if (i % 2 != 0) {
+                expected.add(i * 10);
+                if (i % 5 == 0) {
+                    expected.add(-i);
+                }
+            }
+        }
+        assertEquals(expected, list);
+
+        ListIterator<Integer> backwards = list.listIterator(list.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), backwards.previous());
+        }
+    }
+
+    @Test
+    public void testIteratorFailsFastAfterStructuralChange() {
+        ChunkedList<Integer> list = new ChunkedList<>(List.of(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.add(0, 0);
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    public void testSortAndParallelStream() {
+        Random random = new Random(11);
+        List<Integer> expected = new ArrayList<>();
+        ChunkedList<Integer> actual = new ChunkedList<>();
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt();
+            int index = random.nextInt(expected.size() + 1);
+            expected.add(index, value);
+            actual.add(index, value);
+        }
+
+        assertEquals(expected, actual.parallelStream().collect(Collectors.toList()));
+        assertEquals(expected.stream().mapToLong(Integer::longValue).sum(),
+            actual.parallelStream().mapToLong(Integer::longValue).sum());
+
+        expected.sort(Comparator.reverseOrder());
+        actual.sort(Comparator.reverseOrder());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testTableKeepsRowsInChunkedList() {
+        Table table = new Table();
+        table.setRows(new ArrayList<>(List.of(new Row(new ArrayList<>()))));
+
+        assertTrue(table.getRows() instanceof ChunkedList);
+        table.addRow(0, new Row(new ArrayList<>(List.of(new Cell("k", "v")))));
+        assertEquals("k", table.getRow(0).getCells().get(0).getKey());
+        assertEquals(2, table.getRowCount());
+    }
+}
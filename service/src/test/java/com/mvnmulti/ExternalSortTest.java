@@ -0,0 +1,180 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.FileTable;
+import com.mvnmulti.utilities.TableCodecs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExternalSortTest {
+    private static final int ROWS = 2000;
+
+    @TempDir
+    Path directory;
+
+    private Path source;
+
+    // Few distinct values so the sort has ties to keep in order, and some rows too short for the sorted column.
+    @BeforeEach
+    public void setUp() throws IOException {
+        Random random = new Random(7);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            int cells = 1 + random.nextInt(4);
+            for (int j = 0; j < cells; j++) {
+                content.append(j == 0 ? "" : "\u001f").append("(k").append(i).append('_').append(j).append('\u001e')
+                    .append(random.nextInt(3) == 0 ? "v" + random.nextInt(20) : Integer.toString(random.nextInt(50)))
+                    .append(')');
+            }
+            content.append('\n');
+            if (i % 100 == 0) {
+                content.append('\n');
+            }
+        }
+        source = directory.resolve("source.txt");
+        Files.write(source, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private TableServiceImpl loadInMemory() throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(source.toString(), true);
+        return new TableServiceImpl(fileTable);
+    }
+
+    private static List<Row> load(Path file) throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(file.toString(), true);
+        return fileTable.getTable().getRows();
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    public void testSpilledRowSortMatchesInMemorySort() throws IOException {
+        Path target = directory.resolve("sorted.txt");
+        // Runs of a few dozen rows merged two at a time, so the merge takes several passes.
+        ExternalSort sort = new ExternalSort(8 * 1024, 2);
+
+        for (SortStrategy strategy : List.of(SortStrategy.KEY_VALUE, SortStrategy.VALUE, SortStrategy.NUMERIC)) {
+            for (String order : List.of("asc", "desc")) {
+                assertEquals(ROWS, sort.sortRows(source, target, 1, order, strategy));
+
+                TableServiceImpl expected = loadInMemory();
+                expected.sortRowsByColumn(1, order, strategy);
+                assertEquals(expected.getTable().getRows(), load(target), strategy + " " + order);
+            }
+        }
+        assertEquals(List.of(target, source), files());
+    }
+
+    @Test
+    public void testRowSortWithinBudgetWritesNoRuns() throws IOException {
+        Path target = directory.resolve("sorted.txt");
+
+        assertEquals(ROWS, new ExternalSort(64L << 20).sortRows(source, target, 0, "asc", SortStrategy.KEY_VALUE));
+
+        TableServiceImpl expected = loadInMemory();
+        expected.sortRowsByColumn(0, "asc", SortStrategy.KEY_VALUE);
+        assertEquals(expected.getTable().getRows(), load(target));
+        assertEquals(List.of(target, source), files());
+    }
+
+    @Test
+    public void testCellSortMatchesInMemorySort() throws IOException {
+        Path target = directory.resolve("sorted.txt");
+
+        assertEquals(ROWS, new ExternalSort(1024).sortCells(source, target, "desc", SortStrategy.NUMERIC));
+
+        TableServiceImpl expected = loadInMemory();
+        expected.sortAllRows("desc", SortStrategy.NUMERIC);
+        assertEquals(expected.getTable().getRows(), load(target));
+    }
+
+    @Test
+    public void testSortedRowsCanBeWrittenInAnotherFormat() throws IOException {
+        Path target = directory.resolve("sorted.jsonl");
+        Path roundTrip = directory.resolve("back.txt");
+
+        new ExternalSort(8 * 1024, 4).sortRows(source, target, 2, "asc", SortStrategy.KEY);
+        new ExternalSort(8 * 1024, 4).sortCells(target, roundTrip, "asc", SortStrategy.KEY);
+
+        TableServiceImpl expected = loadInMemory();
+        expected.sortRowsByColumn(2, "asc", SortStrategy.KEY);
+        expected.sortAllRows("asc", SortStrategy.KEY);
+        assertEquals(expected.getTable().getRows(), load(roundTrip));
+    }
+
+    @Test
+    public void testSpilledRunsKeepLineBreaksAndDelimiters() throws IOException {
+        Random random = new Random(11);
+        Table table = new Table();
+        for (int i = 0; i < ROWS; i++) {
+            String value = random.nextInt(5) + (i % 3 == 0 ? "\nline\u001e(" + i : i % 3 == 1 ? "\u001f" + i : "\r\n" + i);
+            table.addRow(new Row(new ArrayList<>(List.of(new Cell("k" + i, value), new Cell("x\n" + i, "\"q,\"")))));
+        }
+        Path csv = directory.resolve("awkward.csv");
+        try (Writer writer = TableCodecs.newWriter(csv)) {
+            for (Row row : table.getRows()) {
+                TableCodecs.CSV.write(row, writer);
+            }
+        }
+        Path target = directory.resolve("sorted.jsonl");
+
+        new ExternalSort(8 * 1024, 2).sortRows(csv, target, 0, "desc", SortStrategy.VALUE);
+
+        TableServiceImpl expected = new TableServiceImpl(new FileTable(table));
+        expected.sortRowsByColumn(0, "desc", SortStrategy.VALUE);
+        List<Row> sorted = new ArrayList<>();
+        try (Reader reader = TableCodecs.newReader(target)) {
+            TableCodecs.JSON_LINES.read(reader, sorted::add);
+        }
+        assertEquals(expected.getTable().getRows(), sorted);
+    }
+
+    @Test
+    public void testSortsAFileInPlace() throws IOException {
+        TableServiceImpl expected = loadInMemory();
+        expected.sortRowsByColumn(1, "asc", SortStrategy.VALUE);
+        expected.sortAllRows("desc", SortStrategy.KEY);
+
+        new ExternalSort(8 * 1024, 2).sortRows(source, source, 1, "asc", SortStrategy.VALUE);
+        new ExternalSort(8 * 1024).sortCells(source, source, "desc", SortStrategy.KEY);
+
+        assertEquals(expected.getTable().getRows(), load(source));
+        assertEquals(List.of(source), files());
+    }
+
+    @Test
+    public void testRejectsInvalidArguments() {
+        Path target = directory.resolve("sorted.txt");
+
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(0));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(1024, 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExternalSort().sortRows(source, target, -1, "asc", SortStrategy.KEY_VALUE));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExternalSort().sortRows(source, target, 0, "up", SortStrategy.KEY_VALUE));
+    }
+}
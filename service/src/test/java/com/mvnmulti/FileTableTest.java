@@ -0,0 +1,277 @@
+package com.mvnmulti.utilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileTableTest {
+    private static final String CELL = "(k\u001ev)";
+
+    @TempDir
+    Path directory;
+
+    private FileTable fileTable;
+    private ByteArrayOutputStream logOutput;
+
+    @BeforeEach
+    public void setUp() {
+        fileTable = new FileTable();
+        logOutput = new ByteArrayOutputStream();
+        TableLogger.setOutput(new PrintStream(logOutput, true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TableLogger.setOutput(System.out);
+        TableLogger.setLevel(TableLogger.Level.INFO);
+    }
+
+    private Path writeLines(String... lines) throws IOException {
+        return writeFile("table.txt", lines);
+    }
+
+    private Path writeFile(String fileName, String... lines) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Nested
+    class ParseErrorTests {
+
+        @Test
+        public void testLenientLoadAggregatesErrors() throws IOException {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                lines.add(CELL + "\u001fbroken" + i + "\u001f(novalue)");
+            }
+            Path file = writeLines(lines.toArray(new String[0]));
+
+            fileTable.loadTableFromFile(file.toString());
+
+            assertEquals(1000, fileTable.getTable().getRowCount());
+            assertEquals("Invalid", fileTable.getTable().getRow(0).getCells().get(1).getKey());
+            ParseErrorReport errors = fileTable.getLastParseErrors();
+            assertEquals(2000, errors.getCount());
+            assertEquals(5, errors.getSamples().size());
+            assertEquals("line 1: Invalid cell format: broken0", errors.getSamples().get(0));
+            assertEquals("line 1: Invalid key-value pair: novalue", errors.getSamples().get(1));
+
+            String log = logOutput.toString(StandardCharsets.UTF_8.name());
+            assertEquals(2, log.split("\n").length);
+            assertTrue(log.contains("count=2000"));
+        }
+
+        @Test
+        public void testStrictLoadFailsWithLineNumber() throws IOException {
+            fileTable.loadTableFromFile(writeFile("clean.txt", CELL).toString());
+            Path brokenFile = writeFile("broken.txt", CELL, "", CELL + "\u001fbroken");
+
+            TableParseException exception = assertThrows(TableParseException.class, () -> {
+                fileTable.loadTableFromFile(brokenFile.toString(), true);
+            });
+
+            assertEquals(3, exception.getLineNumber());
+            assertEquals(1, fileTable.getTable().getRowCount());
+        }
+
+        @Test
+        public void testCleanLoadHasNoErrors() throws IOException {
+            fileTable.loadTableFromFile(writeLines(CELL + "\u001f" + CELL).toString(), true);
+
+            assertTrue(fileTable.getLastParseErrors().isEmpty());
+            assertEquals(2, fileTable.getTable().getColumnCount());
+        }
+    }
+
+    @Nested
+    class LoggerTests {
+
+        @Test
+        public void testLevelGating() {
+            TableLogger logger = TableLogger.getLogger(FileTableTest.class);
+            TableLogger.setLevel(TableLogger.Level.WARN);
+
+            logger.info("hidden");
+            logger.warn("shown", "count", 3);
+
+            String log = logOutput.toString();
+            assertEquals("WARN FileTableTest: shown count=3", log.trim());
+        }
+
+        @Test
+        public void testLevelNamesParseInAnyLocale() {
+            Locale locale = Locale.getDefault();
+            try {
+                Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+                assertEquals(TableLogger.Level.INFO, TableLogger.parseLevel("info"));
+                assertEquals(TableLogger.Level.DEBUG, TableLogger.parseLevel(" debug "));
+                assertEquals(TableLogger.Level.INFO, TableLogger.parseLevel("verbose"));
+                assertEquals(TableLogger.Level.INFO, TableLogger.parseLevel(null));
+            } finally {
+                Locale.setDefault(locale);
+            }
+        }
+
+        @Test
+        public void testRateLimit() {
+            TableLogger logger = TableLogger.getLogger(LoggerTests.class);
+            for (int i = 0; i < 500; i++) {
+                logger.info("message " + i);
+            }
+
+            assertEquals(100, logOutput.toString().trim().split("\n").length);
+        }
+    }
+
+    @Nested
+    class CompactFormatTests {
+
+        @Test
+        public void testRoundTrip() throws IOException {
+            fileTable.loadTableFromFile(writeLines(CELL + "\u001f(\u00e9\u001e\u20ac)", "(x\u001e)").toString());
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            CompactTableFormat.write(fileTable.getTable().getRows(), output);
+
+            assertEquals(fileTable.getTable().getRows(), CompactTableFormat.read(new ByteArrayInputStream(output.toByteArray())));
+        }
+
+        @Test
+        public void testRejectsOtherContent() {
+            byte[] text = CELL.getBytes(StandardCharsets.UTF_8);
+
+            assertThrows(IOException.class, () -> CompactTableFormat.read(new ByteArrayInputStream(text)));
+        }
+    }
+
+    @Nested
+    class ReloadTests {
+
+        private void append(Path file, String text) throws IOException {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        @Test
+        public void testAppendParsesOnlyTail() throws IOException {
+            Path file = writeLines(CELL, CELL + "\u001f" + CELL, "");
+            fileTable.loadTableFromFile(file.toString());
+            Object firstRow = fileTable.getTable().getRow(0);
+
+            append(file, "(a\u001eb)\n(c\u001ed)\n");
+
+            assertEquals(TableFileChange.APPENDED, fileTable.reloadIfChanged());
+            assertEquals(4, fileTable.getTable().getRowCount());
+            assertSame(firstRow, fileTable.getTable().getRow(0));
+            assertEquals("c", fileTable.getTable().getRow(3).getCells().get(0).getKey());
+            assertFalse(fileTable.isDirty());
+            assertEquals(TableFileChange.UNCHANGED, fileTable.reloadIfChanged());
+        }
+
+        @Test
+        public void testPartialLineWaitsForNewline() throws IOException {
+            Path file = writeLines(CELL, "");
+            fileTable.loadTableFromFile(file.toString());
+
+            append(file, "(a\u001e");
+            assertEquals(TableFileChange.UNCHANGED, fileTable.reloadIfChanged());
+            assertEquals(1, fileTable.getTable().getRowCount());
+
+            append(file, "b)\n");
+            assertEquals(TableFileChange.APPENDED, fileTable.reloadIfChanged());
+            assertEquals("b", fileTable.getTable().getRow(1).getCells().get(0).getValue());
+        }
+
+        @Test
+        public void testAppendKeepsUnsavedEdits() throws IOException {
+            Path file = writeLines(CELL, "");
+            fileTable.loadTableFromFile(file.toString());
+            fileTable.getTable().getRow(0).getCells().get(0).setValue("edited");
+            fileTable.getTable().markModified();
+
+            append(file, CELL + "\n");
+
+            assertEquals(TableFileChange.APPENDED, fileTable.reloadIfChanged());
+            assertEquals("edited", fileTable.getTable().getRow(0).getCells().get(0).getValue());
+            assertTrue(fileTable.isDirty());
+        }
+
+        @Test
+        public void testRewriteReloads() throws IOException {
+            Path file = writeLines(CELL, CELL, "");
+            fileTable.loadTableFromFile(file.toString());
+
+            writeLines("(x\u001ey)", CELL, "");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+            assertEquals(TableFileChange.RELOADED, fileTable.reloadIfChanged());
+            assertEquals("x", fileTable.getTable().getRow(0).getCells().get(0).getKey());
+
+            writeLines(CELL, "");
+            assertEquals(TableFileChange.RELOADED, fileTable.reloadIfChanged());
+            assertEquals(1, fileTable.getTable().getRowCount());
+        }
+
+        @Test
+        public void testGrowthAfterUnterminatedLineReloads() throws IOException {
+            Path file = writeLines(CELL);
+            fileTable.loadTableFromFile(file.toString());
+
+            append(file, "\u001f(a\u001eb)\n");
+
+            assertEquals(TableFileChange.RELOADED, fileTable.reloadIfChanged());
+            assertEquals(1, fileTable.getTable().getRowCount());
+            assertEquals(2, fileTable.getTable().getColumnCount());
+        }
+
+        @Test
+        public void testAppendAfterSave() throws IOException {
+            Path file = directory.resolve("saved.txt");
+            fileTable.loadTableFromFile(writeLines(CELL).toString());
+            fileTable.saveTableToFile(file.toString());
+
+            append(file, CELL + "\n");
+
+            assertEquals(TableFileChange.APPENDED, fileTable.reloadIfChanged());
+            assertEquals(2, fileTable.getTable().getRowCount());
+        }
+
+        @Test
+        public void testWatcherFlagsAppends() throws Exception {
+            Path file = writeLines(CELL, "");
+            try (TableFileWatcher watcher = new TableFileWatcher(file)) {
+                assertFalse(watcher.pollChanged());
+
+                append(file, CELL + "\n");
+
+                long deadline = System.currentTimeMillis() + 10000;
+                boolean changed = false;
+                while (!changed && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                    changed = watcher.pollChanged();
+                }
+                assertTrue(changed);
+            }
+        }
+    }
+}
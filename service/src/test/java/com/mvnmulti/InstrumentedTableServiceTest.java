@@ -0,0 +1,182 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.SearchResult;
+import com.mvnmulti.model.Table;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InstrumentedTableServiceTest {
+
+    @Mock
+    private TableService delegateMock;
+
+    private TableMetrics metrics;
+    private InstrumentedTableService tableService;
+    private Table table;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        table = new Table();
+        for (int i = 0; i < 5; i++) {
+            List<Cell> cells = new ArrayList<>();
+            cells.add(new Cell("k" + i, "v" + i));
+            table.addRow(new Row(cells));
+        }
+        when(delegateMock.getTable()).thenReturn(table);
+
+        metrics = new TableMetrics();
+        tableService = new InstrumentedTableService(delegateMock, metrics);
+    }
+
+    @Nested
+    class DecoratorTests {
+
+        @Test
+        public void testSearchIsDelegatedAndCounted() {
+            List<SearchResult> results = new ArrayList<>();
+            results.add(new SearchResult(1, "k", 0, 0, 0));
+            results.add(new SearchResult(1, "k", 0, 1, 0));
+            when(delegateMock.searchTable("k", 1, 3)).thenReturn(results);
+
+            assertEquals(results, tableService.searchTable("k", 1, 3));
+
+            OperationMetrics search = metrics.operation("searchTable:literal");
+            assertEquals(1, search.getCount());
+            assertEquals(2, search.getRows());
+            assertEquals(2, search.getResults());
+            assertEquals(0, search.getErrors());
+        }
+
+        @Test
+        public void testFailuresAreCountedAndRethrown() {
+            doThrow(new IllegalArgumentException("Invalid row index.")).when(delegateMock).addRow(anyInt(), anyInt());
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.addRow(2, 10);
+            });
+
+            assertEquals(1, metrics.operation("addRow").getCount());
+            assertEquals(1, metrics.operation("addRow").getErrors());
+        }
+
+        @Test
+        public void testLoadRecordsRowsAndBytes(@TempDir Path directory) throws IOException {
+            Path file = directory.resolve("table.txt");
+            Files.write(file, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+            tableService.loadTableFromFile(file.toString());
+
+            verify(delegateMock).loadTableFromFile(file.toString(), false);
+            assertEquals(5, metrics.operation("loadTableFromFile").getRows());
+            assertEquals(10, metrics.operation("loadTableFromFile").getBytes());
+        }
+
+        @Test
+        public void testSortsAreRecordedByMethod() {
+            tableService.sortTable(0, "asc");
+            tableService.sortTable(1, "desc");
+            tableService.sortAllRows("asc", SortStrategy.KEY);
+
+            assertEquals(2, metrics.operation("sortTable").getCount());
+            assertEquals(2, metrics.operation("sortTable").getRows());
+            assertEquals(1, metrics.operation("sortAllRows").getCount());
+            assertEquals(5, metrics.operation("sortAllRows").getRows());
+        }
+
+        @Test
+        public void testSearchesAreRecordedByMode() {
+            tableService.searchTable("k", SearchMode.REGEX);
+            tableService.searchTable("k");
+
+            assertEquals(1, metrics.operation("searchTable:regex").getCount());
+            assertEquals(1, metrics.operation("searchTable:literal").getCount());
+        }
+
+        @Test
+        public void testPrometheusFormat() {
+            when(delegateMock.editCell(anyInt(), anyInt(), anyString(), anyString())).thenReturn(null);
+            tableService.editCell(0, 0, "value", "x");
+
+            String text = metrics.formatPrometheus();
+
+            assertTrue(text.contains("# TYPE table_operation_duration_seconds summary"));
+            assertTrue(text.contains("table_operation_duration_seconds_count{operation=\"editCell\"} 1"));
+            assertTrue(text.contains("table_operation_rows_total{operation=\"editCell\"} 1"));
+            assertTrue(metrics.formatSummary().contains("editCell"));
+        }
+
+        @Test
+        public void testExporterWritesFile(@TempDir Path directory) throws IOException {
+            tableService.getTable();
+            Path target = directory.resolve("table.prom");
+
+            try (MetricsExporter exporter = new MetricsExporter(metrics, target)) {
+                exporter.export();
+            }
+
+            String text = new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+            assertTrue(text.contains("table_operation_duration_seconds_count{operation=\"getTable\"} 1"));
+        }
+    }
+
+    @Nested
+    class LatencyHistogramTests {
+
+        @ParameterizedTest
+        @ValueSource(longs = {0, 1, 127, 128, 129, 1000, 123456789L, Long.MAX_VALUE})
+        public void testBucketBoundsContainValue(long value) {
+            int index = LatencyHistogram.bucketIndex(value);
+
+            assertTrue(LatencyHistogram.bucketLowerBound(index) <= value);
+            if (value < Long.MAX_VALUE) {
+                assertTrue(LatencyHistogram.bucketLowerBound(index + 1) > value);
+            }
+        }
+
+        @Test
+        public void testPercentilesWithinOnePercent() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long value = 1; value <= 100_000; value++) {
+                histogram.record(value * 1000);
+            }
+
+            assertEquals(100_000, histogram.getCount());
+            assertEquals(100_000_000L, histogram.getMax());
+            assertEquals(50_000_000.0, histogram.getValueAtPercentile(50), 500_000.0);
+            assertEquals(99_000_000.0, histogram.getValueAtPercentile(99), 990_000.0);
+        }
+
+        @Test
+        public void testEmptyHistogram() {
+            assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.mvnmulti.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapRowListTest {
+    private static Row row(Random random, int id) {
+        List<Cell> cells = new ArrayList<>();
+        int count = random.nextInt(5);
+        for (int j = 0; j < count; j++) {
+            String value = random.nextInt(4) == 0 ? "été 中" + id : "v".repeat(random.nextInt(30)) + id;
+            cells.add(new Cell("k" + id + "_" + j, value));
+        }
+        return new Row(cells);
+    }
+
+    @Test
+    public void testRandomOperationsMatchArrayList() {
+        Random random = new Random(7);
+        List<Row> expected = new ArrayList<>();
+        OffHeapRowList actual = new OffHeapRowList();
+
+        for (int i = 0; i < 50_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                Row row = row(random, i);
+                expected.add(index, row);
+                actual.add(index, row);
+            } else if (operation < 7) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                Row row = row(random, i);
+                assertEquals(expected.set(index, row), actual.set(index, row));
+            }
+        }
+
+        assertEquals(expected, actual);
+        long bytes = actual.getStoredBytes();
+        actual.clear();
+        assertTrue(bytes > 0);
+        assertEquals(0, actual.getStoredBytes());
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void testReturnedRowsAreCopies() {
+        OffHeapRowList rows = new OffHeapRowList();
+        rows.add(new Row(new ArrayList<>(List.of(new Cell("a", "1")))));
+
+        Row row = rows.get(0);
+        row.getCells().get(0).setValue("changed");
+        assertEquals("1", rows.get(0).getCells().get(0).getValue());
+
+        rows.set(0, row);
+        assertEquals("changed", rows.get(0).getCells().get(0).getValue());
+    }
+
+    @Test
+    public void testShrunkRowIsRewrittenInPlace() {
+        OffHeapRowList rows = new OffHeapRowList();
+        rows.add(new Row(new ArrayList<>(List.of(new Cell("a", "long value"), new Cell("b", "2")))));
+        long bytes = rows.getStoredBytes();
+
+        rows.set(0, new Row(new ArrayList<>(List.of(new Cell("a", "x")))));
+
+        assertEquals(bytes, rows.getStoredBytes());
+        assertEquals(List.of(new Cell("a", "x")), rows.get(0).getCells());
+    }
+
+    @Test
+    public void testRewritingEveryRowKeepsStorageBounded() {
+        OffHeapRowList rows = new OffHeapRowList();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Row(new ArrayList<>(List.of(new Cell("k" + i, "v")))));
+        }
+        for (int round = 1; round <= 20; round++) {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.set(i, new Row(new ArrayList<>(List.of(new Cell("k" + i, "v".repeat(round * 4))))));
+            }
+        }
+
+        assertTrue(rows.getStoredBytes() < 1000 * 200L);
+        assertEquals(new Cell("k999", "v".repeat(80)), rows.get(999).getCells().get(0));
+    }
+
+    @Test
+    public void testReordersRowsAndCells() {
+        OffHeapRowList rows = new OffHeapRowList();
+        rows.add(new Row(new ArrayList<>(List.of(new Cell("a", "1"), new Cell("中", "é"), new Cell("c", "")))));
+        rows.add(new Row(new ArrayList<>()));
+
+        rows.reorderCells(0, new int[] {9, 2, 0, 1}, 1);
+        rows.reorderRows(new int[] {1, 0});
+
+        assertTrue(rows.get(0).getCells().isEmpty());
+        assertEquals(List.of(new Cell("c", ""), new Cell("a", "1"), new Cell("中", "é")), rows.get(1).getCells());
+        assertThrows(IllegalArgumentException.class, () -> rows.reorderRows(new int[] {0}));
+    }
+
+    @Test
+    public void testContainsKeyAndCursorReadStoredText() {
+        OffHeapRowList rows = new OffHeapRowList();
+        rows.add(new Row(new ArrayList<>(List.of(new Cell("plain", "1")))));
+        rows.add(new Row(new ArrayList<>(List.of(new Cell("x", "y"), new Cell("中文", "café")))));
+
+        assertTrue(rows.containsKey("plain"));
+        assertTrue(rows.containsKey("中文"));
+        assertFalse(rows.containsKey("y"));
+        assertFalse(rows.containsKey("plai"));
+
+        OffHeapRowList.Cursor cursor = rows.cursor().seek(1);
+        assertEquals(2, cursor.cellCount());
+        assertEquals("中文", cursor.key(1).toString());
+        assertEquals('é', cursor.value(1).charAt(3));
+        assertEquals("af", cursor.value(1).subSequence(1, 3).toString());
+    }
+
+    @Test
+    public void testOffHeapTableKeepsItsStorage() {
+        Table table = Table.offHeap();
+        table.addRow(new Row(new ArrayList<>(List.of(new Cell("a", "1")))));
+
+        table.setRows(new ArrayList<>(List.of(new Row(new ArrayList<>(List.of(new Cell("b", "2")))))));
+
+        assertTrue(table.getRows() instanceof OffHeapRowList);
+        assertTrue(table.containsKey("b"));
+        assertFalse(table.containsKey("a"));
+    }
+}
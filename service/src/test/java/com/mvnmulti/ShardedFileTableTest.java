@@ -0,0 +1,331 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.OffHeapRowList;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.service.TableServiceImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardedFileTableTest {
+    private static final int ROWS = 200;
+    private static final int SHARDS = 4;
+    private static final String RESULT = "result: ";
+
+    @TempDir
+    Path directory;
+
+    private Path manifestFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        TableLogger.setLevel(TableLogger.Level.WARN);
+        Table table = new Table();
+        for (int i = 0; i < ROWS; i++) {
+            List<Cell> cells = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                cells.add(new Cell("k" + i + "_" + j, i % 7 == 0 ? "seven" : "v" + i));
+            }
+            table.addRow(new Row(cells));
+        }
+        manifestFile = directory.resolve("big.manifest");
+        new FileTable(table).saveTableSharded(manifestFile.toString(), SHARDS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TableLogger.setLevel(TableLogger.Level.INFO);
+    }
+
+    private FileTable load() throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(manifestFile.toString());
+        return fileTable;
+    }
+
+    private Path shardFile(int shard) {
+        return directory.resolve("big-shard" + shard + ".txt");
+    }
+
+    private void ageShards() throws IOException {
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            Files.setLastModifiedTime(shardFile(shard), old);
+        }
+    }
+
+    private boolean rewritten(int shard) throws IOException {
+        return Files.getLastModifiedTime(shardFile(shard)).toMillis() > System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+    }
+
+    @Test
+    public void testShardsAreRowRangesOfPlainTableFiles() throws IOException {
+        FileTable fileTable = load();
+
+        assertEquals(ROWS, fileTable.getTable().getRowCount());
+        assertEquals(SHARDS, fileTable.getShardManifest().getShardCount());
+        FileTable firstShard = new FileTable();
+        firstShard.loadTableFromFile(shardFile(0).toString());
+        assertEquals(ROWS / SHARDS, firstShard.getTable().getRowCount());
+        assertEquals(fileTable.getTable().getRow(ROWS / SHARDS), loadPlain(shardFile(1)).getRow(0));
+    }
+
+    private static Table loadPlain(Path file) throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(file.toString());
+        return fileTable.getTable();
+    }
+
+    @Test
+    public void testSaveRewritesOnlyChangedShards() throws IOException {
+        ageShards();
+        FileTable fileTable = load();
+        Table table = fileTable.getTable();
+        table.getRow(ROWS / 2 + 1).getCells().get(1).setValue("edited");
+        table.addRow(0, new Row(new ArrayList<>(List.of(new Cell("top", "row")))));
+
+        fileTable.saveTableToFile(manifestFile.toString());
+
+        assertTrue(rewritten(0));
+        assertTrue(!rewritten(1) && !rewritten(3));
+        assertTrue(rewritten(2));
+        assertEquals(ROWS / SHARDS + 1, ShardManifest.read(manifestFile).getRowCount(0));
+        assertEquals(table.getRows(), load().getTable().getRows());
+    }
+
+    @Test
+    public void testUnchangedSaveWritesNoShard() throws IOException {
+        ageShards();
+        FileTable fileTable = load();
+
+        fileTable.saveTableToFile(manifestFile.toString());
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertTrue(!rewritten(shard));
+        }
+    }
+
+    @Test
+    public void testSaveOverAShardChangedOnDiskIsRejected() throws IOException {
+        FileTable first = load();
+        FileTable second = load();
+        first.getTable().getRow(ROWS / SHARDS).getCells().get(0).setValue("first");
+        first.saveTableToFile(manifestFile.toString());
+
+        second.getTable().getRow(0).getCells().get(0).setValue("second");
+        IOException e = assertThrows(IOException.class, () -> second.saveTableToFile(manifestFile.toString()));
+
+        assertTrue(e.getMessage().contains("Shard 1 "), e.getMessage());
+        assertEquals(first.getTable().getRows(), load().getTable().getRows());
+    }
+
+    @Test
+    public void testRemovingAShardsFirstRowKeepsTheOtherShards() throws IOException {
+        ageShards();
+        FileTable fileTable = load();
+        fileTable.getTable().removeRow(ROWS / SHARDS);
+        fileTable.getTable().removeRow(0);
+
+        fileTable.saveTableToFile(manifestFile.toString());
+
+        assertEquals(fileTable.getTable().getRows(), load().getTable().getRows());
+        assertEquals(ROWS / SHARDS - 1, ShardManifest.read(manifestFile).getRowCount(1));
+        assertTrue(rewritten(0) && rewritten(1));
+        assertTrue(!rewritten(2) && !rewritten(3));
+    }
+
+    @Test
+    public void testOffHeapSaveRewritesOnlyChangedShards() throws IOException {
+        ageShards();
+        FileTable fileTable = new FileTable(Table.offHeap());
+        fileTable.loadTableFromFile(manifestFile.toString());
+        Table table = fileTable.getTable();
+        table.addRow(0, new Row(new ArrayList<>(List.of(new Cell("top", "row")))));
+        Row edited = table.getRow(ROWS / 2 + 1);
+        edited.getCells().get(1).setValue("edited");
+        table.setRow(ROWS / 2 + 1, edited);
+
+        fileTable.saveTableToFile(manifestFile.toString());
+
+        assertTrue(table.getRows() instanceof OffHeapRowList);
+        assertTrue(rewritten(0) && rewritten(2));
+        assertTrue(!rewritten(1) && !rewritten(3));
+        assertEquals(table.getRows(), load().getTable().getRows());
+
+        ageShards();
+        fileTable.saveTableToFile(manifestFile.toString());
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertTrue(!rewritten(shard));
+        }
+    }
+
+    @Test
+    public void testSingleShardReservesTheOtherShardsKeys() throws IOException {
+        FileTable shard = new FileTable();
+        shard.loadShard(manifestFile.toString(), 1, false);
+        TableServiceImpl service = new TableServiceImpl(shard);
+
+        assertEquals(ROWS / SHARDS, shard.getTable().getRowCount());
+        assertThrows(IllegalArgumentException.class, () -> service.editCell(0, 0, "key", "k0_0"));
+        service.editCell(0, 0, "key", "fresh");
+        service.createTable(1, 1);
+        assertTrue(shard.getTable().containsKey("k0_0"));
+
+        ageShards();
+        service.saveTableToFile(manifestFile.toString());
+        assertTrue(rewritten(1) && !rewritten(0));
+        assertEquals(ROWS - ROWS / SHARDS + 1, load().getTable().getRowCount());
+    }
+
+    @Test
+    public void testImportLeavesTheShardLayoutBehind() throws IOException {
+        Table imported = new Table();
+        imported.addRow(new Row(List.of(new Cell("k0_0", "imported"))));
+        Path csv = directory.resolve("imported.csv");
+        new FileTable(imported).exportTable(csv.toString(), TableCodecs.CSV);
+
+        FileTable shard = new FileTable();
+        shard.loadShard(manifestFile.toString(), 1, false);
+        shard.importTable(csv.toString(), TableCodecs.CSV);
+
+        assertTrue(!shard.getTable().getReservedKeys().test("k0_0"));
+        assertEquals(null, shard.getShardManifest());
+        assertEquals(null, shard.getCurrentFileName());
+        new TableServiceImpl(shard).editCell(0, 0, "value", "edited");
+
+        ageShards();
+        Path plain = directory.resolve("plain.txt");
+        shard.saveTableToFile(plain.toString());
+        assertTrue(!rewritten(0) && !rewritten(1));
+        assertEquals(ROWS, load().getTable().getRowCount());
+        FileTable reloaded = new FileTable();
+        reloaded.loadTableFromFile(plain.toString());
+        assertEquals(1, reloaded.getTable().getRowCount());
+        assertEquals("edited", reloaded.getTable().getRows().get(0).getCells().get(0).getValue());
+    }
+
+    @Test
+    public void testOtherShardsKeysAreLookedUpInTheirKeyFiles() throws IOException {
+        Path keyFile = directory.resolve("big-shard2.txt.keys");
+        assertTrue(Files.exists(keyFile));
+        Files.delete(keyFile);
+
+        FileTable shard = new FileTable();
+        shard.loadShard(manifestFile.toString(), 1, false);
+
+        assertTrue(Files.exists(keyFile));
+        for (int i = 0; i < ROWS; i++) {
+            boolean otherShard = i / (ROWS / SHARDS) != 1;
+            for (int j = 0; j < 3; j++) {
+                assertEquals(otherShard, shard.getTable().getReservedKeys().test("k" + i + "_" + j), "k" + i + "_" + j);
+            }
+        }
+        assertTrue(!shard.getTable().getReservedKeys().test("k") && !shard.getTable().getReservedKeys().test("zz"));
+    }
+
+    @Test
+    public void testProcessesCountTheirShardsInParallel() throws Exception {
+        List<Process> workers = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            workers.add(startWorker("count", Integer.toString(shard), "seven"));
+        }
+
+        long total = 0;
+        for (Process worker : workers) {
+            total += Long.parseLong(result(worker));
+        }
+        long expected = load().getTable().getRows().stream()
+            .flatMap(row -> row.getCells().stream()).filter(cell -> cell.getValue().equals("seven")).count();
+        assertEquals(expected, total);
+    }
+
+    @Test
+    public void testProcessesSaveTheirShardsWithUniqueKeys() throws Exception {
+        List<Process> workers = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            workers.add(startWorker("rekey", Integer.toString(shard), "shard" + shard));
+        }
+        for (Process worker : workers) {
+            assertEquals("saved", result(worker));
+        }
+
+        Table table = load().getTable();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals("shard" + shard, table.getRow(shard * (ROWS / SHARDS)).getCells().get(0).getKey());
+        }
+
+        Process first = startWorker("rekey", "0", "taken");
+        Process second = startWorker("rekey", "3", "taken");
+        List<String> outcomes = List.of(result(first), result(second));
+        assertTrue(outcomes.contains("saved"));
+        assertNotEquals(outcomes.get(0), outcomes.get(1));
+        long owners = load().getTable().getRows().stream()
+            .flatMap(row -> row.getCells().stream()).filter(cell -> cell.getKey().equals("taken")).count();
+        assertEquals(1, owners);
+    }
+
+    private Process startWorker(String action, String shard, String argument) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        return new ProcessBuilder(java, "-cp", classPath, Worker.class.getName(), action, manifestFile.toString(), shard,
+            argument).redirectErrorStream(true).start();
+    }
+
+    private static String result(Process worker) throws Exception {
+        String output = new String(worker.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(worker.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, worker.exitValue(), output);
+        for (String line : output.split("\\R")) {
+            if (line.startsWith(RESULT)) {
+                return line.substring(RESULT.length());
+            }
+        }
+        throw new AssertionError("Worker printed no result: " + output);
+    }
+
+    // Runs in its own JVM on one shard: counts cells with a given value, or gives the first cell of the shard a new
+    // key and saves, printing whether the save went through.
+    public static class Worker {
+        public static void main(String[] args) throws IOException {
+            TableLogger.setLevel(TableLogger.Level.ERROR);
+            String manifest = args[1];
+            FileTable fileTable = new FileTable();
+            fileTable.loadShard(manifest, Integer.parseInt(args[2]), false);
+            TableServiceImpl service = new TableServiceImpl(fileTable);
+
+            if (args[0].equals("count")) {
+                long count = fileTable.getTable().getRows().stream()
+                    .flatMap(row -> row.getCells().stream()).filter(cell -> cell.getValue().equals(args[3])).count();
+                System.out.println(RESULT + count);
+                return;
+            }
+            try {
+                service.editCell(0, 0, "key", args[3]);
+                service.saveTableToFile(new File(manifest).getPath());
+                System.out.println(RESULT + "saved");
+            } catch (IllegalArgumentException | IOException e) {
+                System.out.println(RESULT + "rejected: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableCodecTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        TableLogger.setOutput(new PrintStream(new ByteArrayOutputStream(), true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TableLogger.setOutput(System.out);
+    }
+
+    private static Row row(String... keysAndValues) {
+        List<Cell> cells = new ArrayList<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            cells.add(new Cell(keysAndValues[i], keysAndValues[i + 1]));
+        }
+        return new Row(cells);
+    }
+
+    private static String write(TableCodec codec, Row... rows) throws IOException {
+        StringWriter writer = new StringWriter();
+        for (Row row : rows) {
+            codec.write(row, writer);
+        }
+        return writer.toString();
+    }
+
+    private static List<Row> read(TableCodec codec, String text) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        codec.read(new StringReader(text), rows::add);
+        return rows;
+    }
+
+    // Awkward content every codec has to carry through unchanged.
+    private static final Row[] TRICKY = {
+        row("a", "b", "c", "d"),
+        row("com,ma", "quo\"te", "line\nbreak", "cr\rlf", "", "é€😀"),
+        row("back\\slash", "tab\t", "ctl\u0001", "  spaced  "),
+    };
+
+    @Nested
+    class CsvTests {
+
+        @Test
+        public void testWritesPairsAndQuotesOnlyWhenNeeded() throws IOException {
+            assertEquals("a,b,c,d\n\"com,ma\",\"quo\"\"te\"\n", write(TableCodecs.CSV, row("a", "b", "c", "d"), row("com,ma", "quo\"te")));
+        }
+
+        @Test
+        public void testRoundTrip() throws IOException {
+            assertEquals(Arrays.asList(TRICKY), read(TableCodecs.CSV, write(TableCodecs.CSV, TRICKY)));
+        }
+
+        @Test
+        public void testReadsCrlfBlankLinesAndMissingFinalNewline() throws IOException {
+            List<Row> rows = read(TableCodecs.CSV, "a,b\r\n\r\n\"x\",\"\"\r\n,");
+
+            assertEquals(Arrays.asList(row("a", "b"), row("x", ""), row("", "")), rows);
+        }
+
+        @Test
+        public void testErrorsReportRecordLine() {
+            TableParseException odd = assertThrows(TableParseException.class,
+                () -> read(TableCodecs.CSV, "a,b\n\"multi\nline\",v\nc,d,e\n"));
+            assertEquals(4, odd.getLineNumber());
+
+            assertThrows(TableParseException.class, () -> read(TableCodecs.CSV, "\"open,b\n"));
+            assertThrows(TableParseException.class, () -> read(TableCodecs.CSV, "\"a\"x,b\n"));
+        }
+    }
+
+    @Nested
+    class JsonLinesTests {
+
+        @Test
+        public void testWritesOneArrayPerLine() throws IOException {
+            assertEquals("[{\"key\":\"a\",\"value\":\"b\"},{\"key\":\"q\\\"\",\"value\":\"\\n\\u0001\"}]\n[]\n",
+                write(TableCodecs.JSON_LINES, row("a", "b", "q\"", "\n\u0001"), row()));
+        }
+
+        @Test
+        public void testRoundTrip() throws IOException {
+            assertEquals(Arrays.asList(TRICKY), read(TableCodecs.JSON_LINES, write(TableCodecs.JSON_LINES, TRICKY)));
+        }
+
+        @Test
+        public void testReadsWhitespaceMemberOrderAndEscapes() throws IOException {
+            List<Row> rows = read(TableCodecs.JSON_LINES,
+                " [ { \"value\" : \"\\u00e9\\/\" , \"key\" : \"k\" } ] \r\n\n[]");
+
+            assertEquals(Arrays.asList(row("k", "é/"), row()), rows);
+        }
+
+        @Test
+        public void testErrors() {
+            TableParseException e = assertThrows(TableParseException.class,
+                () -> read(TableCodecs.JSON_LINES, "[]\n[{\"key\":\"a\",\"other\":\"b\"}]\n"));
+            assertEquals(2, e.getLineNumber());
+
+            assertThrows(TableParseException.class, () -> read(TableCodecs.JSON_LINES, "[{\"key\":\"a\"}]"));
+            assertThrows(TableParseException.class, () -> read(TableCodecs.JSON_LINES, "[{\"key\":\"a\",\"value\":\"b\"}] x"));
+            assertThrows(TableParseException.class, () -> read(TableCodecs.JSON_LINES, "[{\"key\":\"a\n\",\"value\":\"b\"}]"));
+        }
+    }
+
+    @Nested
+    class FileTests {
+
+        @Test
+        public void testExportImportThroughFileTable() throws IOException {
+            FileTable source = new FileTable();
+            for (Row row : TRICKY) {
+                source.getTable().addRow(row);
+            }
+            String csv = directory.resolve("nested/table.csv").toString();
+            String jsonl = directory.resolve("table.jsonl").toString();
+
+            source.exportTable(csv, TableCodecs.forFileName(csv));
+            source.exportTable(jsonl, TableCodecs.forFileName(jsonl));
+            FileTable fromCsv = new FileTable();
+            fromCsv.importTable(csv, TableCodecs.CSV);
+            FileTable fromJson = new FileTable();
+            fromJson.importTable(jsonl, TableCodecs.JSON_LINES);
+
+            assertEquals(source.getTable(), fromCsv.getTable());
+            assertEquals(source.getTable(), fromJson.getTable());
+            assertTrue(fromCsv.isDirty());
+        }
+
+        @Test
+        public void testConvertStreamsBetweenFormats() throws IOException {
+            Path nativeFile = directory.resolve("table.txt");
+            Files.write(nativeFile, "(a\u001eb)\u001f(c\u001ed)\n(e\u001e,\")\n".getBytes(StandardCharsets.UTF_8));
+            Path csv = directory.resolve("table.csv");
+            Path back = directory.resolve("back.txt");
+
+            assertEquals(2, TableCodecs.convert(nativeFile, TableCodecs.NATIVE, csv, TableCodecs.CSV));
+            assertEquals(2, TableCodecs.convert(csv, TableCodecs.CSV, back, TableCodecs.NATIVE));
+
+            assertEquals("a,b,c,d\ne,\",\"\"\"\n", new String(Files.readAllBytes(csv), StandardCharsets.UTF_8));
+            assertEquals(Files.readAllLines(nativeFile), Files.readAllLines(back));
+        }
+
+        @Test
+        public void testNativeCodecRejectsMalformedCells() {
+            assertThrows(TableParseException.class, () -> read(TableCodecs.NATIVE, "(a\u001eb)\u001fbroken\n"));
+        }
+
+        @Test
+        public void testCodecForFileName() {
+            assertSame(TableCodecs.CSV, TableCodecs.forFileName("x.CSV"));
+            assertSame(TableCodecs.JSON_LINES, TableCodecs.forFileName("x.ndjson"));
+            assertSame(TableCodecs.NATIVE, TableCodecs.forFileName("x.txt"));
+        }
+    }
+}
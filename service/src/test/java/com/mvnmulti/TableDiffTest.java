@@ -0,0 +1,264 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.Row;
+import com.mvnmulti.model.Table;
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableDiffTest {
+    @TempDir
+    Path directory;
+
+    private static List<List<String>> randomRows(Random random, int rows) {
+        List<List<String>> table = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            table.add(randomRow(random, i));
+        }
+        return table;
+    }
+
+    private static List<String> randomRow(Random random, int id) {
+        List<String> row = new ArrayList<>();
+        for (int j = 0; j < 3; j++) {
+            row.add("k" + id + "_" + j + "\u001e" + random.nextInt(1000));
+        }
+        return row;
+    }
+
+    private Path write(String name, List<List<String>> rows) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (List<String> row : rows) {
+            for (int j = 0; j < row.size(); j++) {
+                content.append(j == 0 ? "" : "\u001f").append('(').append(row.get(j)).append(')');
+            }
+            content.append('\n');
+        }
+        Path file = directory.resolve(name);
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Table load(Path file) throws IOException {
+        FileTable fileTable = new FileTable();
+        fileTable.loadTableFromFile(file.toString(), true);
+        return fileTable.getTable();
+    }
+
+    private static List<List<String>> mutate(Random random, List<List<String>> rows, int edits) {
+        List<List<String>> changed = new ArrayList<>();
+        for (List<String> row : rows) {
+            changed.add(new ArrayList<>(row));
+        }
+        for (int i = 0; i < edits; i++) {
+            int index = random.nextInt(changed.size());
+            switch (random.nextInt(4)) {
+                case 0:
+                    changed.add(index, randomRow(random, 100_000 + i));
+                    break;
+                case 1:
+                    changed.remove(index);
+                    break;
+                case 2:
+                    changed.get(index).set(random.nextInt(3), "edited" + i + "\u001evalue");
+                    break;
+                default:
+                    changed.get(index).add("extra" + i + "\u001evalue");
+            }
+        }
+        return changed;
+    }
+
+    private List<String> recordChanges(TableDiff diff, Path oldFile, Path newFile) throws IOException {
+        List<String> changes = new ArrayList<>();
+        diff.diff(oldFile, newFile, new TableDiff.ChangeSink() {
+            @Override
+            public void rowInserted(int rowIndex, Row row) {
+                changes.add("+" + rowIndex + " " + row);
+            }
+
+            @Override
+            public void rowDeleted(int rowIndex, Row row) {
+                changes.add("-" + rowIndex + " " + row);
+            }
+
+            @Override
+            public void cellChanged(EditCellResult change) {
+                changes.add("~" + change.getRowIndex() + ":" + change.getColIndex() + " " + change.getOldKey() + ","
+                    + change.getOldValue() + " -> " + change.getNewKey() + "," + change.getNewValue());
+            }
+        });
+        return changes;
+    }
+
+    @Test
+    public void testIdenticalTablesHaveNoChanges() throws IOException {
+        List<List<String>> rows = randomRows(new Random(1), 500);
+        Path patch = directory.resolve("patch");
+
+        assertEquals(0, new TableDiff().diff(write("old", rows), write("new", rows), patch));
+        assertEquals(0, Files.size(patch));
+    }
+
+    @Test
+    public void testReportsCellEditsInsertsAndDeletes() throws IOException {
+        List<List<String>> oldRows = new ArrayList<>();
+        oldRows.add(List.of("a\u001e1", "b\u001e2"));
+        oldRows.add(List.of("c\u001e3", "d\u001e4"));
+        oldRows.add(List.of("e\u001e5", "f\u001e6"));
+        oldRows.add(List.of("g\u001e7", "h\u001e8"));
+        oldRows.add(List.of("i\u001e9", "j\u001e0"));
+        List<List<String>> newRows = new ArrayList<>();
+        newRows.add(List.of("a\u001e1", "b\u001e2"));
+        newRows.add(List.of("x\u001e0", "y\u001e0"));
+        newRows.add(List.of("c\u001e3", "d\u001e4"));
+        newRows.add(List.of("e\u001e5", "f\u001e9"));
+        newRows.add(List.of("i\u001e9", "j\u001e0"));
+
+        List<String> changes = recordChanges(new TableDiff(), write("old", oldRows), write("new", newRows));
+
+        assertEquals(List.of("+1 x,0   y,0", "~3:1 f,6 -> f,9", "-4 g,7   h,8"), changes);
+    }
+
+    @Test
+    public void testChangedCellCountReplacesTheRow() throws IOException {
+        List<List<String>> oldRows = List.of(List.of("a\u001e1"));
+        List<List<String>> newRows = List.of(List.of("a\u001e1", "b\u001e2"));
+
+        List<String> changes = recordChanges(new TableDiff(), write("old", oldRows), write("new", newRows));
+
+        assertEquals(List.of("-0 a,1", "+0 a,1   b,2"), changes);
+    }
+
+    @Test
+    public void testPatchTurnsOldTableIntoNewOne() throws IOException {
+        Random random = new Random(5);
+        List<List<String>> oldRows = randomRows(random, 5000);
+        List<List<String>> newRows = mutate(random, oldRows, 400);
+        Path oldFile = write("old", oldRows);
+        Path newFile = write("new", newRows);
+        Path patch = directory.resolve("patch");
+
+        assertTrue(new TableDiff().diff(oldFile, newFile, patch) > 0);
+
+        Path patched = directory.resolve("patched");
+        TablePatch.apply(oldFile, patch, patched);
+        assertEquals(load(newFile).getRows(), load(patched).getRows());
+
+        Table table = load(oldFile);
+        int before = table.getModificationCount();
+        TablePatch.apply(table, patch);
+        assertEquals(load(newFile).getRows(), table.getRows());
+        assertTrue(table.getModificationCount() > before);
+    }
+
+    @Test
+    public void testSmallWindowStillProducesAWorkingPatch() throws IOException {
+        Random random = new Random(9);
+        List<List<String>> oldRows = randomRows(random, 300);
+        List<List<String>> newRows = new ArrayList<>(oldRows.subList(0, 100));
+        newRows.addAll(randomRows(random, 50));
+        newRows.addAll(oldRows.subList(150, 300));
+        Path oldFile = write("old", oldRows);
+        Path newFile = write("new", newRows);
+        Path patch = directory.resolve("patch");
+
+        new TableDiff(4).diff(oldFile, newFile, patch);
+
+        Path patched = directory.resolve("patched");
+        TablePatch.apply(oldFile, patch, patched);
+        assertEquals(load(newFile).getRows(), load(patched).getRows());
+    }
+
+    @Test
+    public void testPatchesAFileInPlaceOnlyWhenItApplies() throws IOException {
+        Random random = new Random(3);
+        List<List<String>> oldRows = randomRows(random, 1000);
+        Path oldFile = write("old", oldRows);
+        Path newFile = write("new", mutate(random, oldRows, 100));
+        Path patch = directory.resolve("patch");
+        new TableDiff().diff(oldFile, newFile, patch);
+
+        TablePatch.apply(oldFile, patch, oldFile);
+        assertEquals(load(newFile).getRows(), load(oldFile).getRows());
+
+        byte[] patched = Files.readAllBytes(oldFile);
+        assertThrows(IOException.class, () -> TablePatch.apply(oldFile, patch, oldFile));
+        assertArrayEquals(patched, Files.readAllBytes(oldFile));
+    }
+
+    @Test
+    public void testPatchRejectsATableThatChanged() throws IOException {
+        List<List<String>> oldRows = List.of(List.of("a\u001e1"), List.of("b\u001e2"));
+        List<List<String>> newRows = List.of(List.of("a\u001e1"), List.of("b\u001e3"));
+        Path patch = directory.resolve("patch");
+        new TableDiff().diff(write("old", oldRows), write("new", newRows), patch);
+
+        Table table = load(write("other", List.of(List.of("a\u001e1"), List.of("b\u001e5"))));
+        IOException error = assertThrows(IOException.class, () -> TablePatch.apply(table, patch));
+        assertTrue(error.getMessage().contains("row 1"));
+        assertEquals(new Cell("b", "5"), table.getRow(1).getCells().get(0));
+    }
+
+    @Test
+    public void testFailedPatchLeavesTableUnchanged() throws IOException {
+        Random random = new Random(13);
+        List<List<String>> oldRows = randomRows(random, 500);
+        Path oldFile = write("old", oldRows);
+        Path patch = directory.resolve("patch");
+        new TableDiff().diff(oldFile, write("new", mutate(random, oldRows, 50)), patch);
+        Files.write(patch, "~0\u001f0\u001f(zz\u001ezz)\u001f(y\u001ey)\n".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        Table table = load(oldFile);
+        assertThrows(IOException.class, () -> TablePatch.apply(table, patch));
+        assertEquals(load(oldFile).getRows(), table.getRows());
+    }
+
+    @Test
+    public void testServicePatchUndoesAsOneStep() throws IOException {
+        Random random = new Random(17);
+        List<List<String>> oldRows = randomRows(random, 500);
+        Path oldFile = write("old", oldRows);
+        Path newFile = write("new", mutate(random, oldRows, 50));
+        Path patch = directory.resolve("patch");
+        new TableDiff().diff(oldFile, newFile, patch);
+        Path badPatch = directory.resolve("bad");
+        Files.write(badPatch, "~0\u001f0\u001f(zz\u001ezz)\u001f(y\u001ey)\n".getBytes(StandardCharsets.UTF_8));
+        TableServiceImpl service = new TableServiceImpl(new FileTable(load(oldFile)));
+
+        service.applyPatch(patch.toString());
+        assertEquals(load(newFile).getRows(), service.getTable().getRows());
+        assertThrows(IOException.class, () -> service.applyPatch(badPatch.toString()));
+
+        assertEquals("patch " + patch, service.undo());
+        assertEquals(load(oldFile).getRows(), service.getTable().getRows());
+        service.redo();
+        assertEquals(load(newFile).getRows(), service.getTable().getRows());
+    }
+
+    @Test
+    public void testRejectsMalformedPatch() throws IOException {
+        Path patch = directory.resolve("patch");
+        Files.write(patch, "*0\u001f(a\u001e1)\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> TablePatch.apply(new Table(), patch));
+    }
+}
@@ -0,0 +1,103 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.utilities.FileTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableEventsTest {
+
+    @TempDir
+    Path directory;
+
+    private TableServiceImpl tableService;
+
+    @BeforeEach
+    public void setUp() {
+        tableService = new TableServiceImpl(new FileTable());
+        tableService.createTable(3, 4);
+    }
+
+    private List<RecordedEvent> record(Runnable work, String... enabledEvents) throws IOException {
+        Path dump = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : enabledEvents) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().startsWith("com.mvnmulti."))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEventsAreOffByDefault() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            tableService.searchTable("a");
+            tableService.sortTable(0, "asc");
+        });
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testSearchEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> tableService.searchTable("ab", 1, 3), "com.mvnmulti.TableSearch");
+
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getInt("termLength"));
+        assertEquals(8, events.get(0).getLong("cellsScanned"));
+        assertEquals("LITERAL", events.get(0).getString("mode"));
+    }
+
+    @Test
+    public void testSortEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> tableService.sortAllRows("desc", SortStrategy.VALUE), "com.mvnmulti.RowSort");
+
+        assertEquals(1, events.size());
+        assertEquals("cells", events.get(0).getString("kind"));
+        assertEquals("VALUE", events.get(0).getString("strategy"));
+        assertEquals("desc", events.get(0).getString("order"));
+        assertEquals(3, events.get(0).getInt("rows"));
+    }
+
+    @Test
+    public void testSaveAndLoadEvents() throws IOException {
+        String file = directory.resolve("table.txt").toString();
+
+        List<RecordedEvent> events = record(() -> {
+            try {
+                tableService.saveTableToFile(file);
+                tableService.loadTableFromFile(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "com.mvnmulti.TableSave", "com.mvnmulti.TableLoad");
+
+        assertEquals(2, events.size());
+        assertEquals("com.mvnmulti.TableSave", events.get(0).getEventType().getName());
+        assertEquals("com.mvnmulti.TableLoad", events.get(1).getEventType().getName());
+        for (RecordedEvent event : events) {
+            assertEquals(file, event.getString("file"));
+            assertEquals(3, event.getInt("rows"));
+            assertTrue(event.getLong("bytes") > 0);
+        }
+    }
+}
@@ -2,29 +2,37 @@ package com.mvnmulti.service;
 
 import com.mvnmulti.model.Cell;
 import com.mvnmulti.model.EditCellResult;
+import com.mvnmulti.model.FrequencyResult;
+import com.mvnmulti.model.OffHeapRowList;
 import com.mvnmulti.model.Row;
 import com.mvnmulti.model.SearchResult;
 import com.mvnmulti.model.Table;
 import com.mvnmulti.utilities.FileTable;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import org.mockito.MockitoAnnotations;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -39,7 +47,6 @@ import static org.mockito.Mockito.spy;
 
 public class TableServiceImplTest {
 
-    @InjectMocks
     private TableServiceImpl tableService;
 
     @Mock
@@ -53,6 +60,7 @@ public class TableServiceImplTest {
 
         table = new Table();
         when(fileTableMock.getTable()).thenReturn(table);
+        tableService = new TableServiceImpl(fileTableMock);
     }
 
     private List<Cell> createCells(String... keysAndValues) {
@@ -325,6 +333,174 @@ public class TableServiceImplTest {
         }
     }
 
+    @Nested
+    class SearchModeTests {
+
+        @Test
+        public void testLiteralCountsNonOverlappingOccurrences() {
+            addRowToTable(createCells("aaaa,aaa"));
+
+            List<SearchResult> results = tableService.searchTable("aa", SearchMode.LITERAL);
+
+            assertEquals(2, results.get(0).getKeyOccurrences());
+            assertEquals(1, results.get(0).getValueOccurrences());
+        }
+
+        @Test
+        public void testRegexSearch() {
+            addRowToTable(createCells("a1b22,x", "abc,9z9"));
+
+            List<SearchResult> results = tableService.searchTable("\\d+", SearchMode.REGEX);
+
+            assertEquals(2, results.size());
+            assertEquals(2, results.get(0).getKeyOccurrences());
+            assertEquals(0, results.get(0).getValueOccurrences());
+            assertEquals(0, results.get(1).getKeyOccurrences());
+            assertEquals(2, results.get(1).getValueOccurrences());
+            assertEquals("\\d+", results.get(0).getSearchTerm());
+        }
+
+        @Test
+        public void testRegexIgnoresEmptyMatches() {
+            addRowToTable(createCells("bbb,ab"));
+
+            List<SearchResult> results = tableService.searchTable("a*", SearchMode.REGEX);
+
+            assertEquals(1, results.size());
+            assertEquals(0, results.get(0).getKeyOccurrences());
+            assertEquals(1, results.get(0).getValueOccurrences());
+        }
+
+        @Test
+        public void testInvalidRegex() {
+            addRowToTable(createCells("key,value"));
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.searchTable("(", SearchMode.REGEX);
+            });
+        }
+
+        @Test
+        public void testAnyTermSearch() {
+            addRowToTable(createCells("she,his", "hers,x", "none,none"));
+
+            List<SearchResult> results = tableService.searchTable("he she his hers", SearchMode.ANY_TERM);
+
+            assertEquals(2, results.size());
+            assertEquals(2, results.get(0).getKeyOccurrences());
+            assertEquals(1, results.get(0).getValueOccurrences());
+            assertEquals(2, results.get(1).getKeyOccurrences());
+            assertEquals(1, results.get(1).getColIndex());
+        }
+
+        @Test
+        public void testAnyTermMatchesLiteralCountsForSingleTerm() {
+            addRowToTable(createCells("xyz,abcabc", "abab,ccab"));
+
+            List<SearchResult> literal = tableService.searchTable("ab", SearchMode.LITERAL);
+            List<SearchResult> anyTerm = tableService.searchTable("ab", SearchMode.ANY_TERM);
+
+            assertEquals(literal, anyTerm);
+        }
+
+        @Test
+        public void testAnyTermWithNonAsciiCharacters() {
+            addRowToTable(createCells("\u00e9t\u00e9,caf\u00e9"));
+
+            List<SearchResult> results = tableService.searchTable("\u00e9 t\u00e9", SearchMode.ANY_TERM);
+
+            assertEquals(3, results.get(0).getKeyOccurrences());
+            assertEquals(1, results.get(0).getValueOccurrences());
+        }
+
+        @Test
+        public void testEmptySearchTerm() {
+            addRowToTable(createCells("key,value"));
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.searchTable("", SearchMode.LITERAL);
+            });
+        }
+
+        @Test
+        public void testPatternCacheEvictsLeastRecentlyUsed() {
+            SearchPatternCache cache = new SearchPatternCache(2);
+            CompiledSearch first = cache.get("a", SearchMode.REGEX);
+            cache.get("b", SearchMode.REGEX);
+            cache.get("a", SearchMode.REGEX);
+            cache.get("c", SearchMode.REGEX);
+
+            assertEquals(2, cache.size());
+            assertTrue(first == cache.get("a", SearchMode.REGEX));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"literal", "regex", "any"})
+        public void testSearchModeFromOptionName(String optionName) {
+            assertEquals(optionName, SearchMode.fromOptionName(optionName).getOptionName());
+        }
+    }
+
+    @Nested
+    class RowRangeTests {
+
+        @Test
+        public void testSearchTableWithinRange() {
+            addRowToTable(createCells("key,value"));
+            addRowToTable(createCells("other,key"));
+            addRowToTable(createCells("keykey,value"));
+
+            List<SearchResult> results = tableService.searchTable("key", 1, 2);
+
+            assertEquals(1, results.size());
+            assertEquals(1, results.get(0).getRowIndex());
+            assertEquals(1, results.get(0).getValueOccurrences());
+        }
+
+        @Test
+        public void testSearchTableRangePastEnd() {
+            addRowToTable(createCells("key,value"));
+
+            assertEquals(1, tableService.searchTable("key", 0, 100).size());
+            assertTrue(tableService.searchTable("key", 5, 10).isEmpty());
+        }
+
+        @Test
+        public void testGetRows() {
+            addRowToTable(createCells("a,1"));
+            addRowToTable(createCells("b,2"));
+            addRowToTable(createCells("c,3"));
+
+            List<Row> rows = tableService.getRows(1, 3);
+
+            assertEquals(2, rows.size());
+            assertEquals("b", rows.get(0).getCells().get(0).getKey());
+            assertEquals("c", rows.get(1).getCells().get(0).getKey());
+        }
+
+        @Test
+        public void testGetRowsPastEnd() {
+            addRowToTable(createCells("a,1"));
+
+            assertEquals(1, tableService.getRows(0, 100).size());
+            assertTrue(tableService.getRows(10, 20).isEmpty());
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+            "-1, 2",
+            "3, 1"
+        })
+        public void testInvalidRange(int fromRow, int toRow) {
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.getRows(fromRow, toRow);
+            });
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.searchTable("key", fromRow, toRow);
+            });
+        }
+    }
+
     @Nested
     class AddRowTests {
 
@@ -349,6 +525,14 @@ public class TableServiceImplTest {
                 tableService.addRow(2, 10);
             });
         }
+
+        @Test
+        public void testAddRowWithNegativeCellCount() {
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.addRow(-1, 0);
+            });
+            assertEquals(0, table.getRowCount());
+        }
     }
 
     @Nested
@@ -387,5 +571,612 @@ public class TableServiceImplTest {
                 tableService.sortTable(0, "invalidOrder");
             });
         }
+
+        @Test
+        public void testSortTableRejectsUnknownOrder() {
+            addRowToTable(createCells("b,2", "a,1"));
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.sortTable(0, "sideways");
+            });
+        }
+
+        @Test
+        public void testSortTableMatchesConcatenatedOrder() {
+            addRowToTable(createCells("a,z", "ab,a", "a,b"));
+
+            tableService.sortTable(0, "asc");
+
+            List<Cell> cells = table.getRow(0).getCells();
+            assertEquals("a,b", cells.get(0).toString());
+            assertEquals("ab,a", cells.get(1).toString());
+            assertEquals("a,z", cells.get(2).toString());
+        }
+
+        @Test
+        public void testSortTableLargeRowUsesSameOrderAsConcatenation() {
+            List<Cell> cells = new ArrayList<>();
+            for (int i = 0; i < TableServiceImpl.PARALLEL_SORT_THRESHOLD * 2; i++) {
+                cells.add(new Cell(tableService.generateRandomAscii(2), tableService.generateRandomAscii(3)));
+            }
+            List<Cell> expected = new ArrayList<>(cells);
+            expected.sort(Comparator.comparing((Cell cell) -> cell.getKey() + cell.getValue()).reversed());
+            addRowToTable(cells);
+
+            tableService.sortTable(0, "desc");
+
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getKey() + expected.get(i).getValue(),
+                    cells.get(i).getKey() + cells.get(i).getValue());
+            }
+        }
+
+        @Test
+        public void testSortRowsSortsOnlySelectedRows() {
+            addRowToTable(createCells("b,2", "a,1"));
+            addRowToTable(createCells("d,4", "c,3"));
+            addRowToTable(createCells("f,6", "e,5"));
+
+            tableService.sortRows(new int[] {0, 2}, "asc", SortStrategy.KEY_VALUE);
+
+            assertEquals("a", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("d", table.getRow(1).getCells().get(0).getKey());
+            assertEquals("e", table.getRow(2).getCells().get(0).getKey());
+        }
+
+        @Test
+        public void testSortRowsInvalidIndex() {
+            addRowToTable(createCells("b,2", "a,1"));
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.sortRows(new int[] {0, 3}, "asc", SortStrategy.KEY_VALUE);
+            });
+        }
+
+        @Test
+        public void testSortAllRows() {
+            addRowToTable(createCells("a,1", "b,2"));
+            addRowToTable(createCells("c,3", "d,4"));
+
+            tableService.sortAllRows("desc", SortStrategy.KEY_VALUE);
+
+            assertEquals("b", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("d", table.getRow(1).getCells().get(0).getKey());
+        }
+
+        @Test
+        public void testSortRowsByColumn() {
+            addRowToTable(createCells("x,1", "c,3"));
+            addRowToTable(createCells("y,2"));
+            addRowToTable(createCells("z,3", "a,1"));
+
+            tableService.sortRowsByColumn(1, "asc", SortStrategy.KEY_VALUE);
+
+            assertEquals("z", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("x", table.getRow(1).getCells().get(0).getKey());
+            assertEquals("y", table.getRow(2).getCells().get(0).getKey());
+
+            tableService.sortRowsByColumn(1, "desc", SortStrategy.KEY_VALUE);
+
+            assertEquals("x", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("z", table.getRow(1).getCells().get(0).getKey());
+            assertEquals("y", table.getRow(2).getCells().get(0).getKey());
+        }
+
+        @Test
+        public void testSortRowsByColumnInvalidIndex() {
+            assertThrows(IllegalArgumentException.class, () -> {
+                tableService.sortRowsByColumn(-1, "asc", SortStrategy.KEY_VALUE);
+            });
+        }
+
+        @Test
+        public void testSortTableSameOrderTwiceKeepsRow() {
+            addRowToTable(createCells("b,2", "a,1", "c,3"));
+            tableService.sortTable(0, "asc");
+            List<Cell> sorted = new ArrayList<>(table.getRow(0).getCells());
+
+            tableService.sortTable(0, "asc");
+
+            assertEquals(sorted, table.getRow(0).getCells());
+            assertEquals("asc", table.getRow(0).getSortedOrder());
+        }
+
+        @Test
+        public void testSortTableReverseOrderAfterSort() {
+            addRowToTable(createCells("b,2", "a,1", "c,3"));
+            tableService.sortTable(0, "asc");
+
+            tableService.sortTable(0, "desc");
+
+            assertEquals("c", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("b", table.getRow(0).getCells().get(1).getKey());
+            assertEquals("a", table.getRow(0).getCells().get(2).getKey());
+            assertEquals("desc", table.getRow(0).getSortedOrder());
+        }
+
+        @Test
+        public void testChangesOutsideTheServiceInvalidateSortedRow() {
+            addRowToTable(createCells("b,2", "a,1", "c,3"));
+            Row row = table.getRow(0);
+            tableService.sortTable(0, "asc");
+
+            row.getCells().get(0).setKey("y");
+            assertNull(row.getSortedOrder());
+            tableService.sortTable(0, "asc");
+            row.getCells().add(0, new Cell("z", "9"));
+            tableService.sortTable(0, "desc");
+
+            assertEquals(List.of("z", "y", "c", "b"), row.getCells().stream().map(Cell::getKey).toList());
+            tableService.sortTable(0, "asc");
+            row.getCells().remove(0);
+            row.getCells().set(2, new Cell("a", "4"));
+            tableService.sortTable(0, "asc");
+
+            assertEquals(List.of("a", "c", "y"), row.getCells().stream().map(Cell::getKey).toList());
+        }
+
+        @Test
+        public void testChangingOrderSortsTiesLikeAFreshSort() {
+            TableServiceImpl offHeap = new TableServiceImpl(new FileTable(Table.offHeap()));
+            for (TableServiceImpl service : List.of(tableService, offHeap)) {
+                service.getTable().addRow(new Row(createCells("a,2", "b,1", "c,1")));
+                service.sortTable(0, "asc", SortStrategy.VALUE);
+                service.sortTable(0, "desc", SortStrategy.VALUE);
+            }
+
+            assertEquals(List.of("a", "b", "c"), table.getRow(0).getCells().stream().map(Cell::getKey).toList());
+            assertEquals(table.getRow(0), offHeap.getTable().getRow(0));
+        }
+
+        @Test
+        public void testEditCellInvalidatesSortedRow() {
+            addRowToTable(createCells("b,2", "a,1", "c,3"));
+            tableService.sortTable(0, "asc");
+
+            tableService.editCell(0, 0, "key", "z");
+            tableService.sortTable(0, "asc");
+
+            assertEquals("b", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("c", table.getRow(0).getCells().get(1).getKey());
+            assertEquals("z", table.getRow(0).getCells().get(2).getKey());
+        }
+
+        @Test
+        public void testSortPrefixOrdersLikeFullString() {
+            List<Cell> cells = createCells("ab,c", "a,bc", "abc,d", "a,b", "b,a", "zzzz,z");
+            cells.add(new Cell("z", ""));
+            cells.add(new Cell("ab", "\u0000"));
+            cells.add(new Cell("\uffff", "a"));
+            for (Cell first : cells) {
+                for (Cell second : cells) {
+                    int expected = Integer.signum((first.getKey() + first.getValue()).compareTo(second.getKey() + second.getValue()));
+                    assertEquals(expected, Integer.signum(CellComparators.KEY_VALUE.compare(first, second)));
+                }
+            }
+        }
+
+        @Test
+        public void testSortTableByKeyOnly() {
+            addRowToTable(createCells("b,1", "a,9", "c,5"));
+
+            tableService.sortTable(0, "asc", SortStrategy.KEY);
+
+            assertEquals("a", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("b", table.getRow(0).getCells().get(1).getKey());
+            assertEquals("c", table.getRow(0).getCells().get(2).getKey());
+        }
+
+        @Test
+        public void testSortTableByValueOnly() {
+            addRowToTable(createCells("b,1", "a,9", "c,5"));
+
+            tableService.sortTable(0, "desc", SortStrategy.VALUE);
+
+            assertEquals("9", table.getRow(0).getCells().get(0).getValue());
+            assertEquals("5", table.getRow(0).getCells().get(1).getValue());
+            assertEquals("1", table.getRow(0).getCells().get(2).getValue());
+        }
+
+        @Test
+        public void testSortTableNumeric() {
+            addRowToTable(createCells("a,10", "b,9", "c,abc", "d,-2.5", "e,100"));
+
+            tableService.sortTable(0, "asc", SortStrategy.NUMERIC);
+
+            List<Cell> cells = table.getRow(0).getCells();
+            assertEquals("-2.5", cells.get(0).getValue());
+            assertEquals("9", cells.get(1).getValue());
+            assertEquals("10", cells.get(2).getValue());
+            assertEquals("100", cells.get(3).getValue());
+            assertEquals("abc", cells.get(4).getValue());
+        }
+
+        @Test
+        public void testNumericValueFollowsEdits() {
+            addRowToTable(createCells("a,10", "b,9"));
+            tableService.sortTable(0, "asc", SortStrategy.NUMERIC);
+
+            tableService.editCell(0, 0, "value", "11");
+            tableService.sortTable(0, "asc", SortStrategy.NUMERIC);
+
+            assertEquals("a", table.getRow(0).getCells().get(0).getKey());
+            assertEquals(10.0, table.getRow(0).getCells().get(0).getNumericValue());
+            assertEquals(11.0, table.getRow(0).getCells().get(1).getNumericValue());
+        }
+
+        @Test
+        public void testSortTableCaseInsensitive() {
+            addRowToTable(createCells("b,x", "A,x", "C,x"));
+
+            tableService.sortTable(0, "asc", SortStrategy.CASE_INSENSITIVE);
+
+            assertEquals("A", table.getRow(0).getCells().get(0).getKey());
+            assertEquals("b", table.getRow(0).getCells().get(1).getKey());
+            assertEquals("C", table.getRow(0).getCells().get(2).getKey());
+        }
+
+        @Test
+        public void testSortTableChangingStrategyResorts() {
+            addRowToTable(createCells("b,1", "a,9"));
+            tableService.sortTable(0, "asc", SortStrategy.KEY);
+
+            tableService.sortTable(0, "asc", SortStrategy.VALUE);
+
+            assertEquals("b", table.getRow(0).getCells().get(0).getKey());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"both", "key", "value", "numeric", "nocase"})
+        public void testSortStrategyFromOptionName(String optionName) {
+            assertEquals(optionName, SortStrategy.fromOptionName(optionName).getOptionName());
+        }
+
+        @Test
+        public void testSortStrategyFromInvalidOptionName() {
+            assertThrows(IllegalArgumentException.class, () -> {
+                SortStrategy.fromOptionName("random");
+            });
+        }
+    }
+
+    @Nested
+    class AggregateTests {
+
+        @BeforeEach
+        public void addRows() {
+            addRowToTable(createCells("apple,1", "avocado,22", "Berry,a"));
+            addRowToTable(createCells("banana,1", "7up,x1", "apple,22"));
+        }
+
+        @Test
+        public void testCountCellsByPrefix() {
+            assertEquals(3, tableService.countCells(CellField.KEY, "a"));
+            assertEquals(2, tableService.countCells(CellField.VALUE, "2"));
+            assertEquals(6, tableService.countCells(CellField.KEY, ""));
+        }
+
+        @Test
+        public void testGroupCellsByPrefix() {
+            Map<String, Long> groups = tableService.groupCellsByPrefix(CellField.KEY, 2);
+
+            assertEquals(List.of("7u", "Be", "ap", "av", "ba"), new ArrayList<>(groups.keySet()));
+            assertEquals(2L, groups.get("ap"));
+            assertEquals(Map.of("1", 2L, "2", 2L, "a", 1L, "x", 1L), tableService.groupCellsByPrefix(CellField.VALUE, 1));
+        }
+
+        @Test
+        public void testGroupCellsByCharClass() {
+            Map<CharClass, Long> groups = tableService.groupCellsByCharClass(CellField.KEY);
+
+            assertEquals(4L, groups.get(CharClass.LOWERCASE));
+            assertEquals(1L, groups.get(CharClass.UPPERCASE));
+            assertEquals(1L, groups.get(CharClass.DIGIT));
+            assertEquals(0L, groups.get(CharClass.EMPTY));
+            assertEquals(CharClass.values().length, groups.size());
+        }
+
+        @Test
+        public void testTopCellsOrdersByCountThenText() {
+            List<FrequencyResult> top = tableService.topCells(CellField.VALUE, 3);
+
+            assertEquals(List.of(new FrequencyResult("1", 2), new FrequencyResult("22", 2), new FrequencyResult("a", 1)), top);
+        }
+
+        @Test
+        public void testResultsAreCachedUntilTheTableChanges() {
+            List<FrequencyResult> first = tableService.topCells(CellField.KEY, 2);
+            assertSame(first, tableService.topCells(CellField.KEY, 2));
+
+            tableService.editCell(0, 0, "key", "cherry");
+
+            List<FrequencyResult> second = tableService.topCells(CellField.KEY, 2);
+            assertNotEquals(first, second);
+            assertEquals(new FrequencyResult("7up", 1), second.get(0));
+        }
+
+        @Test
+        public void testParallelPassMatchesSequentialCount() {
+            Random random = new Random(3);
+            long expected = 0;
+            for (int i = 0; i < TableAggregates.PARALLEL_THRESHOLD * 2; i++) {
+                String value = tableService.generateRandomAscii(3);
+                expected += value.startsWith("a") ? 1 : 0;
+                table.addRow(new Row(new ArrayList<>(List.of(new Cell("k" + random.nextInt(50), value)))));
+            }
+            expected++;
+
+            assertEquals(expected, tableService.countCells(CellField.VALUE, "a"));
+            long keys = tableService.groupCellsByPrefix(CellField.KEY, 1).values().stream().mapToLong(Long::longValue).sum();
+            assertEquals(table.getRows().stream().mapToLong(row -> row.getCells().size()).sum(), keys);
+        }
+
+        @Test
+        public void testManyDistinctValuesMergeAcrossWorkers() {
+            int rows = TableAggregates.PARALLEL_THRESHOLD * 50;
+            for (int i = 0; i < rows; i++) {
+                table.addRow(new Row(new ArrayList<>(List.of(new Cell("k", "v" + i)))));
+            }
+
+            assertEquals(rows + 4, tableService.groupCellsByPrefix(CellField.VALUE, Integer.MAX_VALUE).size());
+            assertEquals(new FrequencyResult("1", 2), tableService.topCells(CellField.VALUE, 1).get(0));
+        }
+
+        @Test
+        public void testRejectsInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> tableService.topCells(CellField.KEY, 0));
+            assertThrows(IllegalArgumentException.class, () -> tableService.groupCellsByPrefix(CellField.KEY, 0));
+            assertThrows(IllegalArgumentException.class, () -> CellField.fromOptionName("cell"));
+        }
+    }
+
+    @Nested
+    class HistoryTests {
+
+        @BeforeEach
+        public void addRows() {
+            addRowToTable(createCells("c,3", "a,1", "b,2"));
+            addRowToTable(createCells("f,6", "e,5", "d,4"));
+        }
+
+        private List<String> snapshot() {
+            List<String> rows = new ArrayList<>();
+            for (Row row : table.getRows()) {
+                rows.add(row.toString());
+            }
+            return rows;
+        }
+
+        @Test
+        public void testUndoAndRedoCellEdit() {
+            tableService.editCell(0, 1, "both", "z,9");
+
+            assertEquals("edit of cell [0,1]", tableService.undo());
+            assertEquals(new Cell("a", "1"), table.getRow(0).getCells().get(1));
+            assertEquals("edit of cell [0,1]", tableService.redo());
+            assertEquals(new Cell("z", "9"), table.getRow(0).getCells().get(1));
+            assertNull(tableService.redo());
+        }
+
+        @Test
+        public void testNewChangeDiscardsRedo() {
+            tableService.editCell(0, 0, "value", "x");
+            tableService.undo();
+            tableService.editCell(1, 0, "value", "y");
+
+            assertNull(tableService.redo());
+            assertEquals("edit of cell [1,0]", tableService.undo());
+            assertNull(tableService.undo());
+            assertEquals(new Cell("c", "3"), table.getRow(0).getCells().get(0));
+        }
+
+        @Test
+        public void testUndoAndRedoRowInsert() {
+            tableService.addRow(2, 1);
+            Row added = table.getRow(1);
+
+            assertEquals("row added at 1", tableService.undo());
+            assertEquals(2, table.getRowCount());
+            tableService.redo();
+            assertSame(added, table.getRow(1));
+        }
+
+        @Test
+        public void testUndoSortsRestoresOrder() {
+            List<String> original = snapshot();
+            tableService.sortAllRows("asc", SortStrategy.KEY_VALUE);
+            tableService.sortRowsByColumn(0, "desc", SortStrategy.KEY_VALUE);
+            List<String> sorted = snapshot();
+
+            assertEquals("sort of rows by column 0", tableService.undo());
+            assertEquals("sort of cells in 2 rows", tableService.undo());
+            assertEquals(original, snapshot());
+
+            tableService.redo();
+            tableService.redo();
+            assertEquals(sorted, snapshot());
+        }
+
+        @Test
+        public void testSortAfterUndoSortsAgain() {
+            tableService.sortTable(0, "asc");
+            tableService.undo();
+            tableService.sortTable(0, "asc");
+
+            assertEquals("a", table.getRow(0).getCells().get(0).getKey());
+        }
+
+        @Test
+        public void testUndoLargeSorts() {
+            Random random = new Random(11);
+            table.clear();
+            for (int i = 0; i < TableServiceImpl.PARALLEL_SORT_THRESHOLD; i++) {
+                List<Cell> cells = new ArrayList<>();
+                for (int j = 0; j < 20; j++) {
+                    cells.add(new Cell("k" + i + "_" + j, String.valueOf(random.nextInt(100))));
+                }
+                table.addRow(new Row(cells));
+            }
+            List<String> original = snapshot();
+
+            tableService.sortAllRows("desc", SortStrategy.VALUE);
+            tableService.sortRowsByColumn(3, "asc", SortStrategy.VALUE);
+            tableService.undo();
+            tableService.undo();
+
+            assertEquals(original, snapshot());
+        }
+
+        @Test
+        public void testChangeOutsideTheServiceDropsHistory() {
+            tableService.editCell(0, 0, "value", "x");
+            table.removeRow(1);
+
+            assertNull(tableService.undo());
+        }
+
+        @Test
+        public void testHistoryStaysUnderItsLimit() {
+            EditHistory history = new EditHistory(1024);
+            history.sync(table);
+            for (int i = 0; i < 100; i++) {
+                table.getRow(0).getCells().get(0).setValue(String.valueOf(i));
+                table.markModified();
+                history.record(EditHistory.cellEdit(new EditCellResult(0, 0, "c", String.valueOf(i - 1), "c", String.valueOf(i))));
+            }
+
+            assertTrue(history.bytes() <= 1024);
+            int undoable = history.undoableCount();
+            assertTrue(undoable > 0 && undoable < 100);
+            for (int i = 0; i < undoable; i++) {
+                history.undo(table);
+            }
+            assertEquals(String.valueOf(99 - undoable), table.getRow(0).getCells().get(0).getValue());
+            assertNull(history.undo(table));
+            assertEquals(undoable, history.redoableCount());
+        }
+
+        @Test
+        public void testSortTooLargeForTheLimitClearsHistory() {
+            for (int i = 0; i < 20; i++) {
+                addRowToTable(createCells("k" + i + ",1", "l" + i + ",2", "m" + i + ",3"));
+            }
+            TableServiceImpl service = new TableServiceImpl(fileTableMock, 256);
+            service.editCell(0, 0, "value", "x");
+            service.sortAllRows("desc", SortStrategy.KEY_VALUE);
+
+            assertNull(service.undo());
+            assertEquals(new Cell("c", "x"), table.getRow(0).getCells().get(0));
+        }
+
+        @Test
+        public void testZeroLimitDisablesHistory() {
+            TableServiceImpl service = new TableServiceImpl(fileTableMock, 0);
+            service.editCell(0, 0, "value", "x");
+            service.sortAllRows("asc", SortStrategy.KEY_VALUE);
+
+            assertNull(service.undo());
+        }
+    }
+
+    // Every operation on an off-heap table must leave it as the same operation leaves a table on the heap.
+    @Nested
+    class OffHeapTests {
+        private Table offHeap;
+        private TableServiceImpl offHeapService;
+
+        @BeforeEach
+        public void addRows() {
+            Random random = new Random(5);
+            table.clear();
+            offHeap = Table.offHeap();
+            for (int i = 0; i < 300; i++) {
+                List<Cell> cells = new ArrayList<>();
+                int count = random.nextInt(5);
+                for (int j = 0; j < count; j++) {
+                    String value = random.nextInt(3) == 0 ? (random.nextBoolean() ? "Ab" : "aB") + random.nextInt(4)
+                        : Integer.toString(random.nextInt(20) - 5);
+                    String key = (random.nextBoolean() ? "K" : "k") + i + "_" + j + (j == 2 ? "中" : "");
+                    cells.add(new Cell(key, value));
+                }
+                addRowToTable(cells);
+                offHeap.addRow(new Row(new ArrayList<>(cells)));
+            }
+            offHeapService = new TableServiceImpl(new FileTable(offHeap));
+        }
+
+        private void assertSameRows() {
+            assertEquals(table.getRows(), offHeap.getRows());
+        }
+
+        // Each pair starts from fresh tables: a heap row sorted again in the other order is reversed, ties included.
+        @Test
+        public void testSortsMatchHeapTable() {
+            for (SortStrategy strategy : SortStrategy.values()) {
+                for (String order : List.of("asc", "desc")) {
+                    addRows();
+                    tableService.sortRowsByColumn(1, order, strategy);
+                    offHeapService.sortRowsByColumn(1, order, strategy);
+                    tableService.sortTable(0, order, strategy);
+                    offHeapService.sortTable(0, order, strategy);
+                    assertSameRows();
+
+                    tableService.sortAllRows(order, strategy);
+                    offHeapService.sortAllRows(order, strategy);
+                    assertSameRows();
+                }
+            }
+            assertThrows(IllegalArgumentException.class,
+                () -> offHeapService.sortRowsByColumn(0, "up", SortStrategy.KEY));
+        }
+
+        @Test
+        public void testSearchMatchesHeapTable() {
+            for (SearchMode mode : SearchMode.values()) {
+                for (String term : List.of("1", "ab", "K1", "中", "k2 -3", "[0-9]_2")) {
+                    assertEquals(tableService.searchTable(term, mode), offHeapService.searchTable(term, mode),
+                        mode + " " + term);
+                }
+            }
+            assertEquals(tableService.searchTable("1", 40, 90), offHeapService.searchTable("1", 40, 90));
+        }
+
+        @Test
+        public void testEditsAndHistoryMatchHeapTable() {
+            for (TableServiceImpl service : List.of(tableService, offHeapService)) {
+                service.editCell(0, 0, "both", "edited,value");
+                service.sortAllRows("asc", SortStrategy.NUMERIC);
+                service.sortRowsByColumn(0, "desc", SortStrategy.KEY_VALUE);
+                service.editCell(5, 0, "value", "x");
+                service.undo();
+                service.undo();
+                service.redo();
+            }
+            assertSameRows();
+            offHeapService.addRow(2, 3);
+            Row added = offHeap.getRow(3);
+            assertEquals("row added at 3", offHeapService.undo());
+            assertSameRows();
+            offHeapService.redo();
+            assertEquals(added, offHeap.getRow(3));
+
+            String taken = table.getRow(1).getCells().get(0).getKey();
+            assertThrows(IllegalArgumentException.class, () -> offHeapService.editCell(2, 0, "key", taken));
+            assertTrue(offHeap.containsKey("edited"));
+        }
+
+        @Test
+        public void testSavedOffHeapTableLoadsBackOffHeap(@TempDir Path directory) throws IOException {
+            String file = directory.resolve("table.txt").toString();
+            offHeapService.saveTableToFile(file);
+
+            FileTable loaded = new FileTable(Table.offHeap());
+            loaded.loadTableFromFile(file, true);
+
+            assertTrue(loaded.getTable().getRows() instanceof OffHeapRowList);
+            assertEquals(table.getRows().stream().filter(row -> !row.getCells().isEmpty()).toList(),
+                loaded.getTable().getRows());
+            assertTrue(!loaded.isDirty());
+        }
     }
-}
\ No newline at end of file
+}
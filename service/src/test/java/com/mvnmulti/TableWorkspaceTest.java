@@ -0,0 +1,163 @@
+package com.mvnmulti.service;
+
+import com.mvnmulti.utilities.TableLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableWorkspaceTest {
+    // Each test table is one row of two cells with three-character keys and values.
+    private static final long TABLE_BYTES = TableWorkspace.ROW_OVERHEAD_BYTES + 2 * (TableWorkspace.CELL_OVERHEAD_BYTES + 12);
+
+    @TempDir
+    Path directory;
+
+    private TableWorkspace workspace;
+
+    @BeforeEach
+    public void setUp() {
+        workspace = new TableWorkspace(2 * TABLE_BYTES, TableServiceImpl::new);
+        TableLogger.setOutput(new PrintStream(new ByteArrayOutputStream(), true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TableLogger.setOutput(System.out);
+    }
+
+    private String writeTable(String name, String firstKey) throws IOException {
+        Path file = directory.resolve(name + ".txt");
+        Files.write(file, ("(" + firstKey + "\u001eval)\u001f(" + name + "\u001eval)").getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    @Test
+    public void testOpenAndSwitch() throws IOException {
+        TableService first = workspace.open("one", writeTable("one", "k01"));
+        TableService second = workspace.open("two", writeTable("two", "k02"));
+
+        assertEquals("two", workspace.getActiveName());
+        assertSame(first, workspace.use("one"));
+        assertSame(first, workspace.getActive());
+        assertEquals(Arrays.asList("two", "one"), workspace.getOpenTables());
+        assertEquals("k02", second.getTable().getRow(0).getCells().get(0).getKey());
+        assertEquals(2 * TABLE_BYTES, workspace.getEstimatedBytes());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedAndSavesDirty() throws IOException {
+        String oneFile = writeTable("one", "k01");
+        TableService one = workspace.open("one", oneFile);
+        workspace.open("two", writeTable("two", "k02"));
+        one.editCell(0, 0, "value", "new");
+        assertTrue(workspace.isDirty("one"));
+        workspace.use("two");
+
+        workspace.open("six", writeTable("six", "k03"));
+
+        assertEquals(Arrays.asList("two", "six"), workspace.getOpenTables());
+        assertEquals("(k01\u001enew)\u001f(one\u001eval)", Files.readAllLines(Path.of(oneFile)).get(0));
+    }
+
+    @Test
+    public void testListingLeavesTheEvictionOrderAlone() throws IOException {
+        TableWorkspace roomy = new TableWorkspace(3 * TABLE_BYTES, TableServiceImpl::new);
+        roomy.open("one", writeTable("one", "k01"));
+        roomy.open("two", writeTable("two", "k02"));
+        roomy.open("six", writeTable("six", "k03"));
+
+        // As the tables command lists them: newest first, with the active table.
+        roomy.getActive();
+        for (int i = roomy.getOpenTables().size() - 1; i >= 0; i--) {
+            String name = roomy.getOpenTables().get(i);
+            roomy.isDirty(name);
+            roomy.getEstimatedBytes(name);
+        }
+        assertEquals(Arrays.asList("one", "two", "six"), roomy.getOpenTables());
+
+        roomy.open("ten", writeTable("ten", "k04"));
+
+        assertEquals(Arrays.asList("two", "six", "ten"), roomy.getOpenTables());
+    }
+
+    @Test
+    public void testNeverEvictsActiveTable() throws IOException {
+        TableWorkspace tiny = new TableWorkspace(1, TableServiceImpl::new);
+        tiny.open("one", writeTable("one", "k01"));
+        tiny.open("two", writeTable("two", "k02"));
+
+        assertEquals(Collections.singletonList("two"), tiny.getOpenTables());
+        assertEquals("two", tiny.getActiveName());
+    }
+
+    @Test
+    public void testFindKeyAcrossTables() throws IOException {
+        TableService one = workspace.open("one", writeTable("one", "abc"));
+        workspace.open("two", writeTable("two", "abc"));
+
+        assertEquals(new TreeSet<>(Arrays.asList("one", "two")), workspace.findKey("abc"));
+        assertEquals(Collections.singleton("two"), workspace.findKey("two"));
+
+        one.editCell(0, 0, "key", "xyz");
+
+        assertEquals(Collections.singleton("two"), workspace.findKey("abc"));
+        assertEquals(Collections.singleton("one"), workspace.findKey("xyz"));
+    }
+
+    @Test
+    public void testCloseSavesDirtyAndActivatesMostRecent() throws IOException {
+        String oneFile = writeTable("one", "k01");
+        workspace.open("one", oneFile);
+        TableService two = workspace.open("two", writeTable("two", "k02"));
+        workspace.use("one").addRow(1, 1);
+
+        workspace.close("one");
+
+        assertEquals(2, Files.readAllLines(Path.of(oneFile)).size());
+        assertSame(two, workspace.getActive());
+        Set<String> found = workspace.findKey("k01");
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testSortMarksDirtyAndSaveClears() throws IOException {
+        TableService one = workspace.open("one", writeTable("one", "k01"));
+        assertFalse(workspace.isDirty("one"));
+
+        one.sortTable(0, "desc");
+        assertTrue(workspace.isDirty("one"));
+
+        workspace.saveAll();
+        assertFalse(workspace.isDirty("one"));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        workspace.open("one", writeTable("one", "k01"));
+
+        assertThrows(IllegalArgumentException.class, () -> workspace.open("one", writeTable("two", "k02")));
+        assertThrows(IllegalArgumentException.class, () -> workspace.use("missing"));
+        assertThrows(IOException.class, () -> workspace.open("two", directory.resolve("missing.txt").toString()));
+        assertEquals(Collections.singletonList("one"), workspace.getOpenTables());
+        assertThrows(IllegalArgumentException.class, () -> new TableWorkspace(0, TableServiceImpl::new));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Table;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Loads and saves many tables at once. Each call runs on its own virtual thread against a fresh FileTable, so
+// calls never share a table or a current file name; a semaphore caps how many touch the disk at the same time.
+public class AsyncFileTable implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public AsyncFileTable() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public AsyncFileTable(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1.");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public CompletableFuture<Table> load(String fileName) {
+        return load(fileName, false);
+    }
+
+    public CompletableFuture<Table> load(String fileName, boolean strict) {
+        return submit(() -> {
+            FileTable fileTable = new FileTable();
+            fileTable.loadTableFromFile(fileName, strict);
+            return fileTable.getTable();
+        });
+    }
+
+    public CompletableFuture<Void> save(Table table, String fileName) {
+        return submit(() -> {
+            new FileTable(table).saveTableToFile(fileName);
+            return null;
+        });
+    }
+
+    // Cancelling the returned future interrupts the task: a call still waiting for a permit never runs, and one
+    // already running stops at its next interruptible point. Its result is discarded either way.
+    <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try {
+                if (!result.isDone()) {
+                    result.complete(task.call());
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                permits.release();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
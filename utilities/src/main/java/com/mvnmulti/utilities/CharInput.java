@@ -0,0 +1,40 @@
+package com.mvnmulti.utilities;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Buffers a Reader so parsers can take one char at a time without a call into the Reader per char.
+final class CharInput {
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+
+    CharInput(Reader reader) {
+        this.reader = reader;
+    }
+
+    int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer);
+        while (count == 0) {
+            count = reader.read(buffer);
+        }
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Pre-parsed table: a magic number, the row count, then per row its cell count and each key and value as modified
+// UTF-8. Reading it needs no delimiter scanning or validation, which is what the bundled default table ships as.
+public final class CompactTableFormat {
+    private static final int MAGIC = 0x54424c31;
+
+    private CompactTableFormat() {
+    }
+
+    // Converts a text table to this format; the app build runs it to produce app_default.table from app_default.txt.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: CompactTableFormat <source.txt> <target.table>");
+        }
+        FileTable source = new FileTable();
+        source.loadTableFromContent(Files.readString(Path.of(args[0]), StandardCharsets.UTF_8));
+        Path target = Path.of(args[1]);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        try (OutputStream output = Files.newOutputStream(target)) {
+            write(source.getTable().getRows(), output);
+        }
+    }
+
+    public static void write(List<Row> rows, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeInt(rows.size());
+        for (Row row : rows) {
+            output.writeInt(row.getCells().size());
+            for (Cell cell : row.getCells()) {
+                output.writeUTF(cell.getKey());
+                output.writeUTF(cell.getValue());
+            }
+        }
+        output.flush();
+    }
+
+    public static List<Row> read(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a compact table.");
+        }
+        int rowCount = input.readInt();
+        List<Row> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            int cellCount = input.readInt();
+            List<Cell> cells = new ArrayList<>(cellCount);
+            for (int j = 0; j < cellCount; j++) {
+                cells.add(new Cell(input.readUTF(), input.readUTF()));
+            }
+            rows.add(new Row(cells));
+        }
+        return rows;
+    }
+}
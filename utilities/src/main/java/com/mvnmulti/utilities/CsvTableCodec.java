@@ -0,0 +1,121 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+// RFC 4180 CSV with one record per row laid out as key,value,key,value,... and no header, since rows may differ in
+// width. Fields are quoted only when they contain a comma, a quote or a line break; CRLF and LF both end a record.
+public class CsvTableCodec implements TableCodec {
+
+    @Override
+    public void read(Reader reader, RowSink sink) throws IOException {
+        CharInput input = new CharInput(reader);
+        StringBuilder field = new StringBuilder();
+        List<String> fields = new ArrayList<>();
+        int line = 1;
+        int recordLine = 1;
+        // A record that ends in a comma at end of input still has its last, empty field to emit.
+        while (!fields.isEmpty() || input.peek() != -1) {
+            field.setLength(0);
+            int c = input.read();
+            boolean quoted = c == '"';
+            if (quoted) {
+                while (true) {
+                    c = input.read();
+                    if (c == -1) {
+                        throw new TableParseException(recordLine, "Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        if (input.peek() != '"') {
+                            break;
+                        }
+                        input.read();
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+                c = input.read();
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = input.read();
+                }
+            }
+
+            if (c == ',') {
+                fields.add(field.toString());
+                continue;
+            }
+            if (c == '\r') {
+                if (input.peek() == '\n') {
+                    input.read();
+                }
+            } else if (c != '\n' && c != -1) {
+                throw new TableParseException(recordLine, "Unexpected character after quoted field: " + (char) c);
+            }
+
+            if (!fields.isEmpty() || quoted || field.length() > 0) {
+                fields.add(field.toString());
+                sink.accept(toRow(fields, recordLine));
+            }
+            fields.clear();
+            line++;
+            recordLine = line;
+        }
+    }
+
+    private static Row toRow(List<String> fields, int line) throws TableParseException {
+        if (fields.size() % 2 != 0) {
+            throw new TableParseException(line, "Expected key,value pairs but found " + fields.size() + " fields");
+        }
+        List<Cell> cells = new ArrayList<>(fields.size() / 2);
+        for (int i = 0; i < fields.size(); i += 2) {
+            cells.add(new Cell(fields.get(i), fields.get(i + 1)));
+        }
+        return new Row(cells);
+    }
+
+    @Override
+    public void write(Row row, Writer writer) throws IOException {
+        List<Cell> cells = row.getCells();
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(cells.get(i).getKey(), writer);
+            writer.write(',');
+            writeField(cells.get(i).getValue(), writer);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeField(String text, Writer writer) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < text.length() && !needsQuotes; i++) {
+            char c = text.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(text);
+            return;
+        }
+
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                writer.write(text, start, i + 1 - start);
+                start = i;
+            }
+        }
+        writer.write(text, start, text.length() - start);
+        writer.write('"');
+    }
+}
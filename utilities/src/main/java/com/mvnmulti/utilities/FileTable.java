@@ -1,32 +1,80 @@
 package com.mvnmulti.utilities;
 
 import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.OffHeapRowList;
 import com.mvnmulti.model.Row;
 import com.mvnmulti.model.Table;
-import org.apache.commons.io.FileUtils;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.StringReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import org.apache.commons.io.IOUtils;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
 
 public class FileTable {
-    private static final char CELL_DELIMITER = (char) 31;
-    private static final char KEY_VALUE_DELIMITER = (char) 30;
+    static final char CELL_DELIMITER = (char) 31;
+    static final char KEY_VALUE_DELIMITER = (char) 30;
     private static final String DEFAULT_MARKER = "APP_DEFAULT_TABLE";
+    private static final String DEFAULT_TABLE = "app_default.txt";
+    private static final String COMPACT_DEFAULT_TABLE = "app_default.table";
+    // Bytes just before the loaded length that must still match for growth to count as an append.
+    private static final int APPEND_CHECK_BYTES = 256;
+    private static final TableLogger LOGGER = TableLogger.getLogger(FileTable.class);
     private Table table;
     private String currentFileName;
     private boolean isAppDefault;
+    private ParseErrorReport lastParseErrors = new ParseErrorReport();
+    private int savedModificationCount;
+
+    // What the table reflects of currentFileName: byte length, mtime, line count and the last bytes read.
+    private long loadedLength = -1;
+    private long loadedModified;
+    private int loadedLines;
+    private byte[] loadedTail = new byte[0];
+    private boolean loadedStrict;
+
+    // Set while the table belongs to a sharded layout (see ShardManifest): the manifest, which shard was loaded or -1
+    // for all of them, and each shard's file digest as of the last load or save. Where the shards start is kept as
+    // the table's row marks, which follow rows added and removed.
+    private ShardManifest manifest;
+    private int loadedShard = -1;
+    private byte[][] shardDigests;
 
     public FileTable() {
         this.table = new Table();
     }
 
+    // Wraps an existing table so it can be saved without copying it into a fresh handle.
+    public FileTable(Table table) {
+        this.table = table;
+        this.savedModificationCount = table.getModificationCount();
+    }
+
     public Table getTable() {
         return table;
     }
@@ -39,93 +87,708 @@ public class FileTable {
         return isAppDefault;
     }
 
+    public ParseErrorReport getLastParseErrors() {
+        return lastParseErrors;
+    }
+
+    // True once the table has changed since it was last loaded or saved.
+    public boolean isDirty() {
+        return table.getModificationCount() != savedModificationCount;
+    }
+
     public void loadTableFromFile(String fileName) throws IOException {
+        loadTableFromFile(fileName, false);
+    }
+
+    // Lenient loads replace malformed cells with Invalid,Invalid and report them once; strict loads fail on the first.
+    // A shard manifest loads every shard it lists, in parallel, as one table.
+    public void loadTableFromFile(String fileName, boolean strict) throws IOException {
+        TableLoadEvent event = beginLoadEvent();
         File file = new File(fileName);
         if (!file.exists()) {
             throw new IOException("File not found: " + fileName);
         }
 
-        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
-        loadTableFromLines(lines);
+        long modified = file.lastModified();
+        if (table.getRows() instanceof OffHeapRowList && !isManifest(file)) {
+            long bytes = loadOffHeap(fileName, strict, modified);
+            commitLoadEvent(event, fileName, bytes);
+            LOGGER.info("Loaded table from file.", "storage", "off-heap");
+            return;
+        }
+        byte[] content = Files.readAllBytes(file.toPath());
+        if (ShardManifest.isManifest(content)) {
+            long bytes = openShards(fileName, -1, strict);
+            commitLoadEvent(event, fileName, bytes);
+            LOGGER.info("Loaded sharded table.", "file", fileName, "shards", manifest.getShardCount());
+            return;
+        }
+        List<String> lines = splitLines(new String(content, StandardCharsets.UTF_8));
+        loadTableFromLines(lines, strict, fileName);
         currentFileName = fileName;
         isAppDefault = checkIfAppDefault(lines);
-        System.out.println("Loaded table from file.");
+        // A last line without a newline may still be growing, so any later growth forces a full reload.
+        boolean complete = content.length == 0 || content[content.length - 1] == '\n';
+        rememberLoaded(complete ? content.length : -1, modified, lines.size(),
+            Arrays.copyOfRange(content, Math.max(0, content.length - APPEND_CHECK_BYTES), content.length), strict);
+        commitLoadEvent(event, fileName, content.length);
+        LOGGER.info("Loaded table from file.");
+    }
+
+    private static boolean isManifest(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return ShardManifest.isManifest(in.readNBytes(ShardManifest.MARKER.length() + 1));
+        }
+    }
+
+    // Parses a line at a time straight into new off-heap storage, so the file is never held on the heap; the table
+    // only switches over once the whole file has been read.
+    private long loadOffHeap(String fileName, boolean strict, long modified) throws IOException {
+        Path path = new File(fileName).toPath();
+        ParseErrorReport errors = new ParseErrorReport();
+        OffHeapRowList rows = new OffHeapRowList();
+        int lineNumber = 0;
+        String firstLine = null;
+        try (BufferedReader reader = TableCodecs.newReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    firstLine = line;
+                }
+                if (line.trim().isEmpty()) continue;
+                rows.add(new Row(parseLineToCells(line, lineNumber, strict, errors)));
+            }
+        } catch (IOException | RuntimeException e) {
+            rows.clear();
+            throw e;
+        }
+        table.setRows(rows);
+        rowsReplaced(errors, fileName);
+        currentFileName = fileName;
+        isAppDefault = DEFAULT_MARKER.equals(firstLine);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            int tailLength = (int) Math.min(APPEND_CHECK_BYTES, length);
+            byte[] tail = read(channel, length - tailLength, tailLength);
+            // As for heap loads, a last line without a newline forces a full reload on any later growth.
+            boolean complete = tail.length == 0 || tail[tail.length - 1] == '\n';
+            rememberLoaded(complete ? length : -1, modified, lineNumber, tail, strict);
+            return length;
+        }
+    }
+
+    private void commitLoadEvent(TableLoadEvent event, String fileName, long bytes) {
+        if (event != null && event.shouldCommit()) {
+            event.file = fileName;
+            event.bytes = bytes;
+            event.rows = table.getRowCount();
+            event.commit();
+        }
+    }
+
+    // Loads one shard of a sharded table on its own, so several processes can each work on a part of it. The other
+    // shards' keys are reserved in the table through their key files (see ShardKeys), keeping keys unique across
+    // shards without holding them in memory; saving to the manifest writes back this shard only.
+    public void loadShard(String manifestFile, int shard, boolean strict) throws IOException {
+        if (shard < 0) {
+            throw new IllegalArgumentException("Invalid shard index: " + shard);
+        }
+        openShards(manifestFile, shard, strict);
+        LOGGER.info("Loaded table shard.", "file", manifestFile, "shard", shard);
+    }
+
+    public ShardManifest getShardManifest() {
+        return manifest;
+    }
+
+    private long openShards(String manifestFile, int shard, boolean strict) throws IOException {
+        Path path = new File(manifestFile).toPath();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        long length = Files.size(path);
+        ShardManifest loaded = ShardManifest.read(path);
+        int count = loaded.getShardCount();
+        if (shard >= count) {
+            throw new IllegalArgumentException("Invalid shard index: " + shard + " of " + count);
+        }
+
+        int[] shards = shard < 0 ? IntStream.range(0, count).toArray() : new int[] {shard};
+        List<LoadedShard> parts;
+        List<ShardKeys> otherKeys = Collections.emptyList();
+        try (AsyncFileTable loader = new AsyncFileTable()) {
+            List<CompletableFuture<LoadedShard>> loads = new ArrayList<>();
+            for (int index : shards) {
+                Path shardFile = loaded.getShardFile(index);
+                loads.add(loader.submit(() -> LoadedShard.load(shardFile, strict)));
+            }
+            if (shard >= 0) {
+                otherKeys = openKeys(loader, loaded, shard);
+            }
+            parts = joinAll(loads);
+        }
+
+        List<Row> rows = new ArrayList<>();
+        ParseErrorReport errors = new ParseErrorReport();
+        int[] starts = new int[shards.length + 1];
+        byte[][] digests = new byte[count][];
+        long bytes = 0;
+        for (int i = 0; i < shards.length; i++) {
+            LoadedShard part = parts.get(i);
+            starts[i + 1] = starts[i] + part.rows.size();
+            digests[shards[i]] = part.digest;
+            rows.addAll(part.rows);
+            errors.addAll(loaded.getShardFile(shards[i]).getFileName().toString(), part.errors);
+            bytes += part.bytes;
+        }
+        replaceRows(rows, errors, manifestFile);
+        table.setReservedKeys(ShardKeys.anyContains(otherKeys));
+        useShards(loaded, shard, shard < 0 ? starts : null, digests);
+        currentFileName = manifestFile;
+        isAppDefault = false;
+        rememberLoaded(length, modified, 0, new byte[0], strict);
+        return bytes;
+    }
+
+    private void useShards(ShardManifest layout, int shard, int[] starts, byte[][] digests) {
+        manifest = layout;
+        loadedShard = shard;
+        shardDigests = digests;
+        table.setRowMarks(starts == null ? null : Arrays.copyOfRange(starts, 1, starts.length - 1));
+    }
+
+    // The key files of the shards other than the given one, opened on the loader's threads.
+    private static List<ShardKeys> openKeys(AsyncFileTable loader, ShardManifest layout, int except) throws IOException {
+        List<CompletableFuture<ShardKeys>> opens = new ArrayList<>();
+        for (int index = 0; index < layout.getShardCount(); index++) {
+            if (index == except) continue;
+            Path shardFile = layout.getShardFile(index);
+            Path keyFile = layout.getKeyFile(index);
+            opens.add(loader.submit(() -> ShardKeys.open(shardFile, keyFile)));
+        }
+        return joinAll(opens);
+    }
+
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) throws IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    // Digest of the rows as saveTableToFile would write them, which for a file this class wrote is the digest of
+    // the file's bytes.
+    private static byte[] digest(List<Row> rows) throws IOException {
+        MessageDigest digest = newDigest();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8), TableCodecs.BUFFER_SIZE)) {
+            for (Row row : rows) {
+                TableCodecs.NATIVE.write(row, writer);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static final class LoadedShard {
+        private final List<Row> rows;
+        private final ParseErrorReport errors;
+        private final byte[] digest;
+        private final long bytes;
+
+        private LoadedShard(List<Row> rows, ParseErrorReport errors, byte[] digest, long bytes) {
+            this.rows = rows;
+            this.errors = errors;
+            this.digest = digest;
+            this.bytes = bytes;
+        }
+
+        static LoadedShard load(Path file, boolean strict) throws IOException {
+            byte[] content = Files.readAllBytes(file);
+            ParseErrorReport errors = new ParseErrorReport();
+            List<Row> rows = parseLines(splitLines(new String(content, StandardCharsets.UTF_8)), 0, strict, errors);
+            return new LoadedShard(rows, errors, newDigest().digest(content), content.length);
+        }
+    }
+
+    // Picks up changes another process made to the current file. Rows appended after the last load are parsed and
+    // added on their own; any other change reloads the whole file, dropping unsaved edits. A trailing line without
+    // its newline yet is left for the next call.
+    public TableFileChange reloadIfChanged() throws IOException {
+        if (currentFileName == null || isAppDefault) {
+            return TableFileChange.UNCHANGED;
+        }
+        Path path = new File(currentFileName).toPath();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        long size = Files.size(path);
+        if (size == loadedLength && modified == loadedModified) {
+            return TableFileChange.UNCHANGED;
+        }
+        // Every save of a sharded table rewrites its manifest, so any change to the manifest means a shard changed.
+        if (manifest != null) {
+            return reloadChangedFile();
+        }
+
+        if (loadedLength < 0 || size <= loadedLength) {
+            return reloadChangedFile();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] tail = read(channel, loadedLength - loadedTail.length, loadedTail.length);
+            if (!Arrays.equals(tail, loadedTail)) {
+                return reloadChangedFile();
+            }
+
+            byte[] appended = read(channel, loadedLength, (int) Math.min(size - loadedLength, Integer.MAX_VALUE));
+            int end = appended.length;
+            while (end > 0 && appended[end - 1] != '\n') {
+                end--;
+            }
+            if (end == 0) {
+                return TableFileChange.UNCHANGED;
+            }
+            appendLines(splitLines(new String(appended, 0, end, StandardCharsets.UTF_8)));
+            byte[] newTail = new byte[Math.min(APPEND_CHECK_BYTES, loadedTail.length + end)];
+            int fromAppended = Math.min(end, newTail.length);
+            System.arraycopy(loadedTail, loadedTail.length - (newTail.length - fromAppended), newTail, 0, newTail.length - fromAppended);
+            System.arraycopy(appended, end - fromAppended, newTail, newTail.length - fromAppended, fromAppended);
+            loadedLength += end;
+            loadedModified = modified;
+            loadedTail = newTail;
+            return TableFileChange.APPENDED;
+        }
+    }
+
+    private TableFileChange reloadChangedFile() throws IOException {
+        if (isDirty()) {
+            LOGGER.warn("Table file was rewritten; discarding unsaved edits.", "file", currentFileName);
+        }
+        if (manifest != null) {
+            openShards(currentFileName, loadedShard, loadedStrict);
+        } else {
+            loadTableFromFile(currentFileName, loadedStrict);
+        }
+        return TableFileChange.RELOADED;
+    }
+
+    private void appendLines(List<String> lines) throws TableParseException {
+        ParseErrorReport errors = new ParseErrorReport();
+        List<Row> rows = parseLines(lines, loadedLines, loadedStrict, errors);
+        int lineNumber = loadedLines + lines.size();
+
+        boolean wasClean = !isDirty();
+        for (Row row : rows) {
+            table.addRow(row);
+        }
+        if (wasClean) {
+            savedModificationCount = table.getModificationCount();
+        }
+        loadedLines = lineNumber;
+        if (!errors.isEmpty()) {
+            lastParseErrors = errors;
+            LOGGER.warn("Replaced malformed cells with Invalid,Invalid.", "source", currentFileName,
+                "count", errors.getCount(), "first", errors.getSamples());
+        }
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private void rememberLoaded(long length, long modified, int lines, byte[] tail, boolean strict) {
+        loadedLength = length;
+        loadedModified = modified;
+        loadedLines = lines;
+        loadedTail = tail;
+        loadedStrict = strict;
+    }
+
+    private void rememberSaved(File file, int lines) throws IOException {
+        long length = file.length();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int tailLength = (int) Math.min(APPEND_CHECK_BYTES, length);
+            rememberLoaded(length, file.lastModified(), lines, read(channel, length - tailLength, tailLength), loadedStrict);
+        }
     }
 
     public void loadTableFromContent(String content) throws IOException {
+        List<String> lines = splitLines(content);
+        loadTableFromLines(lines, false, "content");
+        isAppDefault = checkIfAppDefault(lines);
+    }
+
+    private static List<String> splitLines(String content) throws IOException {
         try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
             List<String> lines = new ArrayList<>();
             String line;
             while ((line = reader.readLine()) != null) {
                 lines.add(line);
             }
-            loadTableFromLines(lines);
-            isAppDefault = checkIfAppDefault(lines);
+            return lines;
         }
     }
 
+    // Prefers the pre-parsed copy of the default table and falls back to parsing the text resource.
     public void loadDefaultTable() throws IOException {
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("app_default.txt")) {
-            if (inputStream == null) {
-                throw new IOException("Default table file not found.");
+        TableLoadEvent event = beginLoadEvent();
+        ClassLoader classLoader = getClass().getClassLoader();
+        try {
+            try (InputStream compact = classLoader.getResourceAsStream(COMPACT_DEFAULT_TABLE)) {
+                if (compact != null) {
+                    replaceRows(CompactTableFormat.read(compact), new ParseErrorReport(), COMPACT_DEFAULT_TABLE);
+                } else {
+                    try (InputStream text = classLoader.getResourceAsStream(DEFAULT_TABLE)) {
+                        if (text == null) {
+                            throw new IOException("Default table file not found.");
+                        }
+                        loadTableFromContent(new String(text.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
             }
-            String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-            loadTableFromContent(content);
-            currentFileName = "app_default.txt";
+            currentFileName = DEFAULT_TABLE;
             isAppDefault = true;
-            System.out.println("Loaded default table from JAR.");
+            rememberLoaded(-1, 0, 0, new byte[0], false);
+            if (event != null && event.shouldCommit()) {
+                event.file = currentFileName;
+                event.rows = table.getRowCount();
+                event.commit();
+            }
+            LOGGER.info("Loaded default table from JAR.");
         } catch (IOException e) {
-            System.out.println("Error loading default table: " + e.getMessage());
+            LOGGER.error("Error loading default table: " + e.getMessage());
             throw e;
         }
     }
 
-    private void loadTableFromLines(List<String> lines) {
-        table.clear();
+    private static TableLoadEvent beginLoadEvent() {
+        if (!TableEvents.isRecorderRunning()) {
+            return null;
+        }
+        TableLoadEvent event = new TableLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    private void loadTableFromLines(List<String> lines, boolean strict, String source) throws TableParseException {
+        ParseErrorReport errors = new ParseErrorReport();
+        replaceRows(parseLines(lines, 0, strict, errors), errors, source);
+    }
+
+    // Line numbers in errors count on from firstLineNumber.
+    private static List<Row> parseLines(List<String> lines, int firstLineNumber, boolean strict, ParseErrorReport errors)
+            throws TableParseException {
+        List<Row> rows = new ArrayList<>(lines.size());
+        int lineNumber = firstLineNumber;
         for (String line : lines) {
+            lineNumber++;
             if (line.trim().isEmpty()) continue;
-            List<Cell> cells = parseLineToCells(line);
-            table.addRow(new Row(cells));
+            rows.add(new Row(parseLineToCells(line, lineNumber, strict, errors)));
+        }
+        return rows;
+    }
+
+    private void replaceRows(List<Row> rows, ParseErrorReport errors, String source) {
+        table.clear();
+        for (Row row : rows) {
+            table.addRow(row);
+        }
+        rowsReplaced(errors, source);
+    }
+
+    private void rowsReplaced(ParseErrorReport errors, String source) {
+        table.setReservedKeys(key -> false);
+        useShards(null, -1, null, null);
+        lastParseErrors = errors;
+        savedModificationCount = table.getModificationCount();
+        if (!errors.isEmpty()) {
+            LOGGER.warn("Replaced malformed cells with Invalid,Invalid.", "source", source,
+                "count", errors.getCount(), "first", errors.getSamples());
         }
     }
 
-    private List<Cell> parseLineToCells(String line) {
+    static List<Cell> parseLineToCells(String line, int lineNumber, boolean strict, ParseErrorReport errors)
+            throws TableParseException {
         List<Cell> cells = new ArrayList<>();
         String[] cellArray = line.split(String.valueOf(CELL_DELIMITER));
         for (String cellStr : cellArray) {
-            cells.add(parseCell(cellStr));
+            cells.add(parseCell(cellStr, lineNumber, strict, errors));
         }
         return cells;
     }
 
-    private Cell parseCell(String cellStr) {
+    private static Cell parseCell(String cellStr, int lineNumber, boolean strict, ParseErrorReport errors)
+            throws TableParseException {
+        String problem;
+        String text;
         if (cellStr.startsWith("(") && cellStr.endsWith(")")) {
             String cleanCellStr = cellStr.substring(1, cellStr.length() - 1);
             String[] keyValue = cleanCellStr.split(String.valueOf(KEY_VALUE_DELIMITER), 2);
             if (keyValue.length == 2) {
                 return new Cell(keyValue[0], keyValue[1]);
-            } else {
-                System.out.println("Invalid key-value pair: " + cleanCellStr);
             }
+            problem = "Invalid key-value pair";
+            text = cleanCellStr;
         } else {
-            System.out.println("Invalid cell format: " + cellStr);
+            problem = "Invalid cell format";
+            text = cellStr;
         }
+
+        if (strict) {
+            throw new TableParseException(lineNumber, problem + ": " + text);
+        }
+        errors.record(lineNumber, problem, text);
         return new Cell("Invalid", "Invalid");
     }
 
+    // Saving to the manifest of the sharded table this was loaded from writes only the shards that changed.
     public void saveTableToFile(String fileName) throws IOException {
-        File file = new File(fileName);    
-        List<String> lines = new ArrayList<>();
+        File file = new File(fileName);
+        if (manifest != null && manifest.getFile().equals(file.toPath().toAbsolutePath().normalize())) {
+            saveShards(fileName, manifest, shardDigests, false);
+            return;
+        }
+        TableSaveEvent event = beginSaveEvent();
+        try (Writer writer = TableCodecs.newWriter(file.toPath())) {
+            for (Row row : table.getRows()) {
+                TableCodecs.NATIVE.write(row, writer);
+            }
+        }
+        savedModificationCount = table.getModificationCount();
+        currentFileName = fileName;
+        rememberSaved(file, table.getRowCount());
+        isAppDefault = false;
+        table.setReservedKeys(key -> false);
+        useShards(null, -1, null, null);
+        commitSaveEvent(event, fileName, file.length());
+    }
+
+    private void commitSaveEvent(TableSaveEvent event, String fileName, long bytes) {
+        if (event != null && event.shouldCommit()) {
+            event.file = fileName;
+            event.bytes = bytes;
+            event.rows = table.getRowCount();
+            event.commit();
+        }
+    }
+
+    // Splits the table into shardCount files of about the same number of rows beside a new manifest. The table then
+    // belongs to that layout: saving it to the manifest again rewrites only the shards whose rows changed.
+    public void saveTableSharded(String manifestFile, int shardCount) throws IOException {
+        ShardManifest created = ShardManifest.create(new File(manifestFile).toPath(), shardCount);
+        saveShards(manifestFile, created, new byte[shardCount][], true);
+    }
+
+    // Shards are digested and, if their rows no longer match the file, rewritten in parallel; the manifest is written
+    // last. Another process's save of the same table waits for the manifest's lock. Each shard must still be on disk
+    // as it was last loaded or saved, and a single loaded shard is checked against the other shards' keys as they are
+    // on disk now, as another process may have saved new keys since.
+    private void saveShards(String fileName, ShardManifest layout, byte[][] digests, boolean created) throws IOException {
+        TableSaveEvent event = beginSaveEvent();
+        int shard = created ? -1 : loadedShard;
+        int count = layout.getShardCount();
+        ShardManifest current;
+        List<ShardKeys> otherKeys = Collections.emptyList();
+        byte[][] savedDigests = digests.clone();
+        int[] shards;
+        int[] starts;
+        long bytes = 0;
+        int rewritten = 0;
+        try (Closeable lock = layout.lock(); AsyncFileTable writer = new AsyncFileTable()) {
+            current = created ? layout : ShardManifest.read(layout.getFile());
+            if (current.getShardCount() != count) {
+                throw new IOException("Sharded table was split differently since it was loaded: " + fileName);
+            }
+            if (shard >= 0) {
+                otherKeys = openKeys(writer, current, shard);
+                checkKeysUnused(otherKeys, fileName);
+                shards = new int[] {shard};
+                starts = new int[] {0, table.getRowCount()};
+            } else {
+                shards = IntStream.range(0, count).toArray();
+                starts = created ? null : shardStarts(count);
+                if (starts == null) {
+                    starts = evenShardStarts(count);
+                }
+            }
+
+            List<CompletableFuture<Void>> checks = new ArrayList<>();
+            for (int shardIndex : shards) {
+                Path shardFile = current.getShardFile(shardIndex);
+                byte[] savedDigest = digests[shardIndex];
+                checks.add(writer.submit(() -> checkShardUnchanged(shardFile, savedDigest, shardIndex, fileName)));
+            }
+            joinAll(checks);
+
+            List<CompletableFuture<byte[]>> saves = new ArrayList<>();
+            for (int i = 0; i < shards.length; i++) {
+                Path shardFile = current.getShardFile(shards[i]);
+                Path keyFile = current.getKeyFile(shards[i]);
+                List<Row> rows = table.getRowRange(starts[i], starts[i + 1]);
+                byte[] savedDigest = digests[shards[i]];
+                saves.add(writer.submit(() -> saveShard(shardFile, keyFile, rows, savedDigest)));
+            }
+            List<byte[]> saved = joinAll(saves);
+            for (int i = 0; i < shards.length; i++) {
+                current.setRowCount(shards[i], starts[i + 1] - starts[i]);
+                if (!Arrays.equals(saved.get(i), digests[shards[i]])) {
+                    rewritten++;
+                    bytes += Files.size(current.getShardFile(shards[i]));
+                }
+                savedDigests[shards[i]] = saved.get(i);
+            }
+            current.write();
+        }
+
+        table.setReservedKeys(ShardKeys.anyContains(otherKeys));
+        useShards(current, shard, shard < 0 ? starts : null, savedDigests);
+        savedModificationCount = table.getModificationCount();
+        currentFileName = fileName;
+        isAppDefault = false;
+        Path manifestFile = current.getFile();
+        rememberLoaded(Files.size(manifestFile), Files.getLastModifiedTime(manifestFile).toMillis(), 0, new byte[0],
+            loadedStrict);
+        commitSaveEvent(event, fileName, bytes);
+        LOGGER.info("Saved sharded table.", "file", fileName, "shards", count, "rewritten", rewritten);
+    }
+
+    // Another process may have saved the shard since this one read it; writing over that would lose its rows, so the
+    // save is rejected like a key another shard already uses.
+    private static Void checkShardUnchanged(Path file, byte[] savedDigest, int shard, String fileName)
+            throws IOException {
+        if (savedDigest == null || !Files.exists(file)) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (!Arrays.equals(digest.digest(), savedDigest)) {
+            throw new IOException("Shard " + shard + " of " + fileName
+                + " was changed by another process since it was loaded");
+        }
+        return null;
+    }
+
+    // The key file is written after the shard, so it is never older than the shard it lists.
+    private static byte[] saveShard(Path file, Path keyFile, List<Row> rows, byte[] savedDigest) throws IOException {
+        byte[] digest = digest(rows);
+        if (!Arrays.equals(digest, savedDigest) || !Files.exists(file)) {
+            TableCodecs.replace(file, writer -> {
+                for (Row row : rows) {
+                    TableCodecs.NATIVE.write(row, writer);
+                }
+            });
+            ShardKeys.write(keyFile, rows);
+        }
+        return digest;
+    }
+
+    // This shard's keys are sorted, then merged with each other shard's sorted key file.
+    private void checkKeysUnused(List<ShardKeys> otherKeys, String fileName) throws IOException {
+        NavigableSet<String> keys = new TreeSet<>();
         for (Row row : table.getRows()) {
-            List<String> formattedCells = new ArrayList<>();
             for (Cell cell : row.getCells()) {
-                formattedCells.add("(" + cell.getKey() + KEY_VALUE_DELIMITER + cell.getValue() + ")");
+                keys.add(cell.getKey());
             }
-            lines.add(String.join(String.valueOf(CELL_DELIMITER), formattedCells));
         }
-        FileUtils.writeLines(file, lines, "\n");
-        currentFileName = fileName;
+        for (ShardKeys other : otherKeys) {
+            String shared = other.firstShared(keys.iterator());
+            if (shared != null) {
+                throw new IOException("Key " + shared + " is already used by another shard of " + fileName);
+            }
+        }
+    }
+
+    // Where each shard starts in the table now, followed by the row count: shard 0 at the top and every other shard
+    // at its row mark, so rows added or removed inside one shard leave the others alone, and rows added where two
+    // shards meet join the earlier one. Null when there are no marks for this layout, or they were left out of order
+    // by changes made to the row list directly.
+    private int[] shardStarts(int count) {
+        int[] marks = table.getRowMarks();
+        if (marks == null || marks.length != count - 1) {
+            return null;
+        }
+        int[] starts = new int[count + 1];
+        starts[count] = table.getRowCount();
+        for (int i = 1; i < count; i++) {
+            starts[i] = marks[i - 1];
+        }
+        for (int i = 1; i <= count; i++) {
+            if (starts[i] < starts[i - 1]) {
+                return null;
+            }
+        }
+        return starts;
+    }
+
+    private int[] evenShardStarts(int count) {
+        int[] starts = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            starts[i] = (int) ((long) table.getRowCount() * i / count);
+        }
+        return starts;
+    }
+
+    // Writes the table in another format, one row at a time. The table keeps its current file name.
+    public void exportTable(String fileName, TableCodec codec) throws IOException {
+        try (Writer writer = TableCodecs.newWriter(new File(fileName).toPath())) {
+            for (Row row : table.getRows()) {
+                codec.write(row, writer);
+            }
+        }
+        LOGGER.info("Exported table.", "file", fileName, "rows", table.getRowCount());
+    }
+
+    // Replaces the table with rows read in another format. The table no longer belongs to the file or shards it was
+    // loaded from, and counts as unsaved until saved to a file.
+    public void importTable(String fileName, TableCodec codec) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (Reader reader = TableCodecs.newReader(new File(fileName).toPath())) {
+            codec.read(reader, rows::add);
+        }
+        table.clear();
+        for (Row row : rows) {
+            table.addRow(row);
+        }
+        table.setReservedKeys(key -> false);
+        useShards(null, -1, null, null);
+        currentFileName = null;
         isAppDefault = false;
+        rememberLoaded(-1, 0, 0, new byte[0], false);
+        lastParseErrors = new ParseErrorReport();
+        LOGGER.info("Imported table.", "file", fileName, "rows", rows.size());
+    }
+
+    private static TableSaveEvent beginSaveEvent() {
+        if (!TableEvents.isRecorderRunning()) {
+            return null;
+        }
+        TableSaveEvent event = new TableSaveEvent();
+        event.begin();
+        return event;
     }
 
     private boolean checkIfAppDefault(List<String> lines) {
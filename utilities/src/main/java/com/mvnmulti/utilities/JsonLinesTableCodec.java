@@ -0,0 +1,212 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+// JSON Lines with one row per line as an array of cells: [{"key":"k","value":"v"},...]. The reader accepts any
+// whitespace within a line and members in either order, but nothing besides key and value.
+public class JsonLinesTableCodec implements TableCodec {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public void read(Reader reader, RowSink sink) throws IOException {
+        LineParser parser = new LineParser(new CharInput(reader));
+        while (parser.input.peek() != -1) {
+            parser.line++;
+            parser.skipWhitespace();
+            int c = parser.input.peek();
+            if (c == '\n' || c == -1) {
+                parser.input.read();
+                continue;
+            }
+            sink.accept(parser.parseRow());
+            parser.skipWhitespace();
+            c = parser.input.read();
+            if (c != '\n' && c != -1) {
+                throw parser.error("Expected end of line");
+            }
+        }
+    }
+
+    @Override
+    public void write(Row row, Writer writer) throws IOException {
+        writer.write('[');
+        List<Cell> cells = row.getCells();
+        for (int i = 0; i < cells.size(); i++) {
+            writer.write(i == 0 ? "{\"key\":" : ",{\"key\":");
+            writeString(cells.get(i).getKey(), writer);
+            writer.write(",\"value\":");
+            writeString(cells.get(i).getValue(), writer);
+            writer.write('}');
+        }
+        writer.write("]\n");
+    }
+
+    private static void writeString(String text, Writer writer) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            writer.write(text, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEX[c >> 4]);
+                    writer.write(HEX[c & 0xf]);
+            }
+        }
+        writer.write(text, start, text.length() - start);
+        writer.write('"');
+    }
+
+    private static final class LineParser {
+        private final CharInput input;
+        private final StringBuilder text = new StringBuilder();
+        private int line;
+
+        private LineParser(CharInput input) {
+            this.input = input;
+        }
+
+        private Row parseRow() throws IOException {
+            expect('[');
+            List<Cell> cells = new ArrayList<>();
+            skipWhitespace();
+            if (input.peek() == ']') {
+                input.read();
+                return new Row(cells);
+            }
+            while (true) {
+                cells.add(parseCell());
+                skipWhitespace();
+                int c = input.read();
+                if (c == ']') {
+                    return new Row(cells);
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private Cell parseCell() throws IOException {
+            expect('{');
+            String key = null;
+            String value = null;
+            for (int member = 0; member < 2; member++) {
+                if (member > 0) {
+                    expect(',');
+                }
+                String name = parseString();
+                expect(':');
+                if (name.equals("key") && key == null) {
+                    key = parseString();
+                } else if (name.equals("value") && value == null) {
+                    value = parseString();
+                } else {
+                    throw error("Unexpected member \"" + name + "\"");
+                }
+            }
+            expect('}');
+            return new Cell(key, value);
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            text.setLength(0);
+            while (true) {
+                int c = input.read();
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c == -1 || c == '\n') {
+                    throw error("Unterminated string");
+                }
+                if (c != '\\') {
+                    text.append((char) c);
+                    continue;
+                }
+                c = input.read();
+                switch (c) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        text.append((char) c);
+                        break;
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(input.read(), 16);
+                            if (digit < 0) {
+                                throw error("Invalid \\u escape");
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    default:
+                        throw error("Invalid escape");
+                }
+            }
+        }
+
+        private void expect(char expected) throws IOException {
+            skipWhitespace();
+            if (input.read() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private void skipWhitespace() throws IOException {
+            int c = input.peek();
+            while (c == ' ' || c == '\t' || c == '\r') {
+                input.read();
+                c = input.peek();
+            }
+        }
+
+        private TableParseException error(String message) {
+            return new TableParseException(line, message);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
+// The application's own file format, parsed and written exactly as FileTable does, with malformed cells rejected.
+public class NativeTableCodec implements TableCodec {
+    @Override
+    public void read(Reader reader, RowSink sink) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        ParseErrorReport errors = new ParseErrorReport();
+        int lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) continue;
+            sink.accept(new Row(FileTable.parseLineToCells(line, lineNumber, true, errors)));
+        }
+    }
+
+    // Parses one non-blank line on its own, for callers that read lines themselves.
+    public Row parseRow(String line, int lineNumber) throws TableParseException {
+        return new Row(FileTable.parseLineToCells(line, lineNumber, true, new ParseErrorReport()));
+    }
+
+    @Override
+    public void write(Row row, Writer writer) throws IOException {
+        List<Cell> cells = row.getCells();
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(FileTable.CELL_DELIMITER);
+            }
+            writer.write('(');
+            writer.write(cells.get(i).getKey());
+            writer.write(FileTable.KEY_VALUE_DELIMITER);
+            writer.write(cells.get(i).getValue());
+            writer.write(')');
+        }
+        writer.write('\n');
+    }
+}
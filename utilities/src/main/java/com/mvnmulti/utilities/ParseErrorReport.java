@@ -0,0 +1,44 @@
+package com.mvnmulti.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ParseErrorReport {
+    private static final int MAX_SAMPLES = 5;
+    private static final int MAX_SAMPLE_LENGTH = 80;
+
+    private long count;
+    private final List<String> samples = new ArrayList<>();
+
+    public void record(int lineNumber, String problem, String text) {
+        count++;
+        if (samples.size() < MAX_SAMPLES) {
+            String excerpt = text.length() > MAX_SAMPLE_LENGTH ? text.substring(0, MAX_SAMPLE_LENGTH) + "..." : text;
+            samples.add("line " + lineNumber + ": " + problem + ": " + excerpt);
+        }
+    }
+
+    // Folds in the errors of another load, such as one shard of a sharded table, naming where they came from.
+    public void addAll(String source, ParseErrorReport other) {
+        count += other.count;
+        for (String sample : other.samples) {
+            if (samples.size() == MAX_SAMPLES) {
+                break;
+            }
+            samples.add(source + " " + sample);
+        }
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<String> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+}
@@ -0,0 +1,192 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Cell;
+import com.mvnmulti.model.Row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+// The keys of one shard, kept beside it as a sorted file with one key per line (big-shard0.txt.keys) and written
+// whenever the shard is. Only every SAMPLE_INTERVAL-th key and where its line starts stay in memory; a lookup reads
+// the few lines after the nearest sample. A key file older than its shard, or missing, is rebuilt from the shard.
+final class ShardKeys {
+    private static final int SAMPLE_INTERVAL = 64;
+    private static final int LOOKUP_BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final String[] samples;
+    private final long[] offsets;
+
+    private ShardKeys(Path file, String[] samples, long[] offsets) {
+        this.file = file;
+        this.samples = samples;
+        this.offsets = offsets;
+    }
+
+    static ShardKeys open(Path shardFile, Path keyFile) throws IOException {
+        if (!Files.exists(keyFile)
+                || Files.getLastModifiedTime(keyFile).compareTo(Files.getLastModifiedTime(shardFile)) < 0) {
+            write(keyFile, readKeys(shardFile));
+        }
+        List<String> samples = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        try (LineInput in = new LineInput(Files.newInputStream(keyFile), TableCodecs.BUFFER_SIZE)) {
+            for (long index = 0; ; index++) {
+                long offset = in.offset;
+                String key = in.readLine();
+                if (key == null) break;
+                if (index % SAMPLE_INTERVAL == 0) {
+                    samples.add(key);
+                    offsets.add(offset);
+                }
+            }
+        }
+        return new ShardKeys(keyFile, samples.toArray(new String[0]),
+            offsets.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    static void write(Path keyFile, List<Row> rows) throws IOException {
+        NavigableSet<String> keys = new TreeSet<>();
+        for (Row row : rows) {
+            for (Cell cell : row.getCells()) {
+                keys.add(cell.getKey());
+            }
+        }
+        write(keyFile, keys);
+    }
+
+    private static void write(Path keyFile, NavigableSet<String> keys) throws IOException {
+        TableCodecs.replace(keyFile, writer -> {
+            for (String key : keys) {
+                writer.write(key);
+                writer.write('\n');
+            }
+        });
+    }
+
+    // Holds only this one shard's keys, to sort them.
+    private static NavigableSet<String> readKeys(Path shardFile) throws IOException {
+        NavigableSet<String> keys = new TreeSet<>();
+        try (BufferedReader reader = TableCodecs.newReader(shardFile)) {
+            ParseErrorReport ignored = new ParseErrorReport();
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                for (Cell cell : FileTable.parseLineToCells(line, lineNumber, false, ignored)) {
+                    keys.add(cell.getKey());
+                }
+            }
+        }
+        return keys;
+    }
+
+    // For Table.setReservedKeys; a key file that can no longer be read fails the lookup rather than passing it.
+    static Predicate<String> anyContains(List<ShardKeys> shards) {
+        return key -> {
+            for (ShardKeys shard : shards) {
+                if (shard.contains(key)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    boolean contains(String key) {
+        int found = Arrays.binarySearch(samples, key);
+        if (found >= 0) {
+            return true;
+        }
+        int sample = -found - 2;
+        if (sample < 0) {
+            return false;
+        }
+        try (LineInput in = new LineInput(Channels.newInputStream(FileChannel.open(file).position(offsets[sample])),
+                LOOKUP_BUFFER_SIZE)) {
+            for (int i = 0; i < SAMPLE_INTERVAL; i++) {
+                String line = in.readLine();
+                if (line == null) {
+                    return false;
+                }
+                int order = line.compareTo(key);
+                if (order >= 0) {
+                    return order == 0;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read shard keys: " + file, e);
+        }
+    }
+
+    // The first of the given keys, in ascending order, that this shard also holds, found in one pass over both.
+    String firstShared(Iterator<String> sortedKeys) throws IOException {
+        if (!sortedKeys.hasNext()) {
+            return null;
+        }
+        String candidate = sortedKeys.next();
+        try (LineInput in = new LineInput(Files.newInputStream(file), TableCodecs.BUFFER_SIZE)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int order;
+                while ((order = line.compareTo(candidate)) > 0) {
+                    if (!sortedKeys.hasNext()) {
+                        return null;
+                    }
+                    candidate = sortedKeys.next();
+                }
+                if (order == 0) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    // UTF-8 lines read with the byte offset of the next one, so samples can point into the file.
+    private static final class LineInput implements AutoCloseable {
+        private final InputStream in;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private long offset;
+
+        LineInput(InputStream in, int bufferSize) {
+            this.in = new BufferedInputStream(in, bufferSize);
+        }
+
+        String readLine() throws IOException {
+            line.reset();
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b == '\n') {
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+            return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
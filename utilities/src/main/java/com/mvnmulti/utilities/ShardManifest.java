@@ -0,0 +1,163 @@
+package com.mvnmulti.utilities;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A table split by row ranges into plain table files that sit beside this manifest. The manifest starts with a
+// marker line, then names one shard per line in row order, with its row count after a tab:
+//   TABLE_SHARDS
+//   big-shard0.txt<TAB>50000
+//   big-shard1.txt<TAB>50000
+public final class ShardManifest {
+    static final String MARKER = "TABLE_SHARDS";
+    private static final char FIELD_DELIMITER = '\t';
+    private static final byte[] MARKER_LINE = (MARKER + "\n").getBytes(StandardCharsets.UTF_8);
+
+    // FileLock is held per JVM, so threads of one process queue here before taking the file lock.
+    private static final ReentrantLock PROCESS_LOCK = new ReentrantLock();
+
+    private final Path file;
+    private final List<String> shardNames;
+    private final int[] rowCounts;
+
+    private ShardManifest(Path file, List<String> shardNames, int[] rowCounts) {
+        this.file = file.toAbsolutePath().normalize();
+        this.shardNames = shardNames;
+        this.rowCounts = rowCounts;
+    }
+
+    // Names the shards after the manifest: big.manifest gets big-shard0.txt, big-shard1.txt and so on.
+    public static ShardManifest create(Path file, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("A sharded table needs at least one shard.");
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        List<String> shardNames = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shardNames.add(stem + "-shard" + i + ".txt");
+        }
+        return new ShardManifest(file, shardNames, new int[shardCount]);
+    }
+
+    public static ShardManifest read(Path file) throws IOException {
+        List<String> shardNames = new ArrayList<>();
+        List<Integer> rowCounts = new ArrayList<>();
+        try (BufferedReader reader = TableCodecs.newReader(file)) {
+            if (!MARKER.equals(reader.readLine())) {
+                throw new TableParseException(1, "Not a shard manifest: " + file);
+            }
+            int lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                int delimiter = line.lastIndexOf(FIELD_DELIMITER);
+                try {
+                    if (delimiter < 1) {
+                        throw new NumberFormatException();
+                    }
+                    rowCounts.add(Integer.parseInt(line.substring(delimiter + 1)));
+                } catch (NumberFormatException e) {
+                    throw new TableParseException(lineNumber, "Invalid shard entry: " + line);
+                }
+                shardNames.add(line.substring(0, delimiter));
+            }
+        }
+        if (shardNames.isEmpty()) {
+            throw new TableParseException(1, "Shard manifest lists no shards: " + file);
+        }
+        return new ShardManifest(file, shardNames, rowCounts.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    static boolean isManifest(byte[] content) {
+        if (content.length < MARKER_LINE.length) {
+            return false;
+        }
+        for (int i = 0; i < MARKER_LINE.length - 1; i++) {
+            if (content[i] != MARKER_LINE[i]) {
+                return false;
+            }
+        }
+        byte end = content[MARKER_LINE.length - 1];
+        return end == '\n' || end == '\r';
+    }
+
+    // Written to a temporary file and moved into place, so readers see either the old manifest or the new one.
+    public void write() throws IOException {
+        TableCodecs.replace(file, writer -> {
+            writer.write(MARKER);
+            writer.write('\n');
+            for (int i = 0; i < shardNames.size(); i++) {
+                writer.write(shardNames.get(i));
+                writer.write(FIELD_DELIMITER);
+                writer.write(Integer.toString(rowCounts[i]));
+                writer.write('\n');
+            }
+        });
+    }
+
+    // Held while saving, so processes saving shards of the same table take turns; the lock file sits beside the
+    // manifest because the manifest itself is replaced on every save.
+    public Closeable lock() throws IOException {
+        PROCESS_LOCK.lock();
+        try {
+            FileChannel channel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return () -> {
+                try {
+                    lock.release();
+                    channel.close();
+                } finally {
+                    PROCESS_LOCK.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            PROCESS_LOCK.unlock();
+            throw e;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getShardCount() {
+        return shardNames.size();
+    }
+
+    public Path getShardFile(int shard) {
+        return file.resolveSibling(shardNames.get(shard));
+    }
+
+    // Sorted keys of the shard (see ShardKeys).
+    public Path getKeyFile(int shard) {
+        return file.resolveSibling(shardNames.get(shard) + ".keys");
+    }
+
+    public int getRowCount(int shard) {
+        return rowCounts[shard];
+    }
+
+    public void setRowCount(int shard, int rows) {
+        rowCounts[shard] = rows;
+    }
+}
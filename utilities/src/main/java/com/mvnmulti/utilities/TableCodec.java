@@ -0,0 +1,21 @@
+package com.mvnmulti.utilities;
+
+import com.mvnmulti.model.Row;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+// A row-at-a-time text format. Readers hand each row to the sink as soon as it is complete and writers emit one row,
+// so whole tables can be converted without ever being held in memory or built up as one string.
+public interface TableCodec {
+    void read(Reader reader, RowSink sink) throws IOException;
+
+    // Writes the row followed by its line terminator.
+    void write(Row row, Writer writer) throws IOException;
+
+    @FunctionalInterface
+    interface RowSink {
+        void accept(Row row) throws IOException;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mvnmulti.utilities;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+public final class TableCodecs {
+    public static final NativeTableCodec NATIVE = new NativeTableCodec();
+    public static final TableCodec CSV = new CsvTableCodec();
+    public static final TableCodec JSON_LINES = new JsonLinesTableCodec();
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private TableCodecs() {
+    }
+
+    // .csv and .jsonl/.ndjson select those formats; anything else is the native format.
+    public static TableCodec forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        return NATIVE;
+    }
+
+    public static BufferedReader newReader(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // Creates missing parent directories, as saving always has.
+    public static Writer newWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    // Written to a temporary file beside the target and moved into place, so readers see either the old file or the
+    // new one, and the target may be the very file the content is read from.
+    public static void replace(Path target, Content content) throws IOException {
+        Path directory = Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = newWriter(temporary)) {
+                content.writeTo(writer);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Streams rows from one file to the other; memory use is one row regardless of table size. Returns the row count.
+    public static long convert(Path source, TableCodec sourceCodec, Path target, TableCodec targetCodec) throws IOException {
+        long[] rows = new long[1];
+        try (Reader reader = newReader(source)) {
+            replace(target, writer -> sourceCodec.read(reader, row -> {
+                targetCodec.write(row, writer);
+                rows[0]++;
+            }));
+        }
+        return rows[0];
+    }
+}
@@ -0,0 +1,14 @@
+package com.mvnmulti.utilities;
+
+import jdk.jfr.FlightRecorder;
+
+public final class TableEvents {
+    private TableEvents() {
+    }
+
+    // Initializing the first event class starts the JFR runtime, a few hundred milliseconds on a cold start even when
+    // nothing records, so events are only created once a recorder exists (-XX:StartFlightRecording or jcmd JFR.start).
+    public static boolean isRecorderRunning() {
+        return FlightRecorder.isInitialized();
+    }
+}
@@ -0,0 +1,8 @@
+package com.mvnmulti.utilities;
+
+// How FileTable.reloadIfChanged brought the table up to date with its file.
+public enum TableFileChange {
+    UNCHANGED,
+    APPENDED,
+    RELOADED
+}
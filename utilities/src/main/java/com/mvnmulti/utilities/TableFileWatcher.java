@@ -0,0 +1,89 @@
+package com.mvnmulti.utilities;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Watches one table file from a background thread and raises a flag when it may have changed. The flag is only a
+// hint: whoever owns the table calls FileTable.reloadIfChanged on its own thread, which decides between appending
+// the new tail and reloading, so the table is never touched from the watcher thread.
+public class TableFileWatcher implements AutoCloseable {
+    // Some file systems deliver events late or not at all, so size and mtime are also compared on every wake-up.
+    private static final long POLL_MILLIS = 500;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final Thread thread;
+    private long lastSize;
+    private long lastModified;
+
+    public TableFileWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        Path directory = this.file.getParent();
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+        statsChanged();
+        this.thread = Thread.ofVirtual().name("table-watcher").start(this::watch);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Returns whether the file may have changed since the last call, and clears the flag.
+    public boolean pollChanged() {
+        return changed.getAndSet(false);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                            changed.set(true);
+                        }
+                    }
+                    key.reset();
+                }
+                if (statsChanged()) {
+                    changed.set(true);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+
+    private boolean statsChanged() {
+        long size;
+        long modified;
+        try {
+            size = Files.size(file);
+            modified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            size = -1;
+            modified = -1;
+        }
+        boolean statsChanged = size != lastSize || modified != lastModified;
+        lastSize = size;
+        lastModified = modified;
+        return statsChanged;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
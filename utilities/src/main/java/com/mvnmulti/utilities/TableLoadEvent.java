@@ -0,0 +1,28 @@
+package com.mvnmulti.utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mvnmulti.TableLoad")
+@Label("Table Load")
+@Category("Table")
+@Description("A table read from a file or from the bundled default")
+@Enabled(false)
+@StackTrace(false)
+public class TableLoadEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows")
+    int rows;
+}
@@ -0,0 +1,106 @@
+package com.mvnmulti.utilities;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Minimal logging facade: messages below the configured level cost one comparison, and each logger emits at most
+// table.log.rate messages per second, reporting how many it dropped with the next one that gets through.
+public final class TableLogger {
+    public enum Level { ERROR, WARN, INFO, DEBUG }
+
+    private static final Map<String, TableLogger> LOGGERS = new ConcurrentHashMap<>();
+    private static volatile Level threshold = parseLevel(System.getProperty("table.log.level"));
+    private static volatile PrintStream output = System.out;
+    private static final int MESSAGES_PER_SECOND = Integer.getInteger("table.log.rate", 100);
+
+    private final String name;
+    private long windowStart;
+    private int windowCount;
+    private long suppressed;
+
+    private TableLogger(String name) {
+        this.name = name;
+    }
+
+    public static TableLogger getLogger(Class<?> type) {
+        return LOGGERS.computeIfAbsent(type.getSimpleName(), TableLogger::new);
+    }
+
+    // An unknown name falls back to INFO rather than failing class initialization, which would break every caller.
+    static Level parseLevel(String name) {
+        if (name == null) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("WARN TableLogger: unknown table.log.level " + name + "; using INFO.");
+            return Level.INFO;
+        }
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static void setOutput(PrintStream stream) {
+        output = stream;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() <= threshold.ordinal();
+    }
+
+    public void error(String message, Object... fields) {
+        log(Level.ERROR, message, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(Level.WARN, message, fields);
+    }
+
+    public void info(String message, Object... fields) {
+        log(Level.INFO, message, fields);
+    }
+
+    public void debug(String message, Object... fields) {
+        log(Level.DEBUG, message, fields);
+    }
+
+    // Fields are alternating names and values, appended as name=value after the message.
+    public void log(Level level, String message, Object... fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        long dropped;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= 1_000_000_000L) {
+                windowStart = now;
+                windowCount = 0;
+            }
+            if (++windowCount > MESSAGES_PER_SECOND) {
+                suppressed++;
+                return;
+            }
+            dropped = suppressed;
+            suppressed = 0;
+        }
+
+        StringBuilder line = new StringBuilder();
+        if (level != Level.INFO) {
+            line.append(level).append(' ').append(name).append(": ");
+        }
+        line.append(message);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=').append(fields[i + 1]);
+        }
+        if (dropped > 0) {
+            line.append(" (").append(dropped).append(" earlier messages suppressed)");
+        }
+        output.println(line);
+    }
+}
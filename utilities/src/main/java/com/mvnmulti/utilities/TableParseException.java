@@ -0,0 +1,16 @@
+package com.mvnmulti.utilities;
+
+import java.io.IOException;
+
+public class TableParseException extends IOException {
+    private final int lineNumber;
+
+    public TableParseException(int lineNumber, String message) {
+        super("Line " + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}